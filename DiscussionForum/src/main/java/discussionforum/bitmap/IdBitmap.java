@@ -0,0 +1,174 @@
+package discussionforum.bitmap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compressed set of non-negative ids in the style of a Roaring bitmap. // Komprimovaná množina nezáporných id ve
+ * stylu Roaring bitmapy.
+ * Ids are split into chunks of 65536 by their high bits. A chunk holding up to 4096 ids keeps them as a sorted
+ * array of 16-bit values, a fuller one as a 8 KB bit set, so sparse and dense sets both stay small and membership
+ * is a hash lookup plus a binary search or a bit test. Methods are synchronized, so a set may be updated while it
+ * is read. // Id se dělí podle vyšších bitů na bloky po 65536. Blok s nejvýše 4096 id je drží jako seřazené pole
+ * 16bitových hodnot, plnější blok jako 8KB bitovou množinu, takže řídké i husté množiny zůstávají malé a test
+ * příslušnosti je vyhledání v hashi plus binární vyhledávání nebo test bitu. Metody jsou synchronizované, takže
+ * množinu lze měnit i během čtení.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public final class IdBitmap {
+
+    /**
+     * Largest chunk kept as a sorted array; past it the bit set is smaller. // Největší blok držený jako seřazené pole;
+     * nad touto hranicí je bitová množina menší.
+     */
+    static final int ARRAY_MAX = 4096;
+
+    private static final int BITSET_WORDS = 1 << 10;
+
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+    private long cardinality;
+
+    /**
+     * @param id Id to test // Testované id
+     * @return Whether the set holds the id // Zda množina obsahuje id
+     */
+    public synchronized boolean contains(long id) {
+        Chunk chunk = chunks.get(id >>> 16);
+        return chunk != null && chunk.contains((char) id);
+    }
+
+    /**
+     * @param id Id to add; must not be negative // Přidávané id; nesmí být záporné
+     * @return Whether the id was not there before // Zda id předtím v množině nebylo
+     */
+    public synchronized boolean add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Ids must not be negative: " + id);
+        }
+        boolean added = chunks.computeIfAbsent(id >>> 16, key -> new Chunk()).add((char) id);
+        if (added) {
+            cardinality++;
+        }
+        return added;
+    }
+
+    /**
+     * @param id Id to remove // Odebírané id
+     * @return Whether the id was there // Zda id v množině bylo
+     */
+    public synchronized boolean remove(long id) {
+        Long key = id >>> 16;
+        Chunk chunk = chunks.get(key);
+        if (chunk == null || !chunk.remove((char) id)) {
+            return false;
+        }
+        if (chunk.isEmpty()) {
+            chunks.remove(key);
+        }
+        cardinality--;
+        return true;
+    }
+
+    /**
+     * Number of ids in the set. // Počet id v množině.
+     */
+    public synchronized long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * One block of 65536 ids: a sorted array while sparse, a bit set while dense. // Jeden blok 65536 id: seřazené
+     * pole, dokud je řídký, bitová množina, když je hustý.
+     */
+    private static final class Chunk {
+        private char[] values = new char[4];
+        private long[] bits;
+        private int size;
+
+        boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before | (1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                size++;
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, size, low);
+            if (at >= 0) {
+                return false;
+            }
+            if (size == ARRAY_MAX) {
+                toBits();
+                return add(low);
+            }
+            at = -at - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before & ~(1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                size--;
+                if (size <= ARRAY_MAX) {
+                    toArray();
+                }
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, size, low);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void toBits() {
+            bits = new long[BITSET_WORDS];
+            for (int i = 0; i < size; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            values = new char[size];
+            int n = 0;
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                long w = bits[word];
+                while (w != 0) {
+                    values[n++] = (char) (word * 64 + Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            bits = null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package discussionforum.config;
 
 import discussionforum.service.CommunityService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -33,9 +34,14 @@ public class GlobalControllerAdvice {
      * 
      * @param model Spring model for passing data to views // Spring model pro předávání dat do pohledů
      * @param principal Currently authenticated user principal or null if not authenticated // Aktuálně ověřený uživatel principal nebo null pokud není ověřený
+     * @param request Current request // Aktuální požadavek
      */
     @ModelAttribute
-    public void addGlobalAttributes(Model model, Principal principal) {
+    public void addGlobalAttributes(Model model, Principal principal, HttpServletRequest request) {
+        if (request.getRequestURI().startsWith(request.getContextPath() + "/api/")) {
+            // JSON endpoints render no view, so they skip the lookup // JSON endpointy nevykreslují pohled, proto vyhledání přeskočí
+            return;
+        }
         if (principal != null) {
             try {
                 model.addAttribute("joinedCommunities", communityService.getJoinedCommunities(principal.getName()));
@@ -0,0 +1,69 @@
+package discussionforum.config;
+
+import discussionforum.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Refuses votes and comments over the caller's budget with 429 before the controller runs. // Odmítne hlasy a
+ * komentáře nad rozpočet volajícího kódem 429 dříve, než se spustí kontroler.
+ * Signed-in users are limited by username, anonymous requests by address. // Přihlášení uživatelé se omezují podle
+ * jména, anonymní požadavky podle adresy.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        boolean vote = path.endsWith("/upvote") || path.endsWith("/downvote");
+        RateLimiter.Action action = vote ? RateLimiter.Action.VOTE : RateLimiter.Action.COMMENT;
+        String key = keyOf(request);
+        if (rateLimiter.tryAcquire(action, key, 1)) {
+            return true;
+        }
+        log.debug("Rate limit for {} exceeded by {}", action, key);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimiter.retryAfterSeconds(action, key, 1)));
+        if (vote) {
+            // Votes are posted by app.js and read as JSON // Hlasy odesílá app.js a čte je jako JSON
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"success\":false,\"message\":\"You are voting too fast, try again shortly\"}");
+        } else {
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "You are commenting too fast, try again shortly");
+        }
+        return false;
+    }
+
+    /**
+     * Bucket key of the caller. // Klíč kbelíku volajícího.
+     */
+    public static String keyOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "u:" + principal.getName() : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,16 @@
+package discussionforum.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's scheduled task support for background maintenance jobs. // Povoluje podporu plánovaných úloh Springu pro údržbové úlohy na pozadí.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
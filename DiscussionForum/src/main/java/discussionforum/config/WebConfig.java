@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,9 +13,23 @@ public class WebConfig implements WebMvcConfigurer {
 
     private static final Logger log = LoggerFactory.getLogger(WebConfig.class);
 
+    private final RateLimitInterceptor rateLimitInterceptor;
+
     @Value("${file.upload.dir:uploads}")
     private String uploadDir;
 
+    public WebConfig(RateLimitInterceptor rateLimitInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/posts/*/upvote", "/posts/*/downvote",
+                        "/posts/*/comments/*/upvote", "/posts/*/comments/*/downvote",
+                        "/posts/*/comment", "/posts/*/comments/*/reply");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         java.io.File uploadDirectory = new java.io.File(uploadDir).getAbsoluteFile();
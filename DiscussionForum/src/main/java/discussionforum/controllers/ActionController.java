@@ -0,0 +1,104 @@
+package discussionforum.controllers;
+
+import discussionforum.config.RateLimitInterceptor;
+import discussionforum.exception.VoteBufferFullException;
+import discussionforum.model.ActionRequestDTO;
+import discussionforum.model.ActionResult;
+import discussionforum.model.ActionType;
+import discussionforum.service.ActionBatchService;
+import discussionforum.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller accepting batches of click actions from the client. // Kontroler přijímající dávky akcí po kliknutí od klienta.
+ * app.js coalesces bursts of votes, saves and joins into one request to this endpoint. // app.js slučuje série hlasů,
+ * uložení a připojení do jednoho požadavku na tento endpoint.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Controller
+public class ActionController {
+
+    private static final Logger log = LoggerFactory.getLogger(ActionController.class);
+
+    /**
+     * Service applying the batched actions. // Služba provádějící dávkové akce.
+     */
+    private final ActionBatchService actionBatchService;
+
+    /**
+     * Vote budget the votes of a batch are charged to. // Rozpočet hlasů, ze kterého se odečítají hlasy dávky.
+     */
+    private final RateLimiter rateLimiter;
+
+    public ActionController(ActionBatchService actionBatchService, RateLimiter rateLimiter) {
+        this.actionBatchService = actionBatchService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Applies an ordered list of actions in one transaction. // Provede seřazený seznam akcí v jedné transakci.
+     * A failure of one action is reported in its result; an unexpected error rolls back the whole batch. // Selhání
+     * jedné akce se vrátí v jejím výsledku; neočekávaná chyba vrátí zpět celou dávku.
+     *
+     * @param actions Actions in click order // Akce v pořadí kliknutí
+     * @param principal Currently authenticated user details // Podrobnosti aktuálně přihlášeného uživatele
+     * @param request Current request, identifying the caller's rate limit bucket // Aktuální požadavek určující
+     *        kbelík omezení rychlosti volajícího
+     * @return Per-action results in the same order; 400 for a batch over the size or vote burst limit, 429 when the
+     *         votes exceed the caller's current budget // Výsledky jednotlivých akcí ve stejném pořadí; 400 pro dávku
+     *         nad limitem velikosti nebo nárazového počtu hlasů, 429, když hlasy překročí aktuální rozpočet volajícího
+     */
+    @PostMapping("/api/actions")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> apply(@RequestBody List<ActionRequestDTO> actions,
+                                                     @AuthenticationPrincipal UserDetails principal,
+                                                     HttpServletRequest request) {
+        try {
+            // Validated first, so a batch that is rejected anyway costs no votes // Ověřeno nejdříve, aby dávka,
+            // která bude stejně odmítnuta, nestála žádné hlasy
+            actionBatchService.checkSize(actions);
+            // Each vote in the batch costs one token, checked before any query // Každý hlas v dávce stojí jeden
+            // token, ověřuje se před jakýmkoli dotazem
+            int votes = (int) actions.stream()
+                    .filter(action -> action.getType() == ActionType.UPVOTE || action.getType() == ActionType.DOWNVOTE)
+                    .count();
+            int burst = rateLimiter.burst(RateLimiter.Action.VOTE);
+            if (votes > burst) {
+                // Could never be granted, so retrying is pointless // Nikdy by nebyla povolena, opakování nemá smysl
+                return ResponseEntity.badRequest().body(Map.of("success", false, "message", "At most " + burst + " votes per batch"));
+            }
+            String key = RateLimitInterceptor.keyOf(request);
+            if (!rateLimiter.tryAcquire(RateLimiter.Action.VOTE, key, votes)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimiter.retryAfterSeconds(RateLimiter.Action.VOTE, key, votes)))
+                        .body(Map.of("success", false, "message", "You are voting too fast, try again shortly"));
+            }
+            List<ActionResult> results = actionBatchService.apply(principal.getUsername(), actions);
+            return ResponseEntity.ok(Map.of("success", true, "results", results));
+        } catch (VoteBufferFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Action batch of {} failed: {}", actions.size(), e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Failed to apply actions: " + e.getMessage()));
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package discussionforum.controllers;
 
 import discussionforum.model.Community;
+import discussionforum.model.CursorPage;
+import discussionforum.model.PostSummary;
 import discussionforum.service.CommunityService;
+import discussionforum.service.FeedFragmentCache;
+import discussionforum.service.FeedSnapshotter;
+import discussionforum.service.FeedTotals;
 import discussionforum.service.PostService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,6 +21,9 @@ import org.springframework.ui.Model;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Controller responsible for managing community-related operations. // Kontroler zodpovědný za správu operací souvisejících s komunitami.
  * Handles community viewing, creation, joining, and leaving functionality. // Zpracovává prohlížení, vytváření, připojování a opouštění komunit.
@@ -36,15 +47,38 @@ public class CommunityController {
      */
     private final PostService postService;
 
+    /**
+     * Cache of rendered feed pages for anonymous visitors. // Mezipaměť vykreslených stránek feedu pro anonymní návštěvníky.
+     */
+    private final FeedFragmentCache fragmentCache;
+
+    /**
+     * Precomputed first pages of the busy feeds. // Předem sestavené první stránky vytížených feedů.
+     */
+    private final FeedSnapshotter feedSnapshotter;
+
+    /**
+     * Approximate post totals of the feeds. // Přibližné počty příspěvků ve feedech.
+     */
+    private final FeedTotals feedTotals;
+
     /**
      * Constructor for dependency injection of required services. // Konstruktor pro vkládání závislostí požadovaných služeb.
      * 
      * @param communityService Service handling community operations // Služba zpracovávající operace s komunitami
      * @param postService Service handling post operations // Služba zpracovávající operace s příspěvky
+     * @param fragmentCache Cache of rendered anonymous feed pages // Mezipaměť vykreslených anonymních stránek feedu
+     * @param feedSnapshotter Precomputed first pages of the busy feeds // Předem sestavené první stránky vytížených feedů
+     * @param feedTotals Approximate post totals of the feeds // Přibližné počty příspěvků ve feedech
      */
-    public CommunityController(CommunityService communityService, PostService postService) {
+    public CommunityController(CommunityService communityService, PostService postService,
+                               FeedFragmentCache fragmentCache, FeedSnapshotter feedSnapshotter,
+                               FeedTotals feedTotals) {
         this.communityService = communityService;
         this.postService = postService;
+        this.fragmentCache = fragmentCache;
+        this.feedSnapshotter = feedSnapshotter;
+        this.feedTotals = feedTotals;
     }
 
     /**
@@ -54,8 +88,11 @@ public class CommunityController {
      * @param name Name of the community to display // Název komunity k zobrazení
      * @param page Optional page number for pagination (0-based) // Volitelné číslo stránky pro stránkování (od 0)
      * @param size Optional page size for pagination // Volitelná velikost stránky pro stránkování
-     * @param sort Sort criteria: "hot" (default), "new", or "top" // Kritéria řazení: "hot" (výchozí), "new", nebo "top"
+     * @param sort Sort criteria: "hot" (default), "new", "top", "rising", "controversial" or a windowed "top:day", "top:week", "top:month", "top:year" // Kritéria řazení: "hot" (výchozí), "new", "top", "rising", "controversial" nebo "top" s oknem "top:day", "top:week", "top:month", "top:year"
+     * @param after Optional keyset cursor; when present the page is seeked instead of offset // Volitelný kurzor; pokud je zadán, stránka se hledá podle klíče místo posunu
      * @param principal Currently authenticated user details // Podrobnosti aktuálně přihlášeného uživatele
+     * @param request Current request, used to render the cached fragment // Aktuální požadavek pro vykreslení ukládaného fragmentu
+     * @param response Current response, used to render the cached fragment // Aktuální odpověď pro vykreslení ukládaného fragmentu
      * @param model Spring model for passing data to the view // Spring model pro předávání dat do pohledu
      * @return View name "community/view" for the community page // Název pohledu "community/view" pro stránku komunity
      */
@@ -64,10 +101,15 @@ public class CommunityController {
                        @RequestParam(required = false) Integer page,
                        @RequestParam(required = false) Integer size,
                        @RequestParam(required = false, defaultValue = "hot") String sort,
+                       @RequestParam(required = false) String after,
                        @AuthenticationPrincipal UserDetails principal,
+                       HttpServletRequest request,
+                       HttpServletResponse response,
                        Model model) {
         Community community = communityService.getByName(name);
-        int postCount = communityService.getPostCount(name);
+        // Header count comes from the cached total, not a COUNT per view // Počet v záhlaví pochází z uloženého
+        // součtu, ne z COUNT pro každé zobrazení
+        int postCount = (int) feedTotals.count(community.getId());
         int actualMemberCount = communityService.getActualMemberCount(community);
         boolean isMember = principal != null && communityService.isMember(name, principal.getUsername());
         
@@ -76,9 +118,43 @@ public class CommunityController {
         model.addAttribute("postCount", postCount);
         model.addAttribute("actualMemberCount", actualMemberCount);
         model.addAttribute("isMember", isMember);
-        model.addAttribute("posts", postService.byCommunity(name, page, size, sort));
+        // Anonymous offset pages look the same for everyone // Anonymní stránky s posunem vypadají pro všechny stejně
+        boolean shared = principal == null && after == null && fragmentCache.cacheable(page, size);
+        String postListHtml = shared ? fragmentCache.get(community.getId(), sort, page) : null;
+        Page<PostSummary> rendered = null;
+        List<PostSummary> shown = List.of();
+        if (postListHtml != null) {
+            // Served from the cache, no feed query // Obslouženo z mezipaměti, bez dotazu na feed
+        } else if (after != null) {
+            CursorPage<PostSummary> posts = postService.byCommunityAfter(name, after, size, sort);
+            model.addAttribute("posts", posts);
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("nextCursor", posts.getNextCursor());
+            shown = posts.getContent();
+        } else {
+            Optional<Page<PostSummary>> snapshot = feedSnapshotter.page(name, sort, page, size);
+            Page<PostSummary> posts = snapshot.orElseGet(() -> postService.byCommunity(name, page, size, sort));
+            model.addAttribute("posts", posts);
+            model.addAttribute("cursorMode", false);
+            model.addAttribute("nextCursor", postService.nextCursor(posts, sort));
+            // A snapshot page may already be stale, so only freshly read pages are cached // Stránka ze snímku
+            // může být už zastaralá, proto se ukládají jen čerstvě načtené stránky
+            rendered = snapshot.isPresent() ? null : posts;
+            shown = posts.getContent();
+        }
+        if (principal != null) {
+            // Votes and saves of the whole page in two queries // Hlasy a uložení celé stránky dvěma dotazy
+            model.addAttribute("viewer", postService.viewerState(principal.getUsername(),
+                    shown.stream().map(PostSummary::getId).toList()));
+        }
         model.addAttribute("communities", communityService.all());
         model.addAttribute("currentSort", sort);
+        if (shared && rendered != null) {
+            postListHtml = fragmentCache.render(community.getId(), sort, page,
+                    rendered.getContent().stream().map(PostSummary::getId).toList(),
+                    "community/view", request, response, model);
+        }
+        model.addAttribute(FeedFragmentCache.ATTRIBUTE, postListHtml);
         
         return "community/view";
     }
@@ -1,8 +1,17 @@
 package discussionforum.controllers;
 
-import discussionforum.model.Post;
+import discussionforum.model.CursorPage;
+import discussionforum.model.FeedItemDTO;
+import discussionforum.model.PostSummary;
+import discussionforum.model.ViewerState;
 import discussionforum.service.CommunityService;
+import discussionforum.service.FeedFragmentCache;
+import discussionforum.service.FeedSnapshotter;
+import discussionforum.service.JoinedFeedService;
 import discussionforum.service.PostService;
+import discussionforum.service.TrendingTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,6 +19,9 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Controller responsible for handling home page requests and displaying the main feed. // Kontroler zodpovědný za zpracování požadavků na domovskou stránku a zobrazování hlavního feedu.
  * Manages the display of posts with different sorting options and pagination. // Spravuje zobrazování příspěvků s různými možnostmi řazení a stránkování.
@@ -20,6 +32,13 @@ import org.springframework.web.bind.annotation.*;
  */
 @Controller
 public class HomeController {
+
+    private static final String JOINED = "joined";
+
+    /**
+     * Largest infinite scroll step. // Největší krok nekonečného rolování.
+     */
+    private static final int MAX_CHUNK = 50;
     
     /**
      * Service for handling post-related operations. // Služba pro zpracování operací souvisejících s příspěvky.
@@ -31,15 +50,45 @@ public class HomeController {
      */
     private final CommunityService communityService;
 
+    /**
+     * Service merging the feeds of the communities a user has joined. // Služba slučující feedy komunit, ke kterým se uživatel připojil.
+     */
+    private final JoinedFeedService joinedFeedService;
+
+    /**
+     * Cache of rendered feed pages for anonymous visitors. // Mezipaměť vykreslených stránek feedu pro anonymní návštěvníky.
+     */
+    private final FeedFragmentCache fragmentCache;
+
+    /**
+     * Precomputed first pages of the busy feeds. // Předem sestavené první stránky vytížených feedů.
+     */
+    private final FeedSnapshotter feedSnapshotter;
+
+    /**
+     * Posts with the most activity in the last hour. // Příspěvky s největší aktivitou za poslední hodinu.
+     */
+    private final TrendingTracker trendingTracker;
+
     /**
      * Constructor for dependency injection of required services. // Konstruktor pro vkládání závislostí požadovaných služeb.
      * 
      * @param postService Service handling post operations // Služba zpracovávající operace s příspěvky
      * @param communityService Service handling community operations // Služba zpracovávající operace s komunitami
+     * @param joinedFeedService Service merging joined community feeds // Služba slučující feedy připojených komunit
+     * @param fragmentCache Cache of rendered anonymous feed pages // Mezipaměť vykreslených anonymních stránek feedu
+     * @param feedSnapshotter Precomputed first pages of the busy feeds // Předem sestavené první stránky vytížených feedů
+     * @param trendingTracker Posts with the most activity in the last hour // Příspěvky s největší aktivitou za poslední hodinu
      */
-    public HomeController(PostService postService, CommunityService communityService) {
+    public HomeController(PostService postService, CommunityService communityService,
+                          JoinedFeedService joinedFeedService, FeedFragmentCache fragmentCache,
+                          FeedSnapshotter feedSnapshotter, TrendingTracker trendingTracker) {
         this.postService = postService;
         this.communityService = communityService;
+        this.joinedFeedService = joinedFeedService;
+        this.fragmentCache = fragmentCache;
+        this.feedSnapshotter = feedSnapshotter;
+        this.trendingTracker = trendingTracker;
     }
 
     /**
@@ -48,8 +97,12 @@ public class HomeController {
      * 
      * @param page Optional page number for pagination (0-based) // Volitelné číslo stránky pro stránkování (od 0)
      * @param size Optional page size for pagination // Volitelná velikost stránky pro stránkování
-     * @param sort Sort criteria: "hot" (default), "new", or "top" // Kritéria řazení: "hot" (výchozí), "new", nebo "top"
+     * @param sort Sort criteria: "hot" (default), "new", "top", "rising", "controversial" or a windowed "top:day", "top:week", "top:month", "top:year" // Kritéria řazení: "hot" (výchozí), "new", "top", "rising", "controversial" nebo "top" s oknem "top:day", "top:week", "top:month", "top:year"
+     * @param after Optional keyset cursor; when present the page is seeked instead of offset // Volitelný kurzor; pokud je zadán, stránka se hledá podle klíče místo posunu
+     * @param feed Feed source: "all" (default) or "joined" for the communities the user has joined // Zdroj feedu: "all" (výchozí) nebo "joined" pro komunity, ke kterým se uživatel připojil
      * @param principal Currently authenticated user details // Podrobnosti aktuálně přihlášeného uživatele
+     * @param request Current request, used to render the cached fragment // Aktuální požadavek pro vykreslení ukládaného fragmentu
+     * @param response Current response, used to render the cached fragment // Aktuální odpověď pro vykreslení ukládaného fragmentu
      * @param model Spring model for passing data to the view // Spring model pro předávání dat do pohledu
      * @return View name "index" to render the home page // Název pohledu "index" pro vykreslení domovské stránky
      */
@@ -57,13 +110,98 @@ public class HomeController {
     public String home(@RequestParam(required = false) Integer page,
                        @RequestParam(required = false) Integer size,
                        @RequestParam(required = false, defaultValue = "hot") String sort,
+                       @RequestParam(required = false) String after,
+                       @RequestParam(required = false, defaultValue = "all") String feed,
                        @AuthenticationPrincipal UserDetails principal,
+                       HttpServletRequest request,
+                       HttpServletResponse response,
                        Model model) {
-        Page<Post> feed = postService.feed(page, size, sort);
-        model.addAttribute("posts", feed);
+        boolean joined = JOINED.equalsIgnoreCase(feed) && principal != null;
+        // Anonymous offset pages look the same for everyone // Anonymní stránky s posunem vypadají pro všechny stejně
+        boolean shared = principal == null && after == null && fragmentCache.cacheable(page, size);
+        String postListHtml = shared ? fragmentCache.get(null, sort, page) : null;
+        Page<PostSummary> rendered = null;
+        List<PostSummary> shown = List.of();
+        if (postListHtml != null) {
+            // Served from the cache, no feed query // Obslouženo z mezipaměti, bez dotazu na feed
+        } else if (joined) {
+            // The merged feed is always cursor paged // Sloučený feed se vždy stránkuje kurzorem
+            CursorPage<PostSummary> posts = joinedFeedService.page(principal.getUsername(), after, size, sort);
+            model.addAttribute("posts", posts);
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("nextCursor", posts.getNextCursor());
+            shown = posts.getContent();
+        } else if (after != null) {
+            CursorPage<PostSummary> posts = postService.feedAfter(after, size, sort);
+            model.addAttribute("posts", posts);
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("nextCursor", posts.getNextCursor());
+            shown = posts.getContent();
+        } else {
+            Optional<Page<PostSummary>> snapshot = feedSnapshotter.page(null, sort, page, size);
+            Page<PostSummary> posts = snapshot.orElseGet(() -> postService.feed(page, size, sort));
+            model.addAttribute("posts", posts);
+            model.addAttribute("cursorMode", false);
+            model.addAttribute("nextCursor", postService.nextCursor(posts, sort));
+            // A snapshot page may already be stale, so only freshly read pages are cached // Stránka ze snímku
+            // může být už zastaralá, proto se ukládají jen čerstvě načtené stránky
+            rendered = snapshot.isPresent() ? null : posts;
+            shown = posts.getContent();
+        }
+        if (principal != null) {
+            // Votes and saves of the whole page in two queries // Hlasy a uložení celé stránky dvěma dotazy
+            model.addAttribute("viewer", postService.viewerState(principal.getUsername(),
+                    shown.stream().map(PostSummary::getId).toList()));
+        }
         model.addAttribute("communities", communityService.all());
         model.addAttribute("currentSort", sort);
+        model.addAttribute("currentFeed", joined ? JOINED : "all");
+        // Published in the background, no query here // Zveřejňuje se na pozadí, zde bez dotazu
+        model.addAttribute("trending", trendingTracker.trending());
+        if (shared && rendered != null) {
+            postListHtml = fragmentCache.render(null, sort, page,
+                    rendered.getContent().stream().map(PostSummary::getId).toList(),
+                    "index", request, response, model);
+        }
+        model.addAttribute(FeedFragmentCache.ATTRIBUTE, postListHtml);
         
         return "index";
     }
+
+    /**
+     * Handles GET requests for the next posts of a feed as compact JSON, used by the infinite scroll. // Zpracovává
+     * GET požadavky na další příspěvky feedu jako kompaktní JSON, používá je nekonečné rolování.
+     * Only the post rows cross the wire, and each step is one keyset query. // Přenášejí se jen řádky příspěvků
+     * a každý krok je jeden dotaz podle klíče.
+     *
+     * @param community Optional community id; omitted for the global feed // Volitelné id komunity; pro globální feed se vynechá
+     * @param after Cursor of the last post shown // Kurzor posledního zobrazeného příspěvku
+     * @param size Optional number of posts, at most 50 // Volitelný počet příspěvků, nejvýše 50
+     * @param sort Sort key of the feed // Klíč řazení feedu
+     * @param feed Feed source: "all" (default) or "joined" // Zdroj feedu: "all" (výchozí) nebo "joined"
+     * @param principal Currently authenticated user details // Podrobnosti aktuálně přihlášeného uživatele
+     * @return Posts with the cursor of the following step // Příspěvky s kurzorem dalšího kroku
+     */
+    @GetMapping("/api/feed")
+    @ResponseBody
+    public CursorPage<FeedItemDTO> feedChunk(@RequestParam(required = false) Long community,
+                                             @RequestParam String after,
+                                             @RequestParam(required = false) Integer size,
+                                             @RequestParam(required = false, defaultValue = "hot") String sort,
+                                             @RequestParam(required = false, defaultValue = "all") String feed,
+                                             @AuthenticationPrincipal UserDetails principal) {
+        int s = size == null ? 10 : Math.max(1, Math.min(size, MAX_CHUNK));
+        CursorPage<PostSummary> posts;
+        if (JOINED.equalsIgnoreCase(feed) && principal != null) {
+            posts = joinedFeedService.page(principal.getUsername(), after, s, sort);
+        } else if (community != null) {
+            posts = postService.byCommunityIdAfter(community, after, s, sort);
+        } else {
+            posts = postService.feedAfter(after, s, sort);
+        }
+        ViewerState viewer = principal == null ? ViewerState.EMPTY : postService.viewerState(principal.getUsername(),
+                posts.getContent().stream().map(PostSummary::getId).toList());
+        return new CursorPage<>(posts.getContent().stream().map(post -> new FeedItemDTO(post, viewer)).toList(),
+                posts.getNextCursor());
+    }
 }
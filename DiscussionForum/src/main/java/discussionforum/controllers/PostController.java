@@ -1,14 +1,21 @@
 package discussionforum.controllers;
 
 import discussionforum.model.Post;
+import discussionforum.model.VoteResult;
 import discussionforum.model.VoteType;
 import discussionforum.model.CommentRequestDTO;
+import discussionforum.model.CommentSort;
 import discussionforum.model.PostRequestDTO;
+import discussionforum.exception.VoteBufferFullException;
 import discussionforum.service.CommentService;
 import discussionforum.service.CommunityService;
 import discussionforum.service.PostService;
 import discussionforum.service.FileUploadService;
+import discussionforum.service.PostViewCounter;
+import discussionforum.service.TrendingTracker;
+import discussionforum.service.UniqueViewerCounter;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,11 +31,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.net.URI;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -50,12 +60,20 @@ public class PostController {
     private final CommentService commentService;
     private final CommunityService communityService;
     private final FileUploadService fileUploadService;
+    private final PostViewCounter postViewCounter;
+    private final UniqueViewerCounter uniqueViewerCounter;
+    private final TrendingTracker trendingTracker;
 
-    public PostController(PostService postService, CommentService commentService, CommunityService communityService, FileUploadService fileUploadService) {
+    public PostController(PostService postService, CommentService commentService, CommunityService communityService,
+                          FileUploadService fileUploadService, PostViewCounter postViewCounter,
+                          UniqueViewerCounter uniqueViewerCounter, TrendingTracker trendingTracker) {
         this.postService = postService;
         this.commentService = commentService;
         this.communityService = communityService;
         this.fileUploadService = fileUploadService;
+        this.postViewCounter = postViewCounter;
+        this.uniqueViewerCounter = uniqueViewerCounter;
+        this.trendingTracker = trendingTracker;
     }
 
     @GetMapping("/new")
@@ -112,17 +130,51 @@ public class PostController {
 
     @GetMapping("/{id}")
     public String detail(@PathVariable Long id,
+                        @RequestParam(required = false, defaultValue = "old") String commentSort,
                         @AuthenticationPrincipal UserDetails principal,
+                        HttpServletRequest request,
                         Model model) {
         Post post = postService.get(id);
+        // In-memory increment, written behind in batches // Zvýšení v paměti, zapisuje se dávkově se zpožděním
+        postViewCounter.record(id);
+        trendingTracker.recordView(id);
+        uniqueViewerCounter.record(id, viewerKey(principal, request));
         model.addAttribute("post", post);
-        model.addAttribute("comments", commentService.forPost(id));
-        model.addAttribute("totalCommentCount", commentService.getTotalCommentCount(id));
+        model.addAttribute("viewCount", postViewCounter.views(id));
+        model.addAttribute("uniqueViewers", uniqueViewerCounter.estimate(id));
+        if (principal != null) {
+            // Both from the viewer's vote bitmaps, no query per comment // Obojí z bitmap hlasů uživatele, bez dotazu na komentář
+            model.addAttribute("viewer", postService.viewerState(principal.getUsername(), List.of(id)));
+            model.addAttribute("myVotes", postService.userVotes(principal.getUsername()));
+        }
+        model.addAttribute("comments", commentService.forPost(id, commentSort));
+        model.addAttribute("commentSort", CommentSort.from(commentSort).getKey());
+        // Maintained on the post, so counting needs no second pass over the thread // Udržováno u příspěvku,
+        // takže počítání nepotřebuje druhý průchod vláknem
+        model.addAttribute("totalCommentCount", post.getCommentCount());
         model.addAttribute("comment", new CommentRequestDTO());
         model.addAttribute("communities", communityService.all());
         return "post/detail";
     }
 
+    /**
+     * Key telling viewers of a post apart. // Klíč rozlišující uživatele, kteří zobrazili příspěvek.
+     * Anonymous readers keep a session they already have; without one they are told apart by address and browser,
+     * so a view never creates a session. The sketch only stores hashes of the key. // Anonymní čtenáři si ponechají
+     * relaci, kterou už mají; bez ní se rozlišují podle adresy a prohlížeče, takže zobrazení nikdy nevytvoří relaci.
+     * Náčrt ukládá jen hashe klíče.
+     */
+    private static String viewerKey(UserDetails principal, HttpServletRequest request) {
+        if (principal != null) {
+            return "u:" + principal.getUsername();
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "s:" + session.getId();
+        }
+        return "a:" + request.getRemoteAddr() + "|" + request.getHeader(HttpHeaders.USER_AGENT);
+    }
+
     @PostMapping("/{id}/comment")
     public String comment(@PathVariable Long id,
                           @ModelAttribute("comment") @Valid CommentRequestDTO req,
@@ -141,27 +193,39 @@ public class PostController {
     }
 
     @PostMapping("/{id}/upvote")
-    public String upvote(@PathVariable Long id,
-                        @AuthenticationPrincipal UserDetails principal,
-                        HttpServletRequest request) {
-        try {
-            postService.vote(id, principal.getUsername(), VoteType.UPVOTE);
-        } catch (Exception e) {
-            log.error("Upvote failed for post {}: {}", id, e.getMessage());
-        }
-        return "redirect:" + sanitizeRedirectUrl(request.getHeader("referer"));
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> upvote(@PathVariable Long id,
+                                                      @AuthenticationPrincipal UserDetails principal) {
+        return vote(id, principal, VoteType.UPVOTE);
     }
 
     @PostMapping("/{id}/downvote")
-    public String downvote(@PathVariable Long id,
-                          @AuthenticationPrincipal UserDetails principal,
-                          HttpServletRequest request) {
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> downvote(@PathVariable Long id,
+                                                        @AuthenticationPrincipal UserDetails principal) {
+        return vote(id, principal, VoteType.DOWNVOTE);
+    }
+
+    /**
+     * Answers a post vote with the new score and the voter's vote, so the page updates in place instead of
+     * reloading. // Odpoví na hlas pro příspěvek novým skóre a hlasem uživatele, takže se stránka aktualizuje na
+     * místě místo znovunačtení.
+     */
+    private ResponseEntity<Map<String, Object>> vote(Long id, UserDetails principal, VoteType type) {
         try {
-            postService.vote(id, principal.getUsername(), VoteType.DOWNVOTE);
+            VoteResult result = postService.vote(id, principal.getUsername(), type);
+            // HashMap, because a withdrawn vote is null // HashMap, protože odebraný hlas je null
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("score", result.score());
+            body.put("vote", result.vote());
+            return ResponseEntity.ok(body);
+        } catch (VoteBufferFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
-            log.error("Downvote failed for post {}: {}", id, e.getMessage());
+            log.error("Vote failed for post {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Failed to vote: " + e.getMessage()));
         }
-        return "redirect:" + sanitizeRedirectUrl(request.getHeader("referer"));
     }
 
     @PostMapping("/{id}/save")
@@ -239,21 +303,4 @@ public class PostController {
             return "redirect:/posts/" + postId + "?rerror";
         }
     }
-
-    private String sanitizeRedirectUrl(String referer) {
-        if (referer == null) {
-            return "/";
-        }
-        try {
-            URI uri = URI.create(referer);
-            String path = uri.getPath();
-            String query = uri.getQuery();
-            if (path == null || path.isEmpty()) {
-                return "/";
-            }
-            return query != null ? path + "?" + query : path;
-        } catch (Exception e) {
-            return "/";
-        }
-    }
 }
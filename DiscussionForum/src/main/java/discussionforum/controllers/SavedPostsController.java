@@ -8,7 +8,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-import discussionforum.model.Post;
+import discussionforum.model.PostSummary;
 
 /**
  * Controller responsible for managing saved posts functionality. // Kontroler zodpovědný za správu funkcionality uložených příspěvků.
@@ -58,9 +58,13 @@ public class SavedPostsController {
                             @RequestParam(required = false) Integer size,
                             @AuthenticationPrincipal UserDetails principal,
                             Model model) {
-        Page<Post> savedPosts = postService.getSavedPosts(principal.getUsername(), page, size);
+        Page<PostSummary> savedPosts = postService.getSavedPosts(principal.getUsername(), page, size);
         
         model.addAttribute("posts", savedPosts);
+        // Every post here is saved; the votes still come in one query // Každý příspěvek zde je uložený; hlasy
+        // přijdou stále jedním dotazem
+        model.addAttribute("viewer", postService.viewerState(principal.getUsername(),
+                savedPosts.getContent().stream().map(PostSummary::getId).toList()));
         model.addAttribute("communities", communityService.all());
         
         return "saved/index";
@@ -1,8 +1,10 @@
 package discussionforum.controllers;
 
 import discussionforum.model.Comment;
-import discussionforum.model.Post;
+import discussionforum.model.PostSummary;
+import discussionforum.model.SearchResultDTO;
 import discussionforum.model.User;
+import discussionforum.service.PostService;
 import discussionforum.service.SearchService;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -11,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,10 +29,12 @@ public class SearchController {
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
 
     private final SearchService searchService;
+    private final PostService postService;
 
     @Autowired
-    public SearchController(SearchService searchService) {
+    public SearchController(SearchService searchService, PostService postService) {
         this.searchService = searchService;
+        this.postService = postService;
     }
 
     @GetMapping
@@ -37,14 +43,14 @@ public class SearchController {
     }
 
     @GetMapping("/posts")
-    public ResponseEntity<Page<Post>> searchPosts(
+    public ResponseEntity<Page<PostSummary>> searchPosts(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(50) int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
         
-        Page<Post> posts = searchService.searchPosts(query, page, size, sortBy, sortDir);
+        Page<PostSummary> posts = searchService.searchPosts(query, page, size, sortBy, sortDir);
         return ResponseEntity.ok(posts);
     }
 
@@ -89,11 +95,11 @@ public class SearchController {
     }
 
     @GetMapping("/suggestions")
-    public ResponseEntity<Page<Post>> getSearchSuggestions(
+    public ResponseEntity<Page<PostSummary>> getSearchSuggestions(
             @RequestParam String query,
             @RequestParam(defaultValue = "5") @Min(1) @Max(10) int limit) {
         
-        Page<Post> suggestions = searchService.getSearchSuggestions(query, limit);
+        Page<PostSummary> suggestions = searchService.getSearchSuggestions(query, limit);
         return ResponseEntity.ok(suggestions);
     }
 
@@ -103,11 +109,17 @@ public class SearchController {
             @RequestParam(defaultValue = "all") String type,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails principal,
             Model model) {
         
         SearchService.SearchResults results = searchService.globalSearch(query, type, page, size);
         
         model.addAttribute("results", results);
+        if (principal != null && results.getPosts() != null) {
+            // Votes and saves of all found posts in two queries // Hlasy a uložení všech nalezených příspěvků dvěma dotazy
+            model.addAttribute("viewer", postService.viewerState(principal.getUsername(),
+                    results.getPosts().stream().map(SearchResultDTO.PostResult::getId).toList()));
+        }
         model.addAttribute("query", query);
         model.addAttribute("type", type);
         model.addAttribute("currentPage", page);
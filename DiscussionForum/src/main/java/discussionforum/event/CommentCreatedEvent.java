@@ -0,0 +1,14 @@
+package discussionforum.event;
+
+/**
+ * Published after a comment or reply has been added to a post. // Publikováno po přidání komentáře nebo odpovědi
+ * k příspěvku.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public record CommentCreatedEvent(Long commentId,
+                                  Long postId,
+                                  Long communityId) {
+}
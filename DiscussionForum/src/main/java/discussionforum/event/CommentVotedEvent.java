@@ -0,0 +1,20 @@
+package discussionforum.event;
+
+import discussionforum.model.VoteType;
+
+/**
+ * Published after a vote on a comment has changed the comment's score. // Publikováno poté, co hlas změnil skóre
+ * komentáře.
+ * {@code previous} and {@code current} are the voter's vote before and after the change, {@code null} meaning no
+ * vote. // {@code previous} a {@code current} jsou hlas uživatele před a po změně, {@code null} znamená žádný hlas.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public record CommentVotedEvent(Long commentId,
+                                Long postId,
+                                Long userId,
+                                VoteType previous,
+                                VoteType current) {
+}
@@ -0,0 +1,20 @@
+package discussionforum.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a post has been created. // Publikováno po vytvoření příspěvku.
+ * Carries the ranking columns so in-memory feed structures can update without reading the post back. // Nese
+ * sloupce pro řazení, aby se struktury feedu v paměti mohly aktualizovat bez zpětného čtení příspěvku.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public record PostCreatedEvent(Long postId,
+                               Long communityId,
+                               int score,
+                               double hotScore,
+                               double controversy,
+                               LocalDateTime createdAt) {
+}
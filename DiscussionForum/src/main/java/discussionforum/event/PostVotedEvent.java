@@ -0,0 +1,32 @@
+package discussionforum.event;
+
+import discussionforum.model.VoteType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a vote on a post has changed the post's score. // Publikováno poté, co hlas změnil skóre příspěvku.
+ * {@code previous} and {@code current} are the voter's vote before and after the change, {@code null} meaning no
+ * vote. // {@code previous} a {@code current} jsou hlas uživatele před a po změně, {@code null} znamená žádný hlas.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public record PostVotedEvent(Long postId,
+                             Long communityId,
+                             Long userId,
+                             VoteType previous,
+                             VoteType current,
+                             int score,
+                             double hotScore,
+                             double controversy,
+                             LocalDateTime createdAt) {
+
+    /**
+     * Net change this vote applied to the post score. // Čistá změna skóre příspěvku způsobená tímto hlasem.
+     */
+    public int delta() {
+        return VoteType.weight(current) - VoteType.weight(previous);
+    }
+}
@@ -39,6 +39,15 @@ public class GlobalExceptionHandler {
         return mav;
     }
 
+    @ExceptionHandler(VoteBufferFullException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ModelAndView handleVoteBufferFull(VoteBufferFullException ex) {
+        ModelAndView mav = new ModelAndView("error/500");
+        mav.addObject("message", "Voting is temporarily busy");
+        mav.addObject("details", ex.getMessage());
+        return mav;
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ModelAndView handleGenericException(Exception ex) {
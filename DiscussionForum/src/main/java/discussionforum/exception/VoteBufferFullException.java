@@ -0,0 +1,16 @@
+package discussionforum.exception;
+
+/**
+ * Exception thrown when the write-behind vote buffer is full and could not be drained to the database
+ * Výjimka vyvolaná, když je zásobník hlasů se zpožděným zápisem plný a nepodařilo se jej zapsat do databáze
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class VoteBufferFullException extends RuntimeException {
+
+    public VoteBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package discussionforum.model;
+
+/**
+ * One action of a batched client request // Jedna akce dávkového požadavku klienta
+ * Post actions carry {@code postId}, community actions carry {@code community} // Akce příspěvku nesou {@code postId},
+ * akce komunity nesou {@code community}
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class ActionRequestDTO {
+    private ActionType type;
+
+    private Long postId;
+
+    private String community;  // Community name // Název komunity
+
+    public ActionType getType() {
+        return type;
+    }
+
+    public void setType(ActionType type) {
+        this.type = type;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public String getCommunity() {
+        return community;
+    }
+
+    public void setCommunity(String community) {
+        this.community = community;
+    }
+}
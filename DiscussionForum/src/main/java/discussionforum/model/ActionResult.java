@@ -0,0 +1,29 @@
+package discussionforum.model;
+
+/**
+ * Result of one action of a batch, in the order the actions were sent. // Výsledek jedné akce dávky, v pořadí
+ * odeslaných akcí.
+ *
+ * @param success Whether the action changed what it asked for // Zda akce změnila, o co žádala
+ * @param message Reason of a failure or of a no-op, otherwise {@code null} // Důvod selhání nebo akce beze změny,
+ *                jinak {@code null}
+ * @param score   New post score for votes, otherwise {@code null} // Nové skóre příspěvku u hlasů, jinak {@code null}
+ * @param vote    The voter's vote after a vote action // Hlas uživatele po hlasování
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public record ActionResult(boolean success, String message, Integer score, VoteType vote) {
+
+    public static ActionResult voted(VoteResult result) {
+        return new ActionResult(true, null, result.score(), result.vote());
+    }
+
+    public static ActionResult of(boolean changed, String unchangedMessage) {
+        return new ActionResult(changed, changed ? null : unchangedMessage, null, null);
+    }
+
+    public static ActionResult failed(String message) {
+        return new ActionResult(false, message, null, null);
+    }
+}
@@ -0,0 +1,26 @@
+package discussionforum.model;
+
+/**
+ * Kinds of click actions a client may send in one batch. // Druhy akcí po kliknutí, které klient může poslat v jedné dávce.
+ * Votes toggle like the vote buttons; the other actions name the state they want and are idempotent. // Hlasy se
+ * přepínají jako tlačítka hlasování; ostatní akce určují požadovaný stav a jsou idempotentní.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public enum ActionType {
+    UPVOTE,
+    DOWNVOTE,
+    SAVE,
+    UNSAVE,
+    JOIN,
+    LEAVE;
+
+    /**
+     * Whether the action targets a post rather than a community. // Zda akce míří na příspěvek, a ne na komunitu.
+     */
+    public boolean onPost() {
+        return this != JOIN && this != LEAVE;
+    }
+}
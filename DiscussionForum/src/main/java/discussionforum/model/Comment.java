@@ -1,14 +1,20 @@
 package discussionforum.model;
 
 
+import discussionforum.ranking.ControversyScore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_post_created_at", columnList = "post_id, created_at"),
+        @Index(name = "idx_comments_post_score", columnList = "post_id, score"),
+        @Index(name = "idx_comments_post_controversy", columnList = "post_id, controversy")
+})
 public class Comment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,6 +28,18 @@ public class Comment {
     
     private int score = 0;
 
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int upvotes;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int downvotes;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private double controversy; // Derived from upvotes and downvotes, see ControversyScore
+
     @ManyToOne(optional = false)
     private Post post;
 
@@ -46,6 +64,20 @@ public class Comment {
         setCreatedAt(LocalDateTime.now());
     }
 
+    /**
+     * Moves one voter from {@code previous} to {@code current}, keeping score and counters in step. // Přesune
+     * jednoho hlasujícího z {@code previous} na {@code current} a udržuje skóre i čítače v souladu.
+     */
+    public void applyVote(VoteType previous, VoteType current) {
+        // Clamped so rows counted before the backfill never go negative // Omezeno, aby řádky před doplněním nešly do záporu
+        if (previous == VoteType.UPVOTE) upvotes = Math.max(0, upvotes - 1);
+        if (previous == VoteType.DOWNVOTE) downvotes = Math.max(0, downvotes - 1);
+        if (current == VoteType.UPVOTE) upvotes++;
+        if (current == VoteType.DOWNVOTE) downvotes++;
+        score += VoteType.weight(current) - VoteType.weight(previous);
+        setControversy(ControversyScore.of(upvotes, downvotes));
+    }
+
     public Long getId() {
         return id;
     }
@@ -94,6 +126,30 @@ public class Comment {
         this.score = score;
     }
 
+    public int getUpvotes() {
+        return upvotes;
+    }
+
+    public void setUpvotes(int upvotes) {
+        this.upvotes = upvotes;
+    }
+
+    public int getDownvotes() {
+        return downvotes;
+    }
+
+    public void setDownvotes(int downvotes) {
+        this.downvotes = downvotes;
+    }
+
+    public double getControversy() {
+        return controversy;
+    }
+
+    public void setControversy(double controversy) {
+        this.controversy = controversy;
+    }
+
     public Set<CommentVote> getVotes() {
         return votes;
     }
@@ -0,0 +1,49 @@
+package discussionforum.model;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders of a comment thread. // Řazení vlákna komentářů.
+ * Each order has a post-scoped index, so a thread is read in order without sorting in memory. // Každé řazení má
+ * index v rámci příspěvku, takže se vlákno čte seřazené bez řazení v paměti.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public enum CommentSort {
+    OLD("old", Sort.by("createdAt").ascending().and(Sort.by("id").ascending())),
+    NEW("new", Sort.by("createdAt").descending().and(Sort.by("id").descending())),
+    TOP("top", Sort.by("score").descending().and(Sort.by("id").ascending())),
+    CONTROVERSIAL("controversial", Sort.by("controversy").descending().and(Sort.by("id").ascending()));
+
+    private final String key;
+    private final Sort sort;
+
+    CommentSort(String key, Sort sort) {
+        this.key = key;
+        this.sort = sort;
+    }
+
+    /**
+     * Resolves a request parameter to a sort, falling back to {@link #OLD}. // Převede parametr požadavku na řazení, výchozí je {@link #OLD}.
+     */
+    public static CommentSort from(String key) {
+        if (key != null) {
+            for (CommentSort candidate : values()) {
+                if (candidate.key.equalsIgnoreCase(key)) {
+                    return candidate;
+                }
+            }
+        }
+        return OLD;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Sort toSort() {
+        return sort;
+    }
+}
@@ -0,0 +1,17 @@
+package discussionforum.model;
+
+/**
+ * Read-only view of a comment's vote counters right after a vote was applied to them. // Pohled pouze pro čtení na
+ * čítače hlasů komentáře ihned po započtení hlasu.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public interface CommentTallyRow {
+    Long getId();
+    Long getPostId();
+    int getScore();
+    int getUpvotes();
+    int getDownvotes();
+}
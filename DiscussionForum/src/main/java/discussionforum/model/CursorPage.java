@@ -0,0 +1,35 @@
+package discussionforum.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated feed. // Jedna stránka feedu stránkovaného pomocí klíče.
+ * Unlike {@code Page} it carries no total, so producing it never needs a count query. // Na rozdíl od {@code Page}
+ * nenese celkový počet, takže jeho vytvoření nikdy nevyžaduje dotaz na počet.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,81 @@
+package discussionforum.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor holding the last seen {@code (sortKey, id)} pair of a feed page. // Neprůhledný
+ * kurzor pro stránkování pomocí klíče, který drží poslední viděnou dvojici {@code (klíč řazení, id)} stránky feedu.
+ * The next page starts strictly after this pair, so deep pages cost the same as the first one. // Další stránka
+ * začíná striktně za touto dvojicí, takže hluboké stránky stojí stejně jako první.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public final class FeedCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final FeedSort sort;
+    private final Object key;
+    private final long id;
+
+    public FeedCursor(FeedSort sort, Object key, long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Creates the cursor pointing just after the given post. // Vytvoří kurzor ukazující těsně za daný příspěvek.
+     */
+    public static FeedCursor after(Post post, FeedSort sort) {
+        return new FeedCursor(sort, sort.keyOf(post), post.getId());
+    }
+
+    /**
+     * Creates the cursor pointing just after the given listing row. // Vytvoří kurzor ukazující těsně za daný řádek výpisu.
+     */
+    public static FeedCursor after(PostRankRow row, FeedSort sort) {
+        return new FeedCursor(sort, sort.keyOf(row), row.getId());
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}. // Dekóduje kurzor vytvořený metodou {@link #encode()}.
+     *
+     * @param token Encoded cursor from the request // Zakódovaný kurzor z požadavku
+     * @param sort Sort the cursor must belong to // Řazení, ke kterému musí kurzor patřit
+     * @return Decoded cursor // Dekódovaný kurzor
+     * @throws IllegalArgumentException if the token is malformed or belongs to another sort // pokud je token poškozený nebo patří k jinému řazení
+     */
+    public static FeedCursor decode(String token, FeedSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3 || !sort.getKey().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not match sort " + sort.getKey());
+            }
+            return new FeedCursor(sort, sort.parseKey(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid feed cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.getKey() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public FeedSort getSort() {
+        return sort;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
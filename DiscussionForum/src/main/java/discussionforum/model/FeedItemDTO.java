@@ -0,0 +1,87 @@
+package discussionforum.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact post row sent to the infinite scroll of a feed; just what a post card shows. // Kompaktní řádek příspěvku
+ * pro nekonečné rolování feedu; jen to, co zobrazuje karta příspěvku.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class FeedItemDTO {
+
+    private final Long id;
+    private final String title;
+    private final String excerpt;
+    private final LocalDateTime createdAt;
+    private final int score;
+    private final int commentCount;
+    private final String communityName;
+    private final String authorUsername;
+    private final String authorDisplayName;
+    private final VoteType vote;
+    private final boolean saved;
+
+    public FeedItemDTO(PostSummary post, ViewerState viewer) {
+        this.id = post.getId();
+        this.title = post.getTitle();
+        this.excerpt = post.getExcerpt();
+        this.createdAt = post.getCreatedAt();
+        this.score = post.getScore();
+        this.commentCount = post.getCommentCount();
+        this.communityName = post.getCommunityName();
+        this.authorUsername = post.getAuthorUsername();
+        this.authorDisplayName = post.getAuthorDisplayName();
+        this.vote = viewer.voteOf(post.getId());
+        this.saved = viewer.isSaved(post.getId());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public String getCommunityName() {
+        return communityName;
+    }
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public String getAuthorDisplayName() {
+        return authorDisplayName;
+    }
+
+    /**
+     * Viewer's vote on the post, {@code null} if none. // Hlas uživatele u příspěvku, {@code null}, pokud žádný není.
+     */
+    public VoteType getVote() {
+        return vote;
+    }
+
+    public boolean isSaved() {
+        return saved;
+    }
+}
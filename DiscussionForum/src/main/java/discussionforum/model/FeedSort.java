@@ -0,0 +1,159 @@
+package discussionforum.model;
+
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Sort orders supported by post feeds together with the column each one ranks by. // Řazení podporovaná feedy
+ * příspěvků spolu se sloupcem, podle kterého každé řadí.
+ * Every order is descending on its key with the post id as a unique tiebreaker, which is what makes keyset
+ * pagination possible. // Každé řazení je sestupné podle klíče s id příspěvku jako jednoznačným rozhodčím,
+ * což umožňuje stránkování pomocí klíče (keyset).
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public enum FeedSort {
+    HOT("hot", "hotScore"),
+    NEW("new", "createdAt"),
+    TOP("top", "score"),
+    CONTROVERSIAL("controversial", "controversy");
+
+    /**
+     * Sort parameter of the "rising" feed, ranked by vote velocity rather than a column. // Parametr řazení feedu
+     * "rising", řazeného podle rychlosti přibývání hlasů, nikoli podle sloupce.
+     */
+    public static final String RISING = "rising";
+
+    private final String key;
+    private final String property;
+
+    FeedSort(String key, String property) {
+        this.key = key;
+        this.property = property;
+    }
+
+    /**
+     * Resolves a request parameter to a sort, falling back to {@link #HOT}. // Převede parametr požadavku na řazení, výchozí je {@link #HOT}.
+     *
+     * @param key Sort parameter such as "hot", "new", "top" or "top:week" // Parametr řazení jako "hot", "new", "top" nebo "top:week"
+     * @return Matching sort // Odpovídající řazení
+     */
+    public static FeedSort from(String key) {
+        if (key != null) {
+            // A time window suffix such as ":week" does not change the sort itself, see TopWindow // Přípona okna nemění samotné řazení
+            int colon = key.indexOf(':');
+            String base = colon > 0 ? key.substring(0, colon) : key;
+            for (FeedSort sort : values()) {
+                if (sort.key.equalsIgnoreCase(base)) {
+                    return sort;
+                }
+            }
+        }
+        return HOT;
+    }
+
+    /**
+     * Canonical form of a sort parameter, naming the feed it actually selects. // Kanonický tvar parametru řazení,
+     * který pojmenuje skutečně zvolený feed.
+     * "HOT", "hot" and unknown values all select the hot feed, so caches keyed by this hold one entry for it. //
+     * "HOT", "hot" i neznámé hodnoty zvolí feed hot, takže mezipaměti s tímto klíčem pro něj drží jednu položku.
+     *
+     * @param sort Sort parameter as requested // Parametr řazení tak, jak byl požadován
+     * @return "hot", "new", "top", "controversial", "rising" or "top:" with a window // "hot", "new", "top",
+     *         "controversial", "rising" nebo "top:" s oknem
+     */
+    public static String canonical(String sort) {
+        TopWindow window = TopWindow.from(sort);
+        if (window.isWindowed()) {
+            return TOP.key + ":" + window.getKey();
+        }
+        if (RISING.equalsIgnoreCase(sort)) {
+            return RISING;
+        }
+        return from(sort).key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort toSort() {
+        return Sort.by(property).descending().and(Sort.by("id").descending());
+    }
+
+    /**
+     * Reads this sort's key from a post. // Přečte klíč tohoto řazení z příspěvku.
+     */
+    public Object keyOf(Post post) {
+        return switch (this) {
+            case HOT -> post.getHotScore();
+            case NEW -> post.getCreatedAt();
+            case TOP -> post.getScore();
+            case CONTROVERSIAL -> post.getControversy();
+        };
+    }
+
+    /**
+     * Reads this sort's key from a ranking row. // Přečte klíč tohoto řazení z řádku pro řazení.
+     */
+    public Object keyOf(PostRankRow row) {
+        return switch (this) {
+            case HOT -> row.getHotScore();
+            case NEW -> row.getCreatedAt();
+            case TOP -> row.getScore();
+            case CONTROVERSIAL -> row.getControversy();
+        };
+    }
+
+    /**
+     * Maps a key to a double that orders the same way, so rankings of any sort can be compared and merged. //
+     * Převede klíč na číslo se stejným pořadím, aby šlo pořadí libovolného řazení porovnávat a slučovat.
+     * Creation times become epoch microseconds, which a double holds exactly. // Časy vytvoření se převádějí
+     * na mikrosekundy od epochy, které double drží přesně.
+     */
+    public double rank(Object key) {
+        if (this == NEW) {
+            if (key == null) {
+                return Double.MAX_VALUE;
+            }
+            LocalDateTime createdAt = (LocalDateTime) key;
+            return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000d + createdAt.getNano() / 1_000;
+        }
+        return ((Number) key).doubleValue();
+    }
+
+    /**
+     * Inverse of {@link #rank(Object)}. // Inverze k {@link #rank(Object)}.
+     */
+    public Object keyOfRank(double rank) {
+        return switch (this) {
+            case HOT, CONTROVERSIAL -> rank;
+            case NEW -> {
+                long micros = (long) rank;
+                yield LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                        (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            }
+            case TOP -> (int) rank;
+        };
+    }
+
+    /**
+     * Parses a key previously written by {@link #keyOf(Post)}. // Načte klíč dříve zapsaný metodou {@link #keyOf(Post)}.
+     */
+    public Object parseKey(String raw) {
+        return switch (this) {
+            case HOT -> Double.valueOf(raw);
+            case NEW -> LocalDateTime.parse(raw);
+            case TOP -> Integer.valueOf(raw);
+            case CONTROVERSIAL -> Double.valueOf(raw);
+        };
+    }
+}
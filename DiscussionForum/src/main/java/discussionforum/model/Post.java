@@ -4,11 +4,24 @@ package discussionforum.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import discussionforum.ranking.ControversyScore;
+import discussionforum.ranking.HotScore;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_hot_score", columnList = "hot_score"),
+        @Index(name = "idx_posts_community_hot_score", columnList = "community_id, hot_score"),
+        @Index(name = "idx_posts_created_at", columnList = "created_at"),
+        @Index(name = "idx_posts_community_created_at", columnList = "community_id, created_at"),
+        @Index(name = "idx_posts_score", columnList = "score"),
+        @Index(name = "idx_posts_community_score", columnList = "community_id, score"),
+        @Index(name = "idx_posts_controversy", columnList = "controversy"),
+        @Index(name = "idx_posts_community_controversy", columnList = "community_id, controversy")
+})
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,9 +38,30 @@ public class Post {
 
     private int score;
 
+    @Column(name = "hot_score", nullable = false)
+    @ColumnDefault("0")
+    private double hotScore; // Time-decayed ranking, see HotScore
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int upvotes;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int downvotes;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private double controversy; // Derived from upvotes and downvotes, see ControversyScore
+
+    @Column(name = "comment_count", nullable = false)
+    @ColumnDefault("0")
+    private int commentCount; // Maintained by CommentService so listings never load comments
+
     @ElementCollection
     @CollectionTable(name = "post_attachments", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "attachment_url", length = 500)
+    @BatchSize(size = 50) // One query per page of posts instead of one per post
     private Set<String> attachmentUrls; // URLs to attached files
 
     @ManyToOne(optional = false)
@@ -47,6 +81,29 @@ public class Post {
     @PrePersist
     void onCreate() {
         setCreatedAt(LocalDateTime.now());
+        refreshHotScore();
+    }
+
+    public void refreshHotScore() {
+        setHotScore(HotScore.of(score, createdAt));
+    }
+
+    /**
+     * Moves one voter from {@code previous} to {@code current} and refreshes every derived ranking column. //
+     * Přesune jednoho hlasujícího z {@code previous} na {@code current} a přepočítá odvozené sloupce řazení.
+     *
+     * @param previous Vote before the change, {@code null} if none // Hlas před změnou, {@code null} pokud žádný
+     * @param current Vote after the change, {@code null} if removed // Hlas po změně, {@code null} pokud odebrán
+     */
+    public void applyVote(VoteType previous, VoteType current) {
+        // Clamped so rows counted before the backfill never go negative // Omezeno, aby řádky před doplněním nešly do záporu
+        if (previous == VoteType.UPVOTE) upvotes = Math.max(0, upvotes - 1);
+        if (previous == VoteType.DOWNVOTE) downvotes = Math.max(0, downvotes - 1);
+        if (current == VoteType.UPVOTE) upvotes++;
+        if (current == VoteType.DOWNVOTE) downvotes++;
+        score += VoteType.weight(current) - VoteType.weight(previous);
+        refreshHotScore();
+        setControversy(ControversyScore.of(upvotes, downvotes));
     }
 
     public Long getId() {
@@ -89,6 +146,38 @@ public class Post {
         this.score = score;
     }
 
+    public double getHotScore() {
+        return hotScore;
+    }
+
+    public void setHotScore(double hotScore) {
+        this.hotScore = hotScore;
+    }
+
+    public int getUpvotes() {
+        return upvotes;
+    }
+
+    public void setUpvotes(int upvotes) {
+        this.upvotes = upvotes;
+    }
+
+    public int getDownvotes() {
+        return downvotes;
+    }
+
+    public void setDownvotes(int downvotes) {
+        this.downvotes = downvotes;
+    }
+
+    public double getControversy() {
+        return controversy;
+    }
+
+    public void setControversy(double controversy) {
+        this.controversy = controversy;
+    }
+
     public User getAuthor() {
         return author;
     }
@@ -130,7 +219,11 @@ public class Post {
     }
     
     public int getCommentCount() {
-        return comments != null ? comments.size() : 0;
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
     }
 }
 
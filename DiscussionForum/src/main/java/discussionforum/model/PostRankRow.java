@@ -0,0 +1,19 @@
+package discussionforum.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read-only view of the columns that drive post ranking. // Odlehčený pohled pouze pro čtení na sloupce, které určují řazení příspěvků.
+ * Lets ranking jobs work without hydrating full posts and their content. // Umožňuje úlohám řazení pracovat bez načítání celých příspěvků a jejich obsahu.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public interface PostRankRow {
+    Long getId();
+    int getScore();
+    double getHotScore();
+    double getControversy();
+    LocalDateTime getCreatedAt();
+}
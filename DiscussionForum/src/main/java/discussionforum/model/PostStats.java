@@ -0,0 +1,51 @@
+package discussionforum.model;
+
+import discussionforum.sketch.HyperLogLog;
+import jakarta.persistence.*;
+
+/**
+ * Counters of a post kept apart from the post row, so frequent counter writes never lock or bloat {@code posts}. //
+ * Čítače příspěvku oddělené od řádku příspěvku, aby časté zápisy čítačů nezamykaly ani nenafukovaly {@code posts}.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Entity
+@Table(name = "post_stats")
+public class PostStats {
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(name = "view_count", nullable = false)
+    private long viewCount;
+
+    // Serialized HyperLogLog of everyone who viewed the post // Serializovaný HyperLogLog všech, kdo příspěvek zobrazili
+    @Column(name = "viewer_sketch", length = HyperLogLog.SERIALIZED_LENGTH)
+    private byte[] viewerSketch;
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(long viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public byte[] getViewerSketch() {
+        return viewerSketch;
+    }
+
+    public void setViewerSketch(byte[] viewerSketch) {
+        this.viewerSketch = viewerSketch;
+    }
+}
@@ -0,0 +1,114 @@
+package discussionforum.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of a post listing: everything a feed card shows, without the post body. // Řádek výpisu příspěvků
+ * pouze pro čtení: vše, co zobrazuje karta ve feedu, bez těla příspěvku.
+ * Built by a JPQL constructor expression, so listings never hydrate {@link Post} entities and their {@code @Lob}
+ * content; the body is cut to a short excerpt by the database. // Vytváří se konstruktorovým výrazem JPQL, takže
+ * výpisy nikdy nenačítají entity {@link Post} a jejich obsah {@code @Lob}; tělo zkrátí na krátký úryvek databáze.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class PostSummary implements PostRankRow {
+
+    /**
+     * Characters of content the listings show. // Počet znaků obsahu, které výpisy zobrazují.
+     */
+    public static final int EXCERPT_LENGTH = 200;
+
+    /**
+     * Select list of the projection over a {@code Post p} alias; one character past the excerpt is fetched so a view
+     * can tell that the content continues. // Výběr projekce nad aliasem {@code Post p}; načítá se o jeden znak víc
+     * než úryvek, aby pohled poznal, že obsah pokračuje.
+     */
+    public static final String SELECT = "SELECT new discussionforum.model.PostSummary(p.id, p.title, " +
+            "SUBSTRING(CAST(p.content AS String), 1, " + (EXCERPT_LENGTH + 1) + "), " +
+            "p.createdAt, p.score, p.hotScore, p.controversy, " +
+            "p.commentCount, " +
+            "p.community.name, p.author.username, p.author.displayName) ";
+
+    private final Long id;
+    private final String title;
+    private final String excerpt;
+    private final LocalDateTime createdAt;
+    private final int score;
+    private final double hotScore;
+    private final double controversy;
+    private final int commentCount;
+    private final String communityName;
+    private final String authorUsername;
+    private final String authorDisplayName;
+
+    public PostSummary(Long id, String title, String excerpt, LocalDateTime createdAt, int score, double hotScore,
+                       double controversy, int commentCount, String communityName, String authorUsername,
+                       String authorDisplayName) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.createdAt = createdAt;
+        this.score = score;
+        this.hotScore = hotScore;
+        this.controversy = controversy;
+        this.commentCount = commentCount;
+        this.communityName = communityName;
+        this.authorUsername = authorUsername;
+        this.authorDisplayName = authorDisplayName;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Start of the content, at most {@link #EXCERPT_LENGTH} + 1 characters. // Začátek obsahu, nejvýše
+     * {@link #EXCERPT_LENGTH} + 1 znaků.
+     */
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    @Override
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public double getHotScore() {
+        return hotScore;
+    }
+
+    @Override
+    public double getControversy() {
+        return controversy;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public String getCommunityName() {
+        return communityName;
+    }
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public String getAuthorDisplayName() {
+        return authorDisplayName;
+    }
+}
@@ -0,0 +1,20 @@
+package discussionforum.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a post's vote counters right after a vote was applied to them. // Pohled pouze pro čtení na
+ * čítače hlasů příspěvku ihned po započtení hlasu.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public interface PostTallyRow {
+    Long getId();
+    Long getCommunityId();
+    int getScore();
+    int getUpvotes();
+    int getDownvotes();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,68 @@
+package discussionforum.model;
+
+import discussionforum.sketch.HyperLogLog;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Viewers of one post within one day, as a serialized HyperLogLog. // Uživatelé, kteří příspěvek zobrazili během
+ * jednoho dne, jako serializovaný HyperLogLog.
+ * Merging the days of a window estimates the distinct viewers over the whole window. // Sloučení dní okna odhadne
+ * počet různých uživatelů za celé okno.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Entity
+@Table(name = "post_viewer_daily",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"post_id", "bucket_start"}),
+       indexes = @Index(name = "idx_post_viewer_daily_window", columnList = "bucket_start"))
+public class PostViewerDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id")
+    private Post post;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = HyperLogLog.SERIALIZED_LENGTH)
+    private byte[] sketch;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public void setPost(Post post) {
+        this.post = post;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+}
@@ -0,0 +1,13 @@
+package discussionforum.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "post_vote_daily",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"post_id", "bucket_start"}),
+       indexes = {
+               @Index(name = "idx_post_vote_daily_window", columnList = "bucket_start, post_id, delta"),
+               @Index(name = "idx_post_vote_daily_community_window", columnList = "community_id, bucket_start, post_id, delta")
+       })
+public class PostVoteDaily extends PostVoteBucket {
+}
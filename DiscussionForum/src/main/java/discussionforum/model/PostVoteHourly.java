@@ -0,0 +1,13 @@
+package discussionforum.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "post_vote_hourly",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"post_id", "bucket_start"}),
+       indexes = {
+               @Index(name = "idx_post_vote_hourly_window", columnList = "bucket_start, post_id, delta"),
+               @Index(name = "idx_post_vote_hourly_community_window", columnList = "community_id, bucket_start, post_id, delta")
+       })
+public class PostVoteHourly extends PostVoteBucket {
+}
@@ -14,15 +14,15 @@ public class SearchResultDTO {
         private String authorDisplayName;
         private String communityName;
         
-        public PostResult(Post post) {
+        public PostResult(PostSummary post) {
             this.id = post.getId();
             this.title = post.getTitle();
-            this.content = post.getContent();
+            this.content = post.getExcerpt(); // Listings carry only the excerpt // Výpisy nesou jen úryvek
             this.createdAt = post.getCreatedAt();
             this.score = post.getScore();
-            this.authorUsername = post.getAuthor() != null ? post.getAuthor().getUsername() : null;
-            this.authorDisplayName = post.getAuthor() != null ? post.getAuthor().getDisplayName() : null;
-            this.communityName = post.getCommunity() != null ? post.getCommunity().getName() : null;
+            this.authorUsername = post.getAuthorUsername();
+            this.authorDisplayName = post.getAuthorDisplayName();
+            this.communityName = post.getCommunityName();
         }
         
         // Getters
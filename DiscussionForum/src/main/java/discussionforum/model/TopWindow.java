@@ -0,0 +1,81 @@
+package discussionforum.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time windows of the "top" sort, written as {@code top:day}, {@code top:week} and so on. // Časová okna řazení
+ * "top", zapisovaná jako {@code top:day}, {@code top:week} atd.
+ * Short windows are summed from hourly vote rollups, long ones from daily rollups; {@link #ALL} ranks by the
+ * all-time score column. // Krátká okna se sčítají z hodinových souhrnů hlasů, dlouhá z denních; {@link #ALL}
+ * řadí podle celkového skóre.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public enum TopWindow {
+    DAY("day", 24, ChronoUnit.HOURS),
+    WEEK("week", 7 * 24, ChronoUnit.HOURS),
+    MONTH("month", 30, ChronoUnit.DAYS),
+    YEAR("year", 365, ChronoUnit.DAYS),
+    ALL("all", 0, null);
+
+    private final String key;
+    private final int buckets;
+    private final ChronoUnit bucketUnit;
+
+    TopWindow(String key, int buckets, ChronoUnit bucketUnit) {
+        this.key = key;
+        this.buckets = buckets;
+        this.bucketUnit = bucketUnit;
+    }
+
+    /**
+     * Reads the window from a sort parameter such as "top:week"; anything else is {@link #ALL}. // Přečte okno
+     * z parametru řazení jako "top:week"; cokoli jiného je {@link #ALL}.
+     *
+     * @param sort Sort parameter // Parametr řazení
+     * @return Matching window // Odpovídající okno
+     */
+    public static TopWindow from(String sort) {
+        if (sort != null) {
+            int colon = sort.indexOf(':');
+            if (colon > 0 && "top".equalsIgnoreCase(sort.substring(0, colon))) {
+                String window = sort.substring(colon + 1);
+                for (TopWindow candidate : values()) {
+                    if (candidate.key.equalsIgnoreCase(window)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return ALL;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isWindowed() {
+        return bucketUnit != null;
+    }
+
+    /**
+     * Whether the window is summed from hourly rather than daily rollups. // Zda se okno sčítá z hodinových, nikoli denních souhrnů.
+     */
+    public boolean isHourly() {
+        return bucketUnit == ChronoUnit.HOURS;
+    }
+
+    /**
+     * Start of the oldest bucket inside the window, the current bucket included. // Začátek nejstaršího bucketu
+     * v okně, včetně aktuálního.
+     *
+     * @param now Current time // Aktuální čas
+     * @return Inclusive lower bound of bucket starts // Dolní mez (včetně) začátků bucketů
+     */
+    public LocalDateTime since(LocalDateTime now) {
+        return now.truncatedTo(bucketUnit).minus(buckets - 1L, bucketUnit);
+    }
+}
@@ -0,0 +1,53 @@
+package discussionforum.model;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-viewer decoration of a page of posts: the viewer's vote and saved flag for each post. // Dekorace stránky
+ * příspěvků pro konkrétního uživatele: jeho hlas a příznak uložení u každého příspěvku.
+ * Loaded for the whole page at once, so a view asks it per card without touching the database. // Načítá se pro
+ * celou stránku najednou, takže se ho pohled ptá u každé karty bez přístupu k databázi.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class ViewerState {
+
+    /**
+     * State of a viewer with no votes and no saved posts, e.g. an anonymous visitor. // Stav uživatele bez hlasů
+     * a uložených příspěvků, např. anonymního návštěvníka.
+     */
+    public static final ViewerState EMPTY = new ViewerState(Map.of(), Set.of());
+
+    private final Map<Long, VoteType> votes;
+    private final Set<Long> saved;
+
+    public ViewerState(Map<Long, VoteType> votes, Set<Long> saved) {
+        this.votes = Map.copyOf(votes);
+        this.saved = Set.copyOf(saved);
+    }
+
+    /**
+     * Vote the viewer has cast on a post. // Hlas, který uživatel dal příspěvku.
+     *
+     * @param postId Post id // Id příspěvku
+     * @return Vote type, or {@code null} if the viewer has not voted // Typ hlasu, nebo {@code null}, pokud uživatel nehlasoval
+     */
+    public VoteType voteOf(Long postId) {
+        return postId == null ? null : votes.get(postId);
+    }
+
+    public boolean isUpvoted(Long postId) {
+        return voteOf(postId) == VoteType.UPVOTE;
+    }
+
+    public boolean isDownvoted(Long postId) {
+        return voteOf(postId) == VoteType.DOWNVOTE;
+    }
+
+    public boolean isSaved(Long postId) {
+        return postId != null && saved.contains(postId);
+    }
+}
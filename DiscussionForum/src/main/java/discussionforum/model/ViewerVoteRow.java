@@ -0,0 +1,14 @@
+package discussionforum.model;
+
+/**
+ * Read-only view of one vote the viewer has cast on a post. // Pohled pouze pro čtení na jeden hlas, který
+ * prohlížející uživatel dal příspěvku.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public interface ViewerVoteRow {
+    Long getPostId();
+    VoteType getType();
+}
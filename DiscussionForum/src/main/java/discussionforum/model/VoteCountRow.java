@@ -0,0 +1,15 @@
+package discussionforum.model;
+
+/**
+ * Read-only view of the up/down vote counters of a post or comment. // Pohled pouze pro čtení na čítače kladných
+ * a záporných hlasů příspěvku nebo komentáře.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public interface VoteCountRow {
+    Long getId();
+    int getUpvotes();
+    int getDownvotes();
+}
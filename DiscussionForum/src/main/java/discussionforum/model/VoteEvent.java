@@ -0,0 +1,111 @@
+package discussionforum.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only vote journal: a voter moving from one vote to another on a post or a comment. //
+ * Jeden záznam journalu hlasů, do kterého se pouze připisuje: přechod uživatele z jednoho hlasu na jiný u příspěvku
+ * nebo komentáře.
+ * Votes are kept as their weights (-1, 0, 1), so summing {@code current_vote - previous_vote} over the journal gives
+ * the score. // Hlasy jsou uloženy jako váhy, takže součet {@code current_vote - previous_vote} přes journal dává skóre.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Entity
+@Table(name = "vote_events")
+public class VoteEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain ids without foreign keys, the journal outlives deleted posts // Prostá id bez cizích klíčů, journal přežije smazané příspěvky
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    // Set for comment votes only // Vyplněno jen u hlasů pro komentáře
+    @Column(name = "comment_id")
+    private Long commentId;
+
+    @Column(name = "community_id")
+    private Long communityId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "previous_vote", nullable = false)
+    private byte previousVote;
+
+    @Column(name = "current_vote", nullable = false)
+    private byte currentVote;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public Long getCommentId() {
+        return commentId;
+    }
+
+    public void setCommentId(Long commentId) {
+        this.commentId = commentId;
+    }
+
+    public Long getCommunityId() {
+        return communityId;
+    }
+
+    public void setCommunityId(Long communityId) {
+        this.communityId = communityId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public byte getPreviousVote() {
+        return previousVote;
+    }
+
+    public void setPreviousVote(byte previousVote) {
+        this.previousVote = previousVote;
+    }
+
+    public byte getCurrentVote() {
+        return currentVote;
+    }
+
+    public void setCurrentVote(byte currentVote) {
+        this.currentVote = currentVote;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,59 @@
+package discussionforum.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker that the vote journal holds a baseline of the votes stored before it existed; at most one row. // Značka,
+ * že journal hlasů obsahuje výchozí stav hlasů uložených před jeho vznikem; nejvýše jeden řádek.
+ * Replaying the journal over the counters is only sound once this row exists. // Přehrání journalu přes čítače je
+ * správné až tehdy, když tento řádek existuje.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Entity
+@Table(name = "vote_journal_baseline")
+public class VoteJournalBaseline {
+
+    /**
+     * Id of the only row; a second seeding run fails on it. // Id jediného řádku; druhé naplnění na něm selže.
+     */
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "seeded_at", nullable = false)
+    private LocalDateTime seededAt;
+
+    // Baseline events written by the seeding run // Počet výchozích událostí zapsaných naplněním
+    @Column(name = "events", nullable = false)
+    private int events;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getSeededAt() {
+        return seededAt;
+    }
+
+    public void setSeededAt(LocalDateTime seededAt) {
+        this.seededAt = seededAt;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public void setEvents(int events) {
+        this.events = events;
+    }
+}
@@ -0,0 +1,15 @@
+package discussionforum.model;
+
+/**
+ * Outcome of one vote on a post, as the voter sees it right after voting. // Výsledek jednoho hlasu pro příspěvek
+ * tak, jak jej hlasující vidí hned po hlasování.
+ *
+ * @param score New score of the post // Nové skóre příspěvku
+ * @param vote  The voter's vote after the toggle, or {@code null} if it was withdrawn // Hlas uživatele po
+ *              přepnutí, nebo {@code null}, pokud byl odebrán
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public record VoteResult(int score, VoteType vote) {
+}
@@ -1,3 +1,15 @@
 package discussionforum.model;
 
-public enum VoteType { UPVOTE, DOWNVOTE }
+public enum VoteType {
+    UPVOTE, DOWNVOTE;
+
+    /**
+     * Score contribution of a vote, {@code 0} for no vote. // Příspěvek hlasu ke skóre, {@code 0} pro žádný hlas.
+     */
+    public static int weight(VoteType type) {
+        if (type == null) {
+            return 0;
+        }
+        return type == UPVOTE ? 1 : -1;
+    }
+}
@@ -0,0 +1,33 @@
+package discussionforum.ranking;
+
+/**
+ * "Controversial" ranking formula shared by posts and comments. // Vzorec řazení "controversial" společný pro
+ * příspěvky a komentáře.
+ * Content is controversial when it draws many votes that are split close to evenly: the total vote count raised
+ * to the ratio of the smaller side to the larger one. // Obsah je kontroverzní, když získá mnoho hlasů rozdělených
+ * téměř rovnoměrně: celkový počet hlasů umocněný poměrem menší strany k větší.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public final class ControversyScore {
+
+    private ControversyScore() {
+    }
+
+    /**
+     * Computes the controversy score. // Vypočítá skóre kontroverznosti.
+     *
+     * @param upvotes Number of upvotes // Počet kladných hlasů
+     * @param downvotes Number of downvotes // Počet záporných hlasů
+     * @return Controversy score, {@code 0} when either side has no votes // Skóre kontroverznosti, {@code 0} pokud některá strana nemá hlasy
+     */
+    public static double of(int upvotes, int downvotes) {
+        if (upvotes <= 0 || downvotes <= 0) {
+            return 0d;
+        }
+        double balance = (double) Math.min(upvotes, downvotes) / Math.max(upvotes, downvotes);
+        return Math.pow(upvotes + downvotes, balance);
+    }
+}
@@ -0,0 +1,65 @@
+package discussionforum.ranking;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Time-decayed "hot" ranking formula for posts. // Vzorec pro časově tlumené "hot" řazení příspěvků.
+ * Combines a log-scaled score with the post age, so ten upvotes on a fresh post weigh as much as a hundred on a post
+ * that is 12.5 hours older. // Kombinuje logaritmicky škálované skóre se stářím příspěvku, takže deset hlasů na čerstvém
+ * příspěvku váží stejně jako sto hlasů na příspěvku o 12,5 hodiny starším.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public final class HotScore {
+
+    /**
+     * Reference instant the age term is measured from (seconds since epoch). // Referenční okamžik, od kterého se měří stáří (sekundy od epochy).
+     */
+    private static final long EPOCH_OFFSET_SECONDS = 1_134_028_003L;
+
+    /**
+     * Seconds of age that are worth one order of magnitude of score. // Počet sekund stáří, které odpovídají jednomu řádu skóre.
+     */
+    private static final double DECAY_SECONDS = 45_000d;
+
+    private HotScore() {
+    }
+
+    /**
+     * Computes the hot score for a post. // Vypočítá hot skóre příspěvku.
+     *
+     * @param score Current vote score of the post // Aktuální skóre příspěvku
+     * @param createdAt Creation time of the post, {@code null} is treated as now // Čas vytvoření, {@code null} znamená nyní
+     * @return Hot score, higher is hotter // Hot skóre, vyšší znamená žhavější
+     */
+    public static double of(int score, LocalDateTime createdAt) {
+        return scoreTerm(score) + ageTerm(createdAt);
+    }
+
+    /**
+     * Log-scaled contribution of the vote score. // Logaritmicky škálovaný příspěvek skóre.
+     *
+     * @param score Vote score // Skóre hlasování
+     * @return Signed order of magnitude of the score // Znaménkový řád velikosti skóre
+     */
+    public static double scoreTerm(int score) {
+        double order = Math.log10(Math.max(Math.abs(score), 1));
+        return Math.signum(score) * order;
+    }
+
+    /**
+     * Age contribution of the creation time; grows linearly so newer posts always start higher. // Příspěvek stáří;
+     * roste lineárně, takže novější příspěvky vždy začínají výše.
+     *
+     * @param createdAt Creation time of the post // Čas vytvoření příspěvku
+     * @return Age term of the hot score // Časová složka hot skóre
+     */
+    public static double ageTerm(LocalDateTime createdAt) {
+        LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+        long seconds = created.toEpochSecond(ZoneOffset.UTC) - EPOCH_OFFSET_SECONDS;
+        return seconds / DECAY_SECONDS;
+    }
+}
@@ -1,16 +1,23 @@
 package discussionforum.repository;
 
 import discussionforum.model.Comment;
+import discussionforum.model.CommentTallyRow;
 import discussionforum.model.Post;
+import discussionforum.model.VoteCountRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPostOrderByCreatedAtAsc(Post post);
+    List<Comment> findByPost(Post post, Sort sort);
     
     @Query("SELECT c FROM Comment c WHERE c.post = :post AND c.parent IS NULL ORDER BY c.createdAt ASC")
     List<Comment> findTopLevelCommentsByPost(@Param("post") Post post);
@@ -26,4 +33,35 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
            "LOWER(c.author.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(c.author.displayName) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Comment> searchComments(String query, Pageable pageable);
+
+    // Vote counter backfill for rows voted on before the counters existed // Doplnění čítačů pro řádky hlasované před jejich zavedením
+    @Modifying
+    @Transactional
+    @Query("UPDATE Comment c SET " +
+           "c.upvotes = (SELECT COUNT(v) FROM CommentVote v WHERE v.comment = c AND v.type = discussionforum.model.VoteType.UPVOTE), " +
+           "c.downvotes = (SELECT COUNT(v) FROM CommentVote v WHERE v.comment = c AND v.type = discussionforum.model.VoteType.DOWNVOTE) " +
+           "WHERE c.upvotes + c.downvotes <> (SELECT COUNT(v) FROM CommentVote v WHERE v.comment = c)")
+    int backfillVoteCounters();
+
+    @Query("SELECT c.id AS id, c.upvotes AS upvotes, c.downvotes AS downvotes FROM Comment c " +
+           "WHERE c.upvotes > 0 AND c.downvotes > 0 AND c.controversy = 0")
+    List<VoteCountRow> findMissingControversy();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Comment c SET c.controversy = :controversy WHERE c.id = :id")
+    int updateControversy(@Param("id") Long id, @Param("controversy") double controversy);
+
+    // Counters move inside the database, never by read-modify-write in Java // Čítače se mění v databázi, nikdy čtením a zápisem v Javě
+    @Modifying
+    @Query("UPDATE Comment c SET c.score = c.score + :delta, " +
+           "c.upvotes = CASE WHEN c.upvotes + :up < 0 THEN 0 ELSE c.upvotes + :up END, " +
+           "c.downvotes = CASE WHEN c.downvotes + :down < 0 THEN 0 ELSE c.downvotes + :down END " +
+           "WHERE c.id = :id")
+    int applyVoteDelta(@Param("id") Long id, @Param("delta") int delta,
+                       @Param("up") int up, @Param("down") int down);
+
+    @Query("SELECT c.id AS id, c.post.id AS postId, c.score AS score, c.upvotes AS upvotes, " +
+           "c.downvotes AS downvotes FROM Comment c WHERE c.id = :id")
+    Optional<CommentTallyRow> findTally(@Param("id") Long id);
 }
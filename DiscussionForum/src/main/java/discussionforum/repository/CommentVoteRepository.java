@@ -3,10 +3,42 @@ package discussionforum.repository;
 import discussionforum.model.Comment;
 import discussionforum.model.CommentVote;
 import discussionforum.model.User;
+import discussionforum.model.VoteType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface CommentVoteRepository extends JpaRepository<CommentVote, Long> {
     Optional<CommentVote> findByCommentAndUser(Comment comment, User user);
-}
\ No newline at end of file
+
+    // Id-driven vote path, nothing is hydrated // Hlasování podle id, nic se nenačítá do entit
+    @Query("SELECT v.type FROM CommentVote v WHERE v.comment.id = :commentId AND v.user.id = :userId")
+    Optional<VoteType> findType(@Param("commentId") Long commentId, @Param("userId") Long userId);
+
+    // Current read for the retry after a lost race with the same voter // Aktuální čtení pro opakování po souběhu téhož uživatele
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v.type FROM CommentVote v WHERE v.comment.id = :commentId AND v.user.id = :userId")
+    Optional<VoteType> findTypeForUpdate(@Param("commentId") Long commentId, @Param("userId") Long userId);
+
+    // Inserts nothing when the comment is gone or the voter already has a row // Nevloží nic, pokud komentář neexistuje nebo hlas už existuje
+    @Modifying
+    @Query("INSERT INTO CommentVote (comment, user, type) SELECT c, u, :type FROM Comment c, User u " +
+           "WHERE c.id = :commentId AND u.id = :userId " +
+           "AND NOT EXISTS (SELECT 1 FROM CommentVote v WHERE v.comment.id = :commentId AND v.user.id = :userId)")
+    int insertIfAbsent(@Param("commentId") Long commentId, @Param("userId") Long userId, @Param("type") VoteType type);
+
+    // The type guard turns these into compare-and-set writes // Podmínka na typ z nich dělá zápisy typu compare-and-set
+    @Modifying
+    @Query("DELETE FROM CommentVote v WHERE v.comment.id = :commentId AND v.user.id = :userId AND v.type = :type")
+    int deleteIfType(@Param("commentId") Long commentId, @Param("userId") Long userId, @Param("type") VoteType type);
+
+    @Modifying
+    @Query("UPDATE CommentVote v SET v.type = :to WHERE v.comment.id = :commentId AND v.user.id = :userId AND v.type = :from")
+    int switchType(@Param("commentId") Long commentId, @Param("userId") Long userId,
+                   @Param("from") VoteType from, @Param("to") VoteType to);
+}
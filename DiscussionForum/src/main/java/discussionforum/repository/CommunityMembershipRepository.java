@@ -16,6 +16,9 @@ public interface CommunityMembershipRepository extends JpaRepository<CommunityMe
     
     @Query("SELECT cm.community FROM CommunityMembership cm WHERE cm.user.username = :username ORDER BY cm.joinedAt DESC")
     List<Community> findCommunitiesByUsername(@Param("username") String username);
+
+    @Query("SELECT cm.community.id FROM CommunityMembership cm WHERE cm.user.username = :username")
+    List<Long> findCommunityIdsByUsername(@Param("username") String username);
     
     @Query("SELECT COUNT(cm) FROM CommunityMembership cm WHERE cm.community = :community")
     int countByCommunity(@Param("community") Community community);
@@ -3,12 +3,17 @@ package discussionforum.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import discussionforum.model.Community;
 
 public interface CommunityRepository extends JpaRepository<Community, Long> {
     Optional<Community> findByName(String name);
     boolean existsByName(String name);
+
+    @Query("SELECT c.name FROM Community c WHERE c.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
     
     @Query("SELECT COUNT(p) FROM Post p WHERE p.community.name = :communityName")
     int countPostsByCommunityName(@Param("communityName") String communityName);
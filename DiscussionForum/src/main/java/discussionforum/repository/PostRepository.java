@@ -2,32 +2,175 @@ package discussionforum.repository;
 
 import discussionforum.model.Post;
 import discussionforum.model.Community;
+import discussionforum.model.PostRankRow;
+import discussionforum.model.PostSummary;
+import discussionforum.model.PostTallyRow;
+import discussionforum.model.VoteCountRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface PostRepository extends JpaRepository<Post, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+    // Entity pages join author and community up front; attachments are batch fetched // Stránky entit připojí
+    // autora a komunitu předem; přílohy se načítají dávkově
+    @Override
+    @EntityGraph(attributePaths = {"author", "community"})
+    Page<Post> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author", "community"})
     Page<Post> findAllByCommunityOrderByCreatedAtDesc(Community community, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author", "community"})
     Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author", "community"})
     Page<Post> findAllByCommunity(Community community, Pageable pageable);
 
+    long countByCommunityId(Long communityId);
+
+    // Listing projections without the post body // Projekce pro výpisy bez těla příspěvku
+    @Query(value = PostSummary.SELECT + "FROM Post p",
+           countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostSummary> findSummaries(Pageable pageable);
+
+    @Query(value = PostSummary.SELECT + "FROM Post p WHERE p.community.id = :communityId",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.community.id = :communityId")
+    Page<PostSummary> findSummariesByCommunityId(@Param("communityId") Long communityId, Pageable pageable);
+
+    // Same listings without a count query; one extra row tells whether a next page exists // Stejné výpisy bez
+    // dotazu na počet; jeden řádek navíc určí, zda existuje další stránka
+    @Query(PostSummary.SELECT + "FROM Post p")
+    Slice<PostSummary> findSummarySlice(Pageable pageable);
+
+    @Query(PostSummary.SELECT + "FROM Post p WHERE p.community.id = :communityId")
+    Slice<PostSummary> findSummarySliceByCommunityId(@Param("communityId") Long communityId, Pageable pageable);
+
+    @Query(PostSummary.SELECT + "FROM Post p WHERE p.id IN :ids")
+    List<PostSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
     // Advanced search methods for posts // Pokročilé vyhledávací metody pro příspěvky
-    @Query("SELECT p FROM Post p WHERE " +
+    @Query(value = PostSummary.SELECT + "FROM Post p WHERE " +
+           "LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "p.content LIKE CONCAT('%', :query, '%') OR " +
+           "LOWER(p.author.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.author.displayName) LIKE LOWER(CONCAT('%', :query, '%'))",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE " +
            "LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "p.content LIKE CONCAT('%', :query, '%') OR " +
            "LOWER(p.author.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(p.author.displayName) LIKE LOWER(CONCAT('%', :query, '%'))")
-    Page<Post> searchPosts(String query, Pageable pageable);
+    Page<PostSummary> searchPosts(@Param("query") String query, Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.community = :community AND (" +
+    @Query(value = PostSummary.SELECT + "FROM Post p WHERE p.community = :community AND (" +
+           "LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "p.content LIKE CONCAT('%', :query, '%') OR " +
+           "LOWER(p.author.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.author.displayName) LIKE LOWER(CONCAT('%', :query, '%')))",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.community = :community AND (" +
            "LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "p.content LIKE CONCAT('%', :query, '%') OR " +
            "LOWER(p.author.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(p.author.displayName) LIKE LOWER(CONCAT('%', :query, '%')))")
-    Page<Post> searchPostsInCommunity(Community community, String query, Pageable pageable);
+    Page<PostSummary> searchPostsInCommunity(@Param("community") Community community, @Param("query") String query,
+                                             Pageable pageable);
 
     // Search by title only for autocomplete // Vyhledávání pouze podle názvu pro automatické dokončování
-    @Query("SELECT p FROM Post p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%'))")
-    Page<Post> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+    @Query(value = PostSummary.SELECT + "FROM Post p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%'))",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    Page<PostSummary> findByTitleContainingIgnoreCase(@Param("title") String title, Pageable pageable);
+
+    // Ranking columns only, used to warm the in-memory feed index // Pouze sloupce pro řazení, pro naplnění indexu feedu v paměti
+    @Query("SELECT p.id AS id, p.score AS score, p.hotScore AS hotScore, p.controversy AS controversy, " +
+           "p.createdAt AS createdAt FROM Post p")
+    List<PostRankRow> findRankRows(Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.score AS score, p.hotScore AS hotScore, p.controversy AS controversy, " +
+           "p.createdAt AS createdAt FROM Post p " +
+           "WHERE p.community.id = :communityId")
+    List<PostRankRow> findRankRowsByCommunityId(@Param("communityId") Long communityId, Pageable pageable);
+
+    // Hot score maintenance // Údržba hot skóre
+    @Query("SELECT p.id AS id, p.score AS score, p.hotScore AS hotScore, p.controversy AS controversy, " +
+           "p.createdAt AS createdAt FROM Post p " +
+           "WHERE p.id > :afterId AND (p.createdAt >= :since OR p.hotScore = 0) ORDER BY p.id ASC")
+    List<PostRankRow> findHotScoreRefreshCandidates(@Param("afterId") Long afterId,
+                                                    @Param("since") LocalDateTime since,
+                                                    Limit limit);
+
+    // Guarded by score so a concurrent vote is never overwritten with a stale value // Podmíněno skóre, aby se nepřepsal souběžný hlas
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.hotScore = :hotScore WHERE p.id = :id AND p.score = :score")
+    int updateHotScore(@Param("id") Long id, @Param("score") int score, @Param("hotScore") double hotScore);
+
+    // Vote counter backfill for rows voted on before the counters existed // Doplnění čítačů pro řádky hlasované před jejich zavedením
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET " +
+           "p.upvotes = (SELECT COUNT(v) FROM Vote v WHERE v.post = p AND v.type = discussionforum.model.VoteType.UPVOTE), " +
+           "p.downvotes = (SELECT COUNT(v) FROM Vote v WHERE v.post = p AND v.type = discussionforum.model.VoteType.DOWNVOTE) " +
+           "WHERE p.upvotes + p.downvotes <> (SELECT COUNT(v) FROM Vote v WHERE v.post = p)")
+    int backfillVoteCounters();
+
+    // Comment counter maintenance // Údržba čítače komentářů
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :id")
+    int adjustCommentCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post = p) " +
+           "WHERE p.commentCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post = p)")
+    int backfillCommentCounts();
+
+    @Query("SELECT p.id AS id, p.upvotes AS upvotes, p.downvotes AS downvotes FROM Post p " +
+           "WHERE p.upvotes > 0 AND p.downvotes > 0 AND p.controversy = 0")
+    List<VoteCountRow> findMissingControversy();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.controversy = :controversy WHERE p.id = :id")
+    int updateControversy(@Param("id") Long id, @Param("controversy") double controversy);
+
+    // Counters move inside the database, never by read-modify-write in Java // Čítače se mění v databázi, nikdy čtením a zápisem v Javě
+    @Modifying
+    @Query("UPDATE Post p SET p.score = p.score + :delta, " +
+           "p.upvotes = CASE WHEN p.upvotes + :up < 0 THEN 0 ELSE p.upvotes + :up END, " +
+           "p.downvotes = CASE WHEN p.downvotes + :down < 0 THEN 0 ELSE p.downvotes + :down END " +
+           "WHERE p.id = :id")
+    int applyVoteDelta(@Param("id") Long id, @Param("delta") int delta,
+                       @Param("up") int up, @Param("down") int down);
+
+    @Query("SELECT p.id AS id, p.community.id AS communityId, p.score AS score, p.upvotes AS upvotes, " +
+           "p.downvotes AS downvotes, p.createdAt AS createdAt FROM Post p WHERE p.id = :id")
+    Optional<PostTallyRow> findTally(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.community.id AS communityId, p.score AS score, p.upvotes AS upvotes, " +
+           "p.downvotes AS downvotes, p.createdAt AS createdAt FROM Post p WHERE p.id IN :ids")
+    List<PostTallyRow> findTallies(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.score FROM Post p WHERE p.id = :id")
+    Optional<Integer> findScore(@Param("id") Long id);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Unguarded, the caller still holds the row lock of applyVoteDelta // Bez podmínky, volající drží zámek z applyVoteDelta
+    @Modifying
+    @Query("UPDATE Post p SET p.hotScore = :hotScore, p.controversy = :controversy WHERE p.id = :id")
+    int updateRanking(@Param("id") Long id, @Param("hotScore") double hotScore,
+                      @Param("controversy") double controversy);
 }
@@ -0,0 +1,44 @@
+package discussionforum.repository;
+
+import discussionforum.model.Community;
+import discussionforum.model.FeedCursor;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostRankRow;
+import discussionforum.model.PostSummary;
+
+import java.util.List;
+
+/**
+ * Hand-written queries for {@link PostRepository} that Spring Data cannot derive. // Ručně psané dotazy pro
+ * {@link PostRepository}, které Spring Data neumí odvodit.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * Keyset (seek) query for one feed page: rows strictly after the cursor in sort order, without OFFSET or COUNT. //
+     * Dotaz pomocí klíče pro jednu stránku feedu: řádky striktně za kurzorem v pořadí řazení, bez OFFSET a COUNT.
+     *
+     * @param community Community to restrict to, or {@code null} for the global feed // Komunita pro omezení, nebo {@code null} pro globální feed
+     * @param sort Feed sort order // Řazení feedu
+     * @param after Cursor of the last row already shown, or {@code null} for the first page // Kurzor posledního zobrazeného řádku, nebo {@code null} pro první stránku
+     * @param limit Maximum number of rows // Maximální počet řádků
+     * @return Post listing rows in feed order // Řádky výpisu příspěvků v pořadí feedu
+     */
+    List<PostSummary> findFeedPage(Community community, FeedSort sort, FeedCursor after, int limit);
+
+    /**
+     * Same seek as {@link #findFeedPage} over one community, returning only the ranking columns. // Stejné hledání
+     * jako {@link #findFeedPage} v jedné komunitě, vrací pouze sloupce pro řazení.
+     *
+     * @param communityId Community id // Id komunity
+     * @param sort Feed sort order // Řazení feedu
+     * @param after Cursor of the last row already taken, or {@code null} for the top // Kurzor posledního převzatého řádku, nebo {@code null} pro začátek
+     * @param limit Maximum number of rows // Maximální počet řádků
+     * @return Ranking rows in feed order // Řádky pro řazení v pořadí feedu
+     */
+    List<PostRankRow> findRankPage(Long communityId, FeedSort sort, FeedCursor after, int limit);
+}
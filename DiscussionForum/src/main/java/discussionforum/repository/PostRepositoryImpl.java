@@ -0,0 +1,77 @@
+package discussionforum.repository;
+
+import discussionforum.model.Community;
+import discussionforum.model.FeedCursor;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostRankRow;
+import discussionforum.model.PostSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementation of the custom {@link PostRepository} queries. // Implementace vlastních dotazů {@link PostRepository}.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public class PostRepositoryImpl implements PostRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PostSummary> findFeedPage(Community community, FeedSort sort, FeedCursor after, int limit) {
+        String jpql = seek(PostSummary.SELECT + "FROM Post p WHERE 1 = 1",
+                community != null ? "p.community = :community" : null, sort, after);
+        TypedQuery<PostSummary> query = entityManager.createQuery(jpql, PostSummary.class);
+        if (community != null) {
+            query.setParameter("community", community);
+        }
+        bindCursor(query, after);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<PostRankRow> findRankPage(Long communityId, FeedSort sort, FeedCursor after, int limit) {
+        String jpql = seek("SELECT p.id, p.score, p.hotScore, p.controversy, p.createdAt FROM Post p WHERE 1 = 1",
+                "p.community.id = :communityId", sort, after);
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class)
+                .setParameter("communityId", communityId);
+        bindCursor(query, after);
+        return query.setMaxResults(limit).getResultList().stream()
+                .<PostRankRow>map(r -> new RankRow((Long) r[0], (Integer) r[1], (Double) r[2], (Double) r[3],
+                        (LocalDateTime) r[4]))
+                .toList();
+    }
+
+    private static String seek(String select, String filter, FeedSort sort, FeedCursor after) {
+        String key = "p." + sort.getProperty();
+        StringBuilder jpql = new StringBuilder(select);
+        if (filter != null) {
+            jpql.append(" AND ").append(filter);
+        }
+        if (after != null) {
+            // Row-value comparison (key, id) < (:key, :id) spelled out for portability // Porovnání dvojic rozepsané kvůli přenositelnosti
+            jpql.append(" AND (").append(key).append(" < :key OR (")
+                .append(key).append(" = :key AND p.id < :id))");
+        }
+        jpql.append(" ORDER BY ").append(key).append(" DESC, p.id DESC");
+        return jpql.toString();
+    }
+
+    private static void bindCursor(TypedQuery<?> query, FeedCursor after) {
+        if (after != null) {
+            query.setParameter("key", after.getKey());
+            query.setParameter("id", after.getId());
+        }
+    }
+
+    private record RankRow(Long getId, int getScore, double getHotScore, double getControversy,
+                           LocalDateTime getCreatedAt) implements PostRankRow {
+    }
+}
@@ -2,6 +2,7 @@ package discussionforum.repository;
 
 import discussionforum.model.Post;
 import discussionforum.model.PostSave;
+import discussionforum.model.PostSummary;
 import discussionforum.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,14 +12,21 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PostSaveRepository extends JpaRepository<PostSave, Long> {
     Optional<PostSave> findByUserAndPost(User user, Post post);
     boolean existsByUserAndPost(User user, Post post);
     
-    @Query("SELECT ps.post FROM PostSave ps WHERE ps.user.username = :username ORDER BY ps.savedAt DESC")
-    Page<Post> findSavedPostsByUsername(@Param("username") String username, Pageable pageable);
+    @Query(value = PostSummary.SELECT + "FROM PostSave ps JOIN ps.post p WHERE ps.user.username = :username",
+           countQuery = "SELECT COUNT(ps) FROM PostSave ps WHERE ps.user.username = :username")
+    Page<PostSummary> findSavedPostsByUsername(@Param("username") String username, Pageable pageable);
+
+    // Which posts of a page one viewer has saved, in a single query // Které příspěvky stránky uživatel uložil, jedním dotazem
+    @Query("SELECT ps.post.id FROM PostSave ps WHERE ps.user.username = :username AND ps.post.id IN :postIds")
+    List<Long> findSavedPostIds(@Param("username") String username, @Param("postIds") Collection<Long> postIds);
     
     @Modifying
     @Transactional
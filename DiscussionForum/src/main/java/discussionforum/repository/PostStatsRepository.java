@@ -0,0 +1,7 @@
+package discussionforum.repository;
+
+import discussionforum.model.PostStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PostStatsRepository extends JpaRepository<PostStats, Long> {
+}
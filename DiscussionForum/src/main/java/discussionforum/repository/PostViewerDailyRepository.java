@@ -0,0 +1,16 @@
+package discussionforum.repository;
+
+import discussionforum.model.PostViewerDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PostViewerDailyRepository extends JpaRepository<PostViewerDaily, Long> {
+
+    // Daily viewer sketches of a window, merged by the caller // Denní náčrty uživatelů okna, slučuje je volající
+    @Query("SELECT d.sketch FROM PostViewerDaily d WHERE d.post.id = :postId AND d.bucketStart >= :since")
+    List<byte[]> findSketches(@Param("postId") Long postId, @Param("since") LocalDateTime since);
+}
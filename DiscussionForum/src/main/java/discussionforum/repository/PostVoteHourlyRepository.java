@@ -0,0 +1,27 @@
+package discussionforum.repository;
+
+import discussionforum.model.PostVoteHourly;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface PostVoteHourlyRepository extends JpaRepository<PostVoteHourly, Long> {
+
+    // Windowed top: sums pre-aggregated buckets, covered by idx_post_vote_hourly_window // Okno top: sčítá předem agregované buckety
+    @Query(value = "SELECT b.post.id FROM PostVoteHourly b WHERE b.bucketStart >= :since " +
+                   "GROUP BY b.post.id ORDER BY SUM(b.delta) DESC, b.post.id DESC",
+           countQuery = "SELECT COUNT(DISTINCT b.post.id) FROM PostVoteHourly b WHERE b.bucketStart >= :since")
+    Page<Long> findTopPostIds(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query(value = "SELECT b.post.id FROM PostVoteHourly b WHERE b.communityId = :communityId AND b.bucketStart >= :since " +
+                   "GROUP BY b.post.id ORDER BY SUM(b.delta) DESC, b.post.id DESC",
+           countQuery = "SELECT COUNT(DISTINCT b.post.id) FROM PostVoteHourly b " +
+                        "WHERE b.communityId = :communityId AND b.bucketStart >= :since")
+    Page<Long> findTopPostIdsInCommunity(@Param("communityId") Long communityId,
+                                         @Param("since") LocalDateTime since,
+                                         Pageable pageable);
+}
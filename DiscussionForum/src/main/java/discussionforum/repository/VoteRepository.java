@@ -2,12 +2,53 @@ package discussionforum.repository;
 
 import discussionforum.model.Post;
 import discussionforum.model.User;
+import discussionforum.model.ViewerVoteRow;
 import discussionforum.model.Vote;
 import discussionforum.model.VoteType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface VoteRepository extends JpaRepository<Vote, Long> {
     Optional<Vote> findByPostAndUser(Post post, User user);
     long countByPostIdAndType(Long postId, VoteType type);
+
+    // Votes of one viewer on a page of posts in a single query // Hlasy jednoho uživatele na stránce příspěvků jedním dotazem
+    @Query("SELECT v.post.id AS postId, v.type AS type FROM Vote v " +
+           "WHERE v.user.username = :username AND v.post.id IN :postIds")
+    List<ViewerVoteRow> findViewerVotes(@Param("username") String username,
+                                        @Param("postIds") Collection<Long> postIds);
+
+    // Id-driven vote path, nothing is hydrated // Hlasování podle id, nic se nenačítá do entit
+    @Query("SELECT v.type FROM Vote v WHERE v.post.id = :postId AND v.user.id = :userId")
+    Optional<VoteType> findType(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // Current read for the retry after a lost race with the same voter // Aktuální čtení pro opakování po souběhu téhož uživatele
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v.type FROM Vote v WHERE v.post.id = :postId AND v.user.id = :userId")
+    Optional<VoteType> findTypeForUpdate(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // Inserts nothing when the post is gone or the voter already has a row // Nevloží nic, pokud příspěvek neexistuje nebo hlas už existuje
+    @Modifying
+    @Query("INSERT INTO Vote (post, user, type) SELECT p, u, :type FROM Post p, User u " +
+           "WHERE p.id = :postId AND u.id = :userId " +
+           "AND NOT EXISTS (SELECT 1 FROM Vote v WHERE v.post.id = :postId AND v.user.id = :userId)")
+    int insertIfAbsent(@Param("postId") Long postId, @Param("userId") Long userId, @Param("type") VoteType type);
+
+    // The type guard turns these into compare-and-set writes // Podmínka na typ z nich dělá zápisy typu compare-and-set
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.post.id = :postId AND v.user.id = :userId AND v.type = :type")
+    int deleteIfType(@Param("postId") Long postId, @Param("userId") Long userId, @Param("type") VoteType type);
+
+    @Modifying
+    @Query("UPDATE Vote v SET v.type = :to WHERE v.post.id = :postId AND v.user.id = :userId AND v.type = :from")
+    int switchType(@Param("postId") Long postId, @Param("userId") Long userId,
+                   @Param("from") VoteType from, @Param("to") VoteType to);
 }
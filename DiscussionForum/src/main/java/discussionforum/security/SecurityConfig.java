@@ -44,7 +44,7 @@ public class SecurityConfig {
 
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/", "/home", "/css/**", "/js/**", "/images/**", "/register", "/login").permitAll()
-                        .requestMatchers("/posts/**", "/c/**", "/communities/**").permitAll()
+                        .requestMatchers("/posts/**", "/c/**", "/communities/**", "/api/feed").permitAll()
                         .anyRequest().authenticated()
                 )
 
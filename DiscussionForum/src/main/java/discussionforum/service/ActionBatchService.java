@@ -0,0 +1,123 @@
+package discussionforum.service;
+
+import discussionforum.model.ActionRequestDTO;
+import discussionforum.model.ActionResult;
+import discussionforum.model.ActionType;
+import discussionforum.model.VoteType;
+import discussionforum.repository.CommunityRepository;
+import discussionforum.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies a batch of client click actions (votes, saves, joins) in one transaction. // Provede dávku akcí po
+ * kliknutí (hlasy, uložení, připojení) v jedné transakci.
+ * One request and one pass through the security filters carries a whole burst of clicks. The targets are checked
+ * up front with two queries, so a deleted post or community fails only its own action instead of rolling back the
+ * batch. // Jeden požadavek a jeden průchod bezpečnostními filtry nese celou sérii kliknutí. Cíle se ověří předem
+ * dvěma dotazy, takže smazaný příspěvek nebo komunita selže jen ve své akci a nevrátí celou dávku.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+public class ActionBatchService {
+
+    private final PostService postService;
+    private final CommunityService communityService;
+    private final PostRepository postRepository;
+    private final CommunityRepository communityRepository;
+
+    @Value("${forum.actions.max-batch:50}")
+    private int maxBatch;
+
+    public ActionBatchService(PostService postService, CommunityService communityService,
+                              PostRepository postRepository, CommunityRepository communityRepository) {
+        this.postService = postService;
+        this.communityService = communityService;
+        this.postRepository = postRepository;
+        this.communityRepository = communityRepository;
+    }
+
+    /**
+     * Applies the actions in the order given. // Provede akce v zadaném pořadí.
+     *
+     * @param username Acting user // Jednající uživatel
+     * @param actions Actions in click order // Akce v pořadí kliknutí
+     * @return One result per action, in the same order // Jeden výsledek na akci, ve stejném pořadí
+     * @throws IllegalArgumentException If the batch is larger than {@code forum.actions.max-batch} // Pokud je dávka
+     *         větší než {@code forum.actions.max-batch}
+     */
+    @Transactional
+    public List<ActionResult> apply(String username, List<ActionRequestDTO> actions) {
+        checkSize(actions);
+        Set<Long> postIds = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (ActionRequestDTO action : actions) {
+            if (action.getType() != null && action.getType().onPost() && action.getPostId() != null) {
+                postIds.add(action.getPostId());
+            } else if (action.getType() != null && action.getCommunity() != null) {
+                names.add(action.getCommunity());
+            }
+        }
+        // Mutable sets, whose contains(null) answers false instead of throwing // Měnitelné množiny, jejichž
+        // contains(null) vrátí false místo vyhození výjimky
+        Set<Long> posts = postIds.isEmpty() ? new HashSet<>() : new HashSet<>(postRepository.findExistingIds(postIds));
+        Set<String> communities = names.isEmpty() ? new HashSet<>() : new HashSet<>(communityRepository.findExistingNames(names));
+
+        List<ActionResult> results = new ArrayList<>(actions.size());
+        for (ActionRequestDTO action : actions) {
+            results.add(applyOne(username, action, posts, communities));
+        }
+        return results;
+    }
+
+    /**
+     * Rejects a batch larger than {@code forum.actions.max-batch}, before anything is charged or read. // Odmítne
+     * dávku větší než {@code forum.actions.max-batch} dříve, než se cokoli započte nebo načte.
+     *
+     * @param actions Actions in click order // Akce v pořadí kliknutí
+     * @throws IllegalArgumentException If the batch is too large // Pokud je dávka příliš velká
+     */
+    public void checkSize(List<ActionRequestDTO> actions) {
+        if (actions.size() > maxBatch) {
+            throw new IllegalArgumentException("At most " + maxBatch + " actions per batch");
+        }
+    }
+
+    private ActionResult applyOne(String username, ActionRequestDTO action, Set<Long> posts, Set<String> communities) {
+        ActionType type = action.getType();
+        if (type == null) {
+            return ActionResult.failed("Unknown action");
+        }
+        if (type.onPost() && action.getPostId() == null) {
+            return ActionResult.failed("Missing post id");
+        }
+        if (!type.onPost() && action.getCommunity() == null) {
+            return ActionResult.failed("Missing community");
+        }
+        if (type.onPost() && !posts.contains(action.getPostId())) {
+            return ActionResult.failed("Post not found with id " + action.getPostId());
+        }
+        if (!type.onPost() && !communities.contains(action.getCommunity())) {
+            return ActionResult.failed("Community not found: " + action.getCommunity());
+        }
+        return switch (type) {
+            case UPVOTE -> ActionResult.voted(postService.vote(action.getPostId(), username, VoteType.UPVOTE));
+            case DOWNVOTE -> ActionResult.voted(postService.vote(action.getPostId(), username, VoteType.DOWNVOTE));
+            case SAVE -> ActionResult.of(postService.savePost(action.getPostId(), username), "Post is already saved");
+            case UNSAVE -> ActionResult.of(postService.unsavePost(action.getPostId(), username), "Post was not saved");
+            case JOIN -> ActionResult.of(communityService.joinCommunity(action.getCommunity(), username),
+                    "Already a member of " + action.getCommunity());
+            case LEAVE -> ActionResult.of(communityService.leaveCommunity(action.getCommunity(), username),
+                    "Not a member of " + action.getCommunity());
+        };
+    }
+}
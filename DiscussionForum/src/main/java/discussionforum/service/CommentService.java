@@ -1,22 +1,28 @@
 package discussionforum.service;
 
+import discussionforum.event.CommentCreatedEvent;
+import discussionforum.event.CommentVotedEvent;
 import discussionforum.model.Comment;
 import discussionforum.model.CommentRequestDTO;
-import discussionforum.model.CommentVote;
+import discussionforum.model.CommentSort;
+import discussionforum.model.CommentTallyRow;
 import discussionforum.model.Post;
 import discussionforum.model.User;
 import discussionforum.model.VoteType;
+import discussionforum.ranking.ControversyScore;
 import discussionforum.repository.CommentRepository;
 import discussionforum.repository.CommentVoteRepository;
 import discussionforum.repository.PostRepository;
 import discussionforum.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -26,13 +32,18 @@ public class CommentService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final CommentVoteRepository commentVoteRepository;
+    private final VoteJournal voteJournal;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CommentService(CommentRepository commentRepository, PostRepository postRepository, 
-                         UserRepository userRepository, CommentVoteRepository commentVoteRepository) {
+                         UserRepository userRepository, CommentVoteRepository commentVoteRepository,
+                         VoteJournal voteJournal, ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.commentVoteRepository = commentVoteRepository;
+        this.voteJournal = voteJournal;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -52,6 +63,9 @@ public class CommentService {
         c.setContent(req.getContent());
         
         Comment savedComment = commentRepository.save(c);
+        // Atomic in SQL so concurrent commenters never lose a count // Atomicky v SQL, aby souběžné komentáře neztratily počet
+        postRepository.adjustCommentCount(post.getId(), 1);
+        publishCreated(savedComment, post);
         
         return savedComment;
     }
@@ -81,18 +95,37 @@ public class CommentService {
         reply.setParent(parent);
         
         Comment savedReply = commentRepository.save(reply);
+        postRepository.adjustCommentCount(post.getId(), 1);
+        publishCreated(savedReply, post);
         
         return savedReply;
     }
 
+    private void publishCreated(Comment comment, Post post) {
+        Long communityId = post.getCommunity() != null ? post.getCommunity().getId() : null;
+        eventPublisher.publishEvent(new CommentCreatedEvent(comment.getId(), post.getId(), communityId));
+    }
+
     public List<Comment> forPost(Long postId) {
+        return forPost(postId, null);
+    }
+
+    /**
+     * Comment thread of a post with every level ordered by the given sort. // Vlákno komentářů příspěvku, kde je
+     * každá úroveň seřazena podle zadaného řazení.
+     *
+     * @param postId Post id // Id příspěvku
+     * @param sort Sort key: "old" (default), "new", "top" or "controversial" // Klíč řazení: "old" (výchozí), "new", "top" nebo "controversial"
+     * @return Top-level comments with their replies attached // Komentáře nejvyšší úrovně s připojenými odpověďmi
+     */
+    public List<Comment> forPost(Long postId, String sort) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException(
                         "No post found with id: " + postId
                 ));
 
 
-        List<Comment> allComments = commentRepository.findByPostOrderByCreatedAtAsc(post);
+        List<Comment> allComments = commentRepository.findByPost(post, CommentSort.from(sort).toSort());
         
 
         List<Comment> topLevelComments = new ArrayList<>();
@@ -101,6 +134,8 @@ public class CommentService {
 
         for (Comment comment : allComments) {
             commentMap.put(comment.getId(), comment);
+            // Insertion-ordered so replies keep the query order // Zachovává pořadí vložení, odpovědi tak drží pořadí dotazu
+            comment.setReplies(new LinkedHashSet<>());
             if (comment.getParent() == null) {
                 topLevelComments.add(comment);
             }
@@ -111,10 +146,6 @@ public class CommentService {
             if (comment.getParent() != null) {
                 Comment parent = commentMap.get(comment.getParent().getId());
                 if (parent != null) {
-
-                    if (parent.getReplies() == null) {
-                        parent.setReplies(new HashSet<>());
-                    }
                     parent.getReplies().add(comment);
                 }
             }
@@ -123,47 +154,67 @@ public class CommentService {
         return topLevelComments;
     }
     
-    public int getTotalCommentCount(Long postId) {
-        List<Comment> topLevelComments = forPost(postId);
-        return countCommentsRecursively(topLevelComments);
-    }
-    
-    private int countCommentsRecursively(List<Comment> comments) {
-        int count = 0;
-        for (Comment comment : comments) {
-            count += 1;
-            if (comment.getReplies() != null && !comment.getReplies().isEmpty()) {
-                count += countCommentsRecursively(comment.getReplies().stream().toList());
-            }
-        }
-        return count;
-    }
-    
+    /**
+     * Toggles a comment vote with id-driven statements only. // Přepne hlas pro komentář pouze příkazy podle id.
+     * The vote row changes through guarded insert/switch/delete statements and the counters through one
+     * {@code UPDATE}, so concurrent voters never overwrite each other's counts. // Řádek hlasu se mění podmíněnými
+     * příkazy insert/switch/delete a čítače jedním {@code UPDATE}, takže souběžní hlasující si nepřepisují počty.
+     *
+     * @return New score of the comment // Nové skóre komentáře
+     */
     @Transactional
     public int voteComment(Long commentId, String username, VoteType type) {
-        Comment comment = commentRepository.findById(commentId)
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
+
+        VoteType previous = commentVoteRepository.findType(commentId, userId).orElse(null);
+        VoteType current = previous == type ? null : type;
+        if (!writeVote(commentId, userId, previous, current)) {
+            // Lost a race with the same voter, re-read under lock // Souběh s týmž uživatelem, znovu načíst pod zámkem
+            previous = commentVoteRepository.findTypeForUpdate(commentId, userId).orElse(null);
+            current = previous == type ? null : type;
+            if (!writeVote(commentId, userId, previous, current)) {
+                throw new ConcurrencyFailureException("Vote on comment " + commentId + " changed concurrently");
+            }
+        }
+
+        int up = count(current, VoteType.UPVOTE) - count(previous, VoteType.UPVOTE);
+        int down = count(current, VoteType.DOWNVOTE) - count(previous, VoteType.DOWNVOTE);
+        int delta = VoteType.weight(current) - VoteType.weight(previous);
+        if (commentRepository.applyVoteDelta(commentId, delta, up, down) == 0) {
+            throw new EntityNotFoundException("Comment not found with id " + commentId);
+        }
+        // Controversy follows the counters while the row lock is still held // Kontroverznost se přepočítá, dokud je řádek zamčen
+        CommentTallyRow tally = commentRepository.findTally(commentId)
                 .orElseThrow(() -> new EntityNotFoundException("Comment not found with id " + commentId));
+        commentRepository.updateControversy(commentId, ControversyScore.of(tally.getUpvotes(), tally.getDownvotes()));
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
+        voteJournal.commentVoted(commentId, tally.getPostId(), userId, previous, current);
+        eventPublisher.publishEvent(new CommentVotedEvent(commentId, tally.getPostId(), userId, previous, current));
+        return tally.getScore();
+    }
 
-        CommentVote vote = commentVoteRepository.findByCommentAndUser(comment, user).orElse(null);
-        if (vote == null) {
-            vote = new CommentVote();
-            vote.setComment(comment);
-            vote.setUser(user);
-            vote.setType(type);
-            commentVoteRepository.save(vote);
-            comment.setScore(comment.getScore() + (type == VoteType.UPVOTE ? 1 : -1));
-        } else if (vote.getType() == type) {
-            commentVoteRepository.delete(vote);
-            comment.setScore(comment.getScore() + (type == VoteType.UPVOTE ? -1 : 1)); // undo
-        } else {
-            vote.setType(type);
-            commentVoteRepository.save(vote);
-            comment.setScore(comment.getScore() + (type == VoteType.UPVOTE ? 2 : -2)); // switch
+    /**
+     * Applies the vote row change, returning false when the row no longer holds {@code previous}. // Zapíše změnu
+     * řádku hlasu, vrací false, pokud řádek již neobsahuje {@code previous}.
+     */
+    private boolean writeVote(Long commentId, Long userId, VoteType previous, VoteType current) {
+        if (previous == null) {
+            if (commentVoteRepository.insertIfAbsent(commentId, userId, current) > 0) {
+                return true;
+            }
+            if (!commentRepository.existsById(commentId)) {
+                throw new EntityNotFoundException("Comment not found with id " + commentId);
+            }
+            return false;
         }
-        commentRepository.save(comment);
-        return comment.getScore();
+        if (current == null) {
+            return commentVoteRepository.deleteIfType(commentId, userId, previous) > 0;
+        }
+        return commentVoteRepository.switchType(commentId, userId, previous, current) > 0;
+    }
+
+    private static int count(VoteType vote, VoteType type) {
+        return vote == type ? 1 : 0;
     }
 }
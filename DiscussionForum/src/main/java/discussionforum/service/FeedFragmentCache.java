@@ -0,0 +1,214 @@
+package discussionforum.service;
+
+import discussionforum.event.CommentCreatedEvent;
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.FeedSort;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.ui.Model;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of rendered post list fragments served to anonymous visitors. // Mezipaměť vykreslených fragmentů seznamu
+ * příspěvků pro anonymní návštěvníky.
+ * Anonymous visitors all see the same markup for a feed page, so a front page spike renders it once instead of
+ * querying and rendering per request. A new post drops every page of its feeds, a vote or comment drops the pages
+ * showing that post; a short TTL bounds how long a page may miss a post moving in from elsewhere. // Anonymní
+ * návštěvníci vidí pro stránku feedu stejné značkování, takže nápor na titulní stránku ji vykreslí jednou místo
+ * dotazu a vykreslení pro každý požadavek. Nový příspěvek zahodí všechny stránky svých feedů, hlas nebo komentář
+ * zahodí stránky zobrazující daný příspěvek; krátké TTL omezuje, jak dlouho může stránce chybět příspěvek,
+ * který se do ní přesunul odjinud.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class FeedFragmentCache {
+
+    /**
+     * Name of the fragment holding the post cards and pagination. // Název fragmentu s kartami příspěvků a stránkováním.
+     */
+    public static final String FRAGMENT = "postList";
+
+    /**
+     * Model attribute carrying the cached markup into the view. // Atribut modelu, který předává uložené značkování do pohledu.
+     */
+    public static final String ATTRIBUTE = "postListHtml";
+
+    /**
+     * Scope id of the global feed; community ids start at 1. // Id rozsahu globálního feedu; id komunit začínají od 1.
+     */
+    private static final long GLOBAL = 0L;
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private final TemplateEngine templateEngine;
+    private final ApplicationContext applicationContext;
+    // Insertion order; with one TTL for all pages the eldest entry is also the first to expire // Pořadí vložení;
+    // při jednom TTL pro všechny stránky je nejstarší položka zároveň první, které vyprší
+    private final Map<Key, Fragment> fragments = new LinkedHashMap<>();
+
+    @Value("${forum.feed.fragment-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forum.feed.fragment-cache.ttl-ms:10000}")
+    private long ttlMs;
+
+    @Value("${forum.feed.fragment-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${forum.feed.fragment-cache.pages:5}")
+    private int pages;
+
+    public FeedFragmentCache(TemplateEngine templateEngine, ApplicationContext applicationContext) {
+        this.templateEngine = templateEngine;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Whether a feed page may be served from the cache; only the first pages at the default size are kept. // Zda
+     * lze stránku feedu obsloužit z mezipaměti; ukládají se jen první stránky ve výchozí velikosti.
+     *
+     * @param page Requested page number, or {@code null} for the first page // Požadované číslo stránky, nebo {@code null} pro první stránku
+     * @param size Requested page size, or {@code null} for the default // Požadovaná velikost stránky, nebo {@code null} pro výchozí
+     * @return {@code true} if the page is cacheable // {@code true}, pokud lze stránku uložit
+     */
+    public boolean cacheable(Integer page, Integer size) {
+        int p = page == null ? 0 : page;
+        return enabled && p >= 0 && p < pages && (size == null || size == DEFAULT_SIZE);
+    }
+
+    /**
+     * Cached markup of a feed page, if present and fresh. // Uložené značkování stránky feedu, pokud existuje a je čerstvé.
+     *
+     * @param communityId Community id, or {@code null} for the global feed // Id komunity, nebo {@code null} pro globální feed
+     * @param sort Sort key as requested // Klíč řazení tak, jak byl požadován
+     * @param page Page number, or {@code null} for the first page // Číslo stránky, nebo {@code null} pro první stránku
+     * @return Markup, or {@code null} on a miss // Značkování, nebo {@code null}, pokud chybí
+     */
+    public String get(Long communityId, String sort, Integer page) {
+        Key key = key(communityId, sort, page);
+        synchronized (fragments) {
+            Fragment fragment = fragments.get(key);
+            if (fragment == null) {
+                return null;
+            }
+            if (fragment.expiresAt() < System.currentTimeMillis()) {
+                fragments.remove(key);
+                return null;
+            }
+            return fragment.html();
+        }
+    }
+
+    /**
+     * Renders the post list fragment of a view from the prepared model and caches it. // Vykreslí fragment seznamu
+     * příspěvků pohledu z připraveného modelu a uloží ho.
+     *
+     * @param communityId Community id, or {@code null} for the global feed // Id komunity, nebo {@code null} pro globální feed
+     * @param sort Sort key as requested // Klíč řazení tak, jak byl požadován
+     * @param page Page number, or {@code null} for the first page // Číslo stránky, nebo {@code null} pro první stránku
+     * @param postIds Ids of the posts on the page // Id příspěvků na stránce
+     * @param template View name containing the fragment // Název pohledu obsahujícího fragment
+     * @param request Current request // Aktuální požadavek
+     * @param response Current response // Aktuální odpověď
+     * @param model Model of the page // Model stránky
+     * @return Rendered markup // Vykreslené značkování
+     */
+    public String render(Long communityId, String sort, Integer page, Collection<Long> postIds, String template,
+                         HttpServletRequest request, HttpServletResponse response, Model model) {
+        Map<String, Object> variables = new HashMap<>(model.asMap());
+        variables.put(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, null));
+        // Shared markup must never carry a session id rewritten into its links // Sdílené značkování nesmí nést id
+        // relace přepsané do odkazů
+        HttpServletResponse plain = new HttpServletResponseWrapper(response) {
+            @Override
+            public String encodeURL(String url) {
+                return url;
+            }
+        };
+        WebContext context = new WebContext(
+                JakartaServletWebApplication.buildApplication(request.getServletContext()).buildExchange(request, plain),
+                RequestContextUtils.getLocale(request),
+                variables);
+        String html = templateEngine.process(template, Set.of(FRAGMENT), context);
+
+        long now = System.currentTimeMillis();
+        Key key = key(communityId, sort, page);
+        Fragment fragment = new Fragment(html, Set.copyOf(postIds), now + ttlMs);
+        synchronized (fragments) {
+            // Re-inserted, so a refreshed page moves to the young end // Vloženo znovu, aby obnovená stránka přešla na mladý konec
+            fragments.remove(key);
+            fragments.put(key, fragment);
+            // Expired pages go first, then the oldest while over the limit // Nejdřív vypršelé stránky, pak nejstarší, dokud je limit překročen
+            Iterator<Fragment> eldest = fragments.values().iterator();
+            while (eldest.hasNext()) {
+                Fragment candidate = eldest.next();
+                if (fragments.size() <= maxEntries && candidate.expiresAt() >= now) {
+                    break;
+                }
+                eldest.remove();
+            }
+        }
+        return html;
+    }
+
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        long community = scope(event.communityId());
+        synchronized (fragments) {
+            fragments.keySet().removeIf(key -> key.scope() == GLOBAL || key.scope() == community);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostVoted(PostVotedEvent event) {
+        evictShowing(event.postId());
+    }
+
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        evictShowing(event.postId());
+    }
+
+    private void evictShowing(Long postId) {
+        synchronized (fragments) {
+            fragments.values().removeIf(fragment -> fragment.postIds().contains(postId));
+        }
+    }
+
+    // Keyed by the feed the sort selects, so case variants and junk values share its entry // Klíčem je feed zvolený
+    // řazením, takže varianty velikosti písmen a nesmyslné hodnoty sdílejí jeho položku
+    private static Key key(Long communityId, String sort, Integer page) {
+        return new Key(scope(communityId), FeedSort.canonical(sort), page == null ? 0 : page);
+    }
+
+    private static long scope(Long communityId) {
+        return communityId == null ? GLOBAL : communityId;
+    }
+
+    private record Key(long scope, String sort, int page) {
+    }
+
+    private record Fragment(String html, Set<Long> postIds, long expiresAt) {
+    }
+}
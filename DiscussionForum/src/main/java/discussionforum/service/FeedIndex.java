@@ -0,0 +1,373 @@
+package discussionforum.service;
+
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.FeedCursor;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostRankRow;
+import discussionforum.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process index of the top posts per community and sort, so the first feed pages need no ranking query. //
+ * Index nejlepších příspěvků v paměti pro každou komunitu a řazení, aby první stránky feedu nepotřebovaly řadicí dotaz.
+ * Each ranking is a concurrent skip list of (rank, id) loaded lazily on first read and kept current by post events
+ * after commit; only the first {@code depth} positions are served, the rest of {@code capacity} absorbs posts
+ * dropping down. A periodic rebuild repairs anything the events cannot see, such as background hot score
+ * refreshes. Events arriving while a ranking loads are kept and replayed onto it before it is published, so a slow
+ * load never drops them. // Každé pořadí je souběžný skip list dvojic (rank, id), načtený líně při prvním čtení a udržovaný
+ * událostmi po potvrzení transakce; obsluhuje se jen prvních {@code depth} pozic, zbytek kapacity pojme příspěvky,
+ * které klesají. Pravidelná přestavba opraví vše, co události nezachytí, např. přepočet hot skóre na pozadí. Události přicházející během načítání pořadí se uchovají a přehrají do něj před
+ * zveřejněním, takže je pomalé načtení nikdy neztratí.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class FeedIndex {
+
+    /**
+     * Scope id of the global feed; community ids start at 1. // Id rozsahu globálního feedu; id komunit začínají od 1.
+     */
+    private static final long GLOBAL = 0L;
+
+    private final PostRepository postRepository;
+    private final ConcurrentMap<Key, Ranking> rankings = new ConcurrentHashMap<>();
+    private final Set<Backlog> loads = ConcurrentHashMap.newKeySet();
+
+    @Value("${forum.feed.index.capacity:500}")
+    private int capacity;
+
+    @Value("${forum.feed.index.depth:300}")
+    private int depth;
+
+    public FeedIndex(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * Ids of one feed page in rank order, if the page lies within the indexed depth. // Id jedné stránky feedu
+     * v pořadí, pokud stránka leží v indexované hloubce.
+     *
+     * @param communityId Community id, or {@code null} for the global feed // Id komunity, nebo {@code null} pro globální feed
+     * @param sort Feed sort // Řazení feedu
+     * @param page Zero-based page number // Číslo stránky od nuly
+     * @param size Page size // Velikost stránky
+     * @return Page of ids with the total post count, or empty when the caller must query the database // Stránka id
+     * s celkovým počtem příspěvků, nebo prázdné, pokud se musí použít databáze
+     */
+    public Optional<IndexedPage> page(Long communityId, FeedSort sort, int page, int size) {
+        if (page < 0 || size < 1) {
+            return Optional.empty();
+        }
+        long offset = (long) page * size;
+        Ranking ranking = ranking(new Key(scope(communityId), sort));
+        return ranking.slice(offset, size, depth);
+    }
+
+    /**
+     * Up to {@code limit} ranked posts of one feed strictly after a cursor, if the index covers that range. // Až
+     * {@code limit} seřazených příspěvků jednoho feedu striktně za kurzorem, pokud index tento rozsah pokrývá.
+     *
+     * @param communityId Community id, or {@code null} for the global feed // Id komunity, nebo {@code null} pro globální feed
+     * @param sort Feed sort // Řazení feedu
+     * @param after Cursor of the last post already taken, or {@code null} to start at the top // Kurzor posledního
+     * převzatého příspěvku, nebo {@code null} pro začátek
+     * @param limit Maximum number of posts // Maximální počet příspěvků
+     * @return Posts in rank order, or empty when the caller must query the database // Příspěvky v pořadí, nebo
+     * prázdné, pokud se musí použít databáze
+     */
+    public Optional<List<Ranked>> after(Long communityId, FeedSort sort, FeedCursor after, int limit) {
+        if (limit < 1) {
+            return Optional.empty();
+        }
+        Entry from = after == null ? null : new Entry(sort.rank(after.getKey()), after.getId());
+        return ranking(new Key(scope(communityId), sort)).after(from, limit, depth);
+    }
+
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        for (FeedSort sort : FeedSort.values()) {
+            double rank = rankOf(sort, event.score(), event.hotScore(), event.controversy(), event.createdAt());
+            apply(new Key(GLOBAL, sort), event.postId(), rank, true);
+            apply(new Key(scope(event.communityId()), sort), event.postId(), rank, true);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostVoted(PostVotedEvent event) {
+        // A vote never moves a post in the "new" order // Hlas nikdy nemění pozici příspěvku v řazení "new"
+        for (FeedSort sort : new FeedSort[]{FeedSort.HOT, FeedSort.TOP, FeedSort.CONTROVERSIAL}) {
+            double rank = rankOf(sort, event.score(), event.hotScore(), event.controversy(), event.createdAt());
+            apply(new Key(GLOBAL, sort), event.postId(), rank, false);
+            apply(new Key(scope(event.communityId()), sort), event.postId(), rank, false);
+        }
+    }
+
+    /**
+     * Reloads every ranking that has been read so far from the database. // Znovu načte z databáze všechna dosud čtená pořadí.
+     */
+    @Scheduled(initialDelayString = "${forum.feed.index.rebuild-interval-ms:600000}",
+               fixedDelayString = "${forum.feed.index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        for (Key key : rankings.keySet()) {
+            reload(key, true);
+        }
+    }
+
+    private void apply(Key key, Long postId, double rank, boolean created) {
+        if (postId == null) {
+            return;
+        }
+        Entry entry = new Entry(rank, postId);
+        // Kept before reading the map: a closed backlog has already published its ranking // Uloženo před čtením
+        // mapy: uzavřený záznam už své pořadí zveřejnil
+        for (Backlog backlog : loads) {
+            if (backlog.key.equals(key)) {
+                backlog.offer(entry, created);
+            }
+        }
+        // Rankings nobody has read yet load fresh on first use // Pořadí, která ještě nikdo nečetl, se načtou při prvním použití
+        Ranking ranking = rankings.get(key);
+        if (ranking != null) {
+            ranking.upsert(entry, created, capacity);
+        }
+    }
+
+    private Ranking ranking(Key key) {
+        Ranking ranking = rankings.get(key);
+        // Loaded outside the map so a slow query never blocks other keys // Načteno mimo mapu, aby pomalý dotaz neblokoval jiné klíče
+        return ranking != null ? ranking : reload(key, false);
+    }
+
+    /**
+     * Loads a ranking and publishes it with the events that committed during the load. // Načte pořadí a zveřejní
+     * ho spolu s událostmi potvrzenými během načítání.
+     *
+     * @param replace Whether to replace a published ranking, as the rebuild does // Zda nahradit zveřejněné pořadí,
+     * jako to dělá přestavba
+     */
+    private Ranking reload(Key key, boolean replace) {
+        Backlog backlog = new Backlog(key);
+        loads.add(backlog);
+        try {
+            Ranking loaded = load(key);
+            synchronized (backlog) {
+                for (Update update : backlog.updates) {
+                    // A post the load already counted is not counted again // Příspěvek, který načtení už započítalo,
+                    // se nezapočítá znovu
+                    boolean created = update.created() && !loaded.byId.containsKey(update.entry().id());
+                    loaded.upsert(update.entry(), created, capacity);
+                }
+                backlog.closed = true;
+                if (replace) {
+                    rankings.put(key, loaded);
+                    return loaded;
+                }
+                Ranking published = rankings.putIfAbsent(key, loaded);
+                return published != null ? published : loaded;
+            }
+        } finally {
+            loads.remove(backlog);
+        }
+    }
+
+    private Ranking load(Key key) {
+        Pageable top = PageRequest.of(0, capacity, key.sort().toSort());
+        List<PostRankRow> rows = key.scope() == GLOBAL
+                ? postRepository.findRankRows(top)
+                : postRepository.findRankRowsByCommunityId(key.scope(), top);
+        boolean complete = rows.size() < capacity;
+        long total;
+        if (complete) {
+            total = rows.size();
+        } else {
+            total = key.scope() == GLOBAL ? postRepository.count() : postRepository.countByCommunityId(key.scope());
+        }
+        Ranking ranking = new Ranking(total, complete);
+        for (PostRankRow row : rows) {
+            Entry entry = new Entry(key.sort().rank(key.sort().keyOf(row)), row.getId());
+            ranking.entries.add(entry);
+            ranking.byId.put(entry.id(), entry);
+        }
+        return ranking;
+    }
+
+    private static long scope(Long communityId) {
+        return communityId == null ? GLOBAL : communityId;
+    }
+
+    private static double rankOf(FeedSort sort, int score, double hotScore, double controversy,
+                                 LocalDateTime createdAt) {
+        return sort.rank(switch (sort) {
+            case HOT -> hotScore;
+            case NEW -> createdAt;
+            case TOP -> score;
+            case CONTROVERSIAL -> controversy;
+        });
+    }
+
+    /**
+     * Ids of one indexed feed page and the total number of posts in the feed. // Id jedné stránky z indexu
+     * a celkový počet příspěvků ve feedu.
+     */
+    public record IndexedPage(List<Long> ids, long total) {
+    }
+
+    /**
+     * Post id with the rank it holds in a feed, as returned by {@link #after}. // Id příspěvku s jeho hodnotou
+     * pořadí ve feedu, jak je vrací {@link #after}.
+     */
+    public record Ranked(long id, double rank) {
+    }
+
+    private record Key(long scope, FeedSort sort) {
+    }
+
+    private record Update(Entry entry, boolean created) {
+    }
+
+    /**
+     * Events for one key received while its ranking loads. // Události pro jeden klíč přijaté během načítání jeho pořadí.
+     */
+    private static final class Backlog {
+
+        private final Key key;
+        private final List<Update> updates = new ArrayList<>();
+        private boolean closed;
+
+        private Backlog(Key key) {
+            this.key = key;
+        }
+
+        private synchronized void offer(Entry entry, boolean created) {
+            if (!closed) {
+                updates.add(new Update(entry, created));
+            }
+        }
+    }
+
+    private record Entry(double rank, long id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            // Same order as the database: rank descending, then id descending // Stejné pořadí jako v databázi
+            int byRank = Double.compare(other.rank, rank);
+            return byRank != 0 ? byRank : Long.compare(other.id, id);
+        }
+    }
+
+    /**
+     * Sorted top of one feed; reads are lock-free, writes are serialized per ranking. // Seřazený vrchol jednoho feedu;
+     * čtení je bez zámků, zápisy jsou serializovány pro každé pořadí.
+     */
+    private static final class Ranking {
+
+        private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+        private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+        private final AtomicLong total;
+
+        /**
+         * Whether the ranking holds every post of its feed, so pages past the depth can be served too. // Zda pořadí
+         * obsahuje všechny příspěvky feedu, takže lze obsloužit i stránky za hloubkou.
+         */
+        private volatile boolean complete;
+
+        private Ranking(long total, boolean complete) {
+            this.total = new AtomicLong(total);
+            this.complete = complete;
+        }
+
+        private Optional<IndexedPage> slice(long offset, int size, int depth) {
+            boolean full = complete;
+            if (!full && (offset + size > depth || offset + size > entries.size())) {
+                return Optional.empty();
+            }
+            List<Long> ids = new ArrayList<>(size);
+            // An update inserts before it removes, so a reader may briefly see a post twice // Aktualizace vkládá před
+            // odebráním, čtenář tak může krátce vidět příspěvek dvakrát
+            Set<Long> seen = new HashSet<>();
+            long skipped = 0;
+            for (Entry entry : entries) {
+                if (!seen.add(entry.id())) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                ids.add(entry.id());
+                if (ids.size() == size) {
+                    break;
+                }
+            }
+            return Optional.of(new IndexedPage(ids, full ? byId.size() : total.get()));
+        }
+
+        private Optional<List<Ranked>> after(Entry from, int limit, int depth) {
+            boolean full = complete;
+            if (!full) {
+                long before = from == null ? 0 : entries.headSet(from, true).size();
+                if (before + limit > Math.min(depth, entries.size())) {
+                    return Optional.empty();
+                }
+            }
+            NavigableSet<Entry> tail = from == null ? entries : entries.tailSet(from, false);
+            List<Ranked> ranked = new ArrayList<>(limit);
+            Set<Long> seen = new HashSet<>();
+            for (Entry entry : tail) {
+                if (seen.add(entry.id())) {
+                    ranked.add(new Ranked(entry.id(), entry.rank()));
+                    if (ranked.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return Optional.of(ranked);
+        }
+
+        private synchronized void upsert(Entry entry, boolean created, int capacity) {
+            if (created) {
+                total.incrementAndGet();
+            }
+            Entry previous = byId.get(entry.id());
+            if (!complete && !entries.isEmpty() && entry.compareTo(entries.last()) > 0) {
+                // Below the tail of a partial ranking its true position is unknown // Pod koncem neúplného pořadí
+                // je skutečná pozice neznámá
+                if (previous != null) {
+                    byId.remove(entry.id());
+                    entries.remove(previous);
+                }
+                return;
+            }
+            entries.add(entry);
+            byId.put(entry.id(), entry);
+            if (previous != null && !previous.equals(entry)) {
+                entries.remove(previous);
+            }
+            while (entries.size() > capacity) {
+                Entry tail = entries.pollLast();
+                byId.remove(tail.id());
+                complete = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package discussionforum.service;
+
+import discussionforum.event.CommentCreatedEvent;
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Background job that materializes the first pages of the feeds people are reading. // Úloha na pozadí, která
+ * předem sestaví první stránky právě čtených feedů.
+ * Every refresh loads the leading posts of each recently requested feed once and publishes them as an immutable
+ * snapshot; requests slice pages out of it without locks or database access. A snapshot older than the staleness
+ * bound is ignored, so the bound is the longest a busy feed can lag behind new posts and votes. The same events that
+ * evict cached fragments drop the snapshots they affect, so those feeds are read afresh until the next refresh. // Každé
+ * obnovení jednou načte úvodní příspěvky každého nedávno požadovaného feedu a zveřejní je jako neměnný snímek;
+ * požadavky z něj vyřezávají stránky bez zámků a bez přístupu k databázi. Snímek starší než mez zastarání se
+ * ignoruje, takže mez určuje nejdelší zpoždění vytíženého feedu za novými příspěvky a hlasy. Tytéž události, které
+ * zahazují uložené fragmenty, zahodí i dotčené snímky, takže se tyto feedy do dalšího obnovení čtou znovu.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class FeedSnapshotter {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedSnapshotter.class);
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private final PostService postService;
+    private final ConcurrentMap<Key, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Feeds requested since the previous refresh, with the time of the last request. // Feedy požadované od
+     * předchozího obnovení s časem posledního požadavku.
+     */
+    private final ConcurrentMap<Key, Long> requested = new ConcurrentHashMap<>();
+
+    @Value("${forum.feed.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forum.feed.snapshot.pages:5}")
+    private int pages;
+
+    @Value("${forum.feed.snapshot.max-staleness-ms:5000}")
+    private long maxStalenessMs;
+
+    @Value("${forum.feed.snapshot.idle-ms:300000}")
+    private long idleMs;
+
+    @Value("${forum.feed.snapshot.max-feeds:200}")
+    private int maxFeeds;
+
+    public FeedSnapshotter(PostService postService) {
+        this.postService = postService;
+    }
+
+    /**
+     * Page of a feed from its latest snapshot. // Stránka feedu z jeho posledního snímku.
+     * Only the first pages at the default size are covered; every call also marks the feed as read, so the next
+     * refresh snapshots it. // Pokryty jsou jen první stránky ve výchozí velikosti; každé volání také označí feed
+     * jako čtený, takže ho další obnovení zachytí.
+     *
+     * @param communityName Community name, or {@code null} for the global feed // Název komunity, nebo {@code null} pro globální feed
+     * @param sort Sort key as requested // Klíč řazení tak, jak byl požadován
+     * @param page Page number, or {@code null} for the first page // Číslo stránky, nebo {@code null} pro první stránku
+     * @param size Page size, or {@code null} for the default // Velikost stránky, nebo {@code null} pro výchozí
+     * @return Page of posts, or empty when the caller must read the feed itself // Stránka příspěvků, nebo prázdné,
+     * pokud musí volající načíst feed sám
+     */
+    public Optional<Page<PostSummary>> page(String communityName, String sort, Integer page, Integer size) {
+        int p = page == null ? 0 : page;
+        if (!enabled || p < 0 || p >= pages || (size != null && size != DEFAULT_SIZE)) {
+            return Optional.empty();
+        }
+        // Case variants and unknown values read the feed they select, never one of their own // Varianty velikosti
+        // písmen a neznámé hodnoty čtou feed, který zvolí, nikdy vlastní
+        Key key = new Key(communityName, FeedSort.canonical(sort));
+        long now = System.currentTimeMillis();
+        if (requested.size() < maxFeeds || requested.containsKey(key)) {
+            requested.put(key, now);
+        }
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null || now - snapshot.takenAt() > maxStalenessMs) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot.page(p));
+    }
+
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        // Community snapshots are keyed by name, so all of them go; the next refresh retakes them // Snímky komunit
+        // mají klíčem název, proto se zahodí všechny; další obnovení je pořídí znovu
+        snapshots.clear();
+    }
+
+    @TransactionalEventListener
+    public void onPostVoted(PostVotedEvent event) {
+        dropShowing(event.postId());
+    }
+
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        dropShowing(event.postId());
+    }
+
+    /**
+     * Rebuilds the snapshot of every feed read within the idle window and forgets the rest. // Znovu sestaví
+     * snímek každého feedu čteného v okně nečinnosti a ostatní zapomene.
+     */
+    @Scheduled(initialDelayString = "${forum.feed.snapshot.refresh-interval-ms:2000}",
+               fixedDelayString = "${forum.feed.snapshot.refresh-interval-ms:2000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long idleSince = System.currentTimeMillis() - idleMs;
+        requested.values().removeIf(lastRead -> lastRead < idleSince);
+        snapshots.keySet().retainAll(requested.keySet());
+        for (Key key : requested.keySet()) {
+            try {
+                snapshots.put(key, take(key));
+            } catch (RuntimeException e) {
+                // A deleted community or a failing query must not stop the other feeds // Smazaná komunita
+                // nebo chybný dotaz nesmí zastavit ostatní feedy
+                log.warn("Feed snapshot of {} failed: {}", key, e.getMessage());
+                requested.remove(key);
+                snapshots.remove(key);
+            }
+        }
+        log.debug("Refreshed {} feed snapshots", snapshots.size());
+    }
+
+    // A refresh already reading may put back a snapshot taken just before the event; it still expires within the
+    // staleness bound // Probíhající obnovení může vrátit snímek pořízený těsně před událostí; i ten vyprší v mezi
+    // zastarání
+    private void dropShowing(Long postId) {
+        snapshots.values().removeIf(snapshot -> snapshot.ids().contains(postId));
+    }
+
+    private Snapshot take(Key key) {
+        // Age counts from before the read, so the bound also covers the time the query took // Stáří se počítá
+        // od začátku čtení, takže mez pokrývá i dobu dotazu
+        long takenAt = System.currentTimeMillis();
+        int size = pages * DEFAULT_SIZE;
+        Page<PostSummary> leading = key.communityName() == null
+                ? postService.feed(0, size, key.sort())
+                : postService.byCommunity(key.communityName(), 0, size, key.sort());
+        List<PostSummary> posts = List.copyOf(leading.getContent());
+        Set<Long> ids = Set.copyOf(posts.stream().map(PostSummary::getId).toList());
+        return new Snapshot(posts, ids, leading.getTotalElements(), takenAt);
+    }
+
+    private record Key(String communityName, String sort) {
+    }
+
+    /**
+     * Immutable leading posts of one feed; replaced as a whole, never modified. // Neměnné úvodní příspěvky
+     * jednoho feedu; nahrazují se celé, nikdy se nemění.
+     */
+    private record Snapshot(List<PostSummary> posts, Set<Long> ids, long total, long takenAt) {
+
+        private Page<PostSummary> page(int page) {
+            int from = Math.min(page * DEFAULT_SIZE, posts.size());
+            int to = Math.min(from + DEFAULT_SIZE, posts.size());
+            return new PageImpl<>(posts.subList(from, to), PageRequest.of(page, DEFAULT_SIZE),
+                    Math.max(total, posts.size()));
+        }
+    }
+}
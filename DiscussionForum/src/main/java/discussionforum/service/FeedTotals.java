@@ -0,0 +1,112 @@
+package discussionforum.service;
+
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Approximate post totals of the feeds, so offset pages need no {@code COUNT(*)} per request. // Přibližné počty
+ * příspěvků ve feedech, aby stránky s posunem nepotřebovaly {@code COUNT(*)} pro každý požadavek.
+ * A total is counted once per feed, incremented by new posts after commit and recounted when its TTL runs out.
+ * Whether a next page exists always comes from the page query itself, so only the number of page links can be
+ * off. // Počet se spočítá jednou pro každý feed, po potvrzení se zvyšuje novými příspěvky a po vypršení TTL se
+ * přepočítá. Zda existuje další stránka, vždy určuje samotný dotaz stránky, takže se může lišit jen počet odkazů
+ * na stránky.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class FeedTotals {
+
+    /**
+     * Scope id of the global feed; community ids start at 1. // Id rozsahu globálního feedu; id komunit začínají od 1.
+     */
+    private static final long GLOBAL = 0L;
+
+    private final PostRepository postRepository;
+    private final ConcurrentMap<Long, Total> totals = new ConcurrentHashMap<>();
+
+    @Value("${forum.feed.totals.exact:false}")
+    private boolean exact;
+
+    @Value("${forum.feed.totals.ttl-ms:60000}")
+    private long ttlMs;
+
+    public FeedTotals(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * Whether feed pages must count their posts exactly, as before approximate totals. // Zda musí stránky feedu
+     * počítat příspěvky přesně, jako před zavedením přibližných počtů.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Approximate number of posts in a feed. // Přibližný počet příspěvků ve feedu.
+     *
+     * @param communityId Community id, or {@code null} for the global feed // Id komunity, nebo {@code null} pro globální feed
+     * @return Post count, at most the TTL old // Počet příspěvků starý nejvýše TTL
+     */
+    public long count(Long communityId) {
+        long scope = scope(communityId);
+        long now = System.currentTimeMillis();
+        Total total = totals.get(scope);
+        if (total == null || total.expiresAt() < now) {
+            // Concurrent misses may both count; the last one wins // Souběžná chybění mohou počítat obě; platí poslední
+            long counted = scope == GLOBAL ? postRepository.count() : postRepository.countByCommunityId(scope);
+            total = new Total(counted, now + ttlMs);
+            totals.put(scope, total);
+        }
+        return total.value();
+    }
+
+    /**
+     * Turns a slice of a feed into a page with an approximate total. // Převede výřez feedu na stránku
+     * s přibližným počtem.
+     * The total is clamped to what the slice proves, so the page reports a next page exactly when the slice has
+     * one. // Počet se omezí na to, co výřez dokazuje, takže stránka hlásí další stránku právě tehdy, když ji má výřez.
+     *
+     * @param communityId Community id, or {@code null} for the global feed // Id komunity, nebo {@code null} pro globální feed
+     * @param pageable Requested page // Požadovaná stránka
+     * @param slice Slice read without a count query // Výřez načtený bez dotazu na počet
+     * @return Page over the slice content // Stránka nad obsahem výřezu
+     */
+    public <T> Page<T> page(Long communityId, Pageable pageable, Slice<T> slice) {
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        long total = slice.hasNext() ? Math.max(count(communityId), seen + 1) : seen;
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        totals.computeIfPresent(GLOBAL, (scope, total) -> total.plus(1));
+        if (event.communityId() != null) {
+            totals.computeIfPresent(event.communityId(), (scope, total) -> total.plus(1));
+        }
+    }
+
+    private static long scope(Long communityId) {
+        return communityId == null ? GLOBAL : communityId;
+    }
+
+    private record Total(long value, long expiresAt) {
+
+        private Total plus(long delta) {
+            return new Total(value + delta, expiresAt);
+        }
+    }
+}
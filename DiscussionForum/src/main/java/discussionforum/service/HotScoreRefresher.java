@@ -0,0 +1,63 @@
+package discussionforum.service;
+
+import discussionforum.model.PostRankRow;
+import discussionforum.ranking.HotScore;
+import discussionforum.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background job that re-ranks recent posts by recomputing their persisted hot score. // Úloha na pozadí, která
+ * znovu seřadí nedávné příspěvky přepočtem jejich uloženého hot skóre.
+ * Votes keep the column up to date incrementally; this job backfills rows created before the column existed and
+ * repairs any drift. // Hlasy udržují sloupec průběžně; tato úloha doplní řádky vytvořené před zavedením sloupce
+ * a opraví případné odchylky.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class HotScoreRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(HotScoreRefresher.class);
+
+    private final PostRepository postRepository;
+
+    @Value("${forum.ranking.hot.refresh-window-days:7}")
+    private int refreshWindowDays;
+
+    @Value("${forum.ranking.hot.refresh-batch-size:500}")
+    private int batchSize;
+
+    public HotScoreRefresher(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @Scheduled(initialDelayString = "${forum.ranking.hot.refresh-initial-delay-ms:30000}",
+               fixedDelayString = "${forum.ranking.hot.refresh-interval-ms:300000}")
+    public void refresh() {
+        LocalDateTime since = LocalDateTime.now().minusDays(refreshWindowDays);
+        long afterId = 0L;
+        int updated = 0;
+        List<PostRankRow> batch;
+        do {
+            batch = postRepository.findHotScoreRefreshCandidates(afterId, since, Limit.of(batchSize));
+            for (PostRankRow row : batch) {
+                double hotScore = HotScore.of(row.getScore(), row.getCreatedAt());
+                if (Double.compare(hotScore, row.getHotScore()) != 0) {
+                    updated += postRepository.updateHotScore(row.getId(), row.getScore(), hotScore);
+                }
+                afterId = row.getId();
+            }
+        } while (batch.size() == batchSize);
+        log.debug("Hot score refresh updated {} posts", updated);
+    }
+}
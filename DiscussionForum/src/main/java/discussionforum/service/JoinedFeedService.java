@@ -0,0 +1,167 @@
+package discussionforum.service;
+
+import discussionforum.model.CursorPage;
+import discussionforum.model.FeedCursor;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostSummary;
+import discussionforum.repository.CommunityMembershipRepository;
+import discussionforum.repository.PostRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Personal home feed merged from the communities a user has joined. // Osobní domovský feed sloučený z komunit,
+ * ke kterým se uživatel připojil.
+ * Every community is read as its own sorted stream, served by the feed index or a keyset query, and the streams are
+ * merged with a heap holding one head per community. A page therefore reads at most {@code size + 1} rows per
+ * community no matter how deep it is, instead of an {@code IN (...)} query that sorts and skips the union. // Každá
+ * komunita se čte jako samostatný seřazený proud z indexu feedu nebo dotazu podle klíče a proudy se slučují haldou,
+ * která drží jednu hlavu za komunitu. Stránka tak přečte nejvýše {@code size + 1} řádků na komunitu bez ohledu na
+ * hloubku, místo dotazu {@code IN (...)}, který sjednocení řadí a přeskakuje.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+@Transactional(readOnly = true)
+public class JoinedFeedService {
+
+    /**
+     * Merge order, identical to every single feed: rank descending, then id descending. // Pořadí slučování, shodné
+     * s každým jednotlivým feedem: hodnota pořadí sestupně, poté id sestupně.
+     */
+    private static final Comparator<Stream> BY_HEAD = Comparator
+            .comparingDouble((Stream s) -> s.head().rank()).reversed()
+            .thenComparing(Comparator.comparingLong((Stream s) -> s.head().id()).reversed());
+
+    private final CommunityMembershipRepository membershipRepository;
+    private final PostRepository postRepository;
+    private final FeedIndex feedIndex;
+
+    public JoinedFeedService(CommunityMembershipRepository membershipRepository,
+                             PostRepository postRepository,
+                             FeedIndex feedIndex) {
+        this.membershipRepository = membershipRepository;
+        this.postRepository = postRepository;
+        this.feedIndex = feedIndex;
+    }
+
+    /**
+     * One keyset page of posts from the user's joined communities. // Jedna stránka příspěvků z komunit uživatele
+     * stránkovaná pomocí klíče.
+     * Windowed top and rising have no per-community stream and are merged by their base sort. // Top s oknem
+     * a rising nemají proud pro jednotlivé komunity a slučují se podle základního řazení.
+     *
+     * @param username Username of the member // Uživatelské jméno člena
+     * @param cursor Encoded cursor of the last post shown, or {@code null} for the first page // Zakódovaný kurzor
+     * posledního zobrazeného příspěvku, nebo {@code null} pro první stránku
+     * @param size Page size // Velikost stránky
+     * @param sort Sort key // Klíč řazení
+     * @return Page of posts with the cursor of the next page // Stránka příspěvků s kurzorem další stránky
+     */
+    public CursorPage<PostSummary> page(String username, String cursor, Integer size, String sort) {
+        int s = size == null || size < 1 ? 10 : size;
+        FeedSort feedSort = FeedSort.from(sort);
+        FeedCursor after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor, feedSort);
+
+        List<Long> communityIds = membershipRepository.findCommunityIdsByUsername(username);
+        PriorityQueue<Stream> heap = new PriorityQueue<>(Math.max(1, communityIds.size()), BY_HEAD);
+        for (Long communityId : communityIds) {
+            Stream stream = new Stream(communityId, feedSort, after, s + 1);
+            if (stream.advance()) {
+                heap.add(stream);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(s);
+        while (ids.size() < s && !heap.isEmpty()) {
+            Stream top = heap.poll();
+            ids.add(top.head().id());
+            if (top.advance()) {
+                heap.add(top);
+            }
+        }
+
+        List<PostSummary> posts = hydrate(ids);
+        String next = heap.isEmpty() || posts.isEmpty()
+                ? null
+                : FeedCursor.after(posts.get(posts.size() - 1), feedSort).encode();
+        return new CursorPage<>(posts, next);
+    }
+
+    private List<PostSummary> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostSummary> byId = postRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Lazily fetched sorted posts of one community, read in chunks. // Líně načítané seřazené příspěvky jedné
+     * komunity, čtené po dávkách.
+     */
+    private final class Stream {
+
+        private final Long communityId;
+        private final FeedSort sort;
+        private final int chunk;
+        private final Deque<FeedIndex.Ranked> buffer = new ArrayDeque<>();
+        private FeedCursor position;
+        private boolean exhausted;
+        private FeedIndex.Ranked head;
+
+        private Stream(Long communityId, FeedSort sort, FeedCursor after, int chunk) {
+            this.communityId = communityId;
+            this.sort = sort;
+            this.position = after;
+            this.chunk = chunk;
+        }
+
+        private FeedIndex.Ranked head() {
+            return head;
+        }
+
+        /**
+         * Moves to the next post. // Posune se na další příspěvek.
+         *
+         * @return {@code false} once the community has no more posts // {@code false}, jakmile komunita nemá další příspěvky
+         */
+        private boolean advance() {
+            if (buffer.isEmpty() && !exhausted) {
+                fetch();
+            }
+            head = buffer.poll();
+            return head != null;
+        }
+
+        private void fetch() {
+            List<FeedIndex.Ranked> ranked = feedIndex.after(communityId, sort, position, chunk)
+                    .orElseGet(() -> postRepository.findRankPage(communityId, sort, position, chunk).stream()
+                            .map(row -> new FeedIndex.Ranked(row.getId(), sort.rank(sort.keyOf(row))))
+                            .toList());
+            buffer.addAll(ranked);
+            exhausted = ranked.size() < chunk;
+            if (!ranked.isEmpty()) {
+                FeedIndex.Ranked last = ranked.get(ranked.size() - 1);
+                position = new FeedCursor(sort, sort.keyOfRank(last.rank()), last.id());
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package discussionforum.service;
+
+import discussionforum.model.PostStats;
+import discussionforum.repository.PostStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts post views in memory and writes them behind to {@code post_stats}. // Počítá zobrazení příspěvků v paměti
+ * a zapisuje je se zpožděním do {@code post_stats}.
+ * A view is one striped increment, so concurrent readers of a hot post never contend on a lock or a row. A single
+ * scheduled writer adds the accumulated deltas in batched statements; a crash loses at most one flush interval of
+ * views, and shutdown drains the buffer. // Zobrazení je jedno rozložené zvýšení, takže souběžní čtenáři populárního
+ * příspěvku nesoupeří o zámek ani o řádek. Jediný plánovaný zapisovač přičte nashromážděné změny dávkovými příkazy;
+ * pád ztratí nejvýše jeden interval zobrazení a ukončení vyprázdní zásobník.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+public class PostViewCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(PostViewCounter.class);
+
+    private final PostStatsRepository postStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public PostViewCounter(PostStatsRepository postStatsRepository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.postStatsRepository = postStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records one view of a post. // Zaznamená jedno zobrazení příspěvku.
+     *
+     * @param postId Post id // Id příspěvku
+     */
+    public void record(Long postId) {
+        while (true) {
+            LongAdder adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+            adder.increment();
+            // Flush drops an adder only while it is zero, so a detached adder means this view came too late for it
+            // and is counted again on the replacement // Běh zahodí sčítač jen s nulou, takže odpojený sčítač znamená,
+            // že toto zobrazení přišlo pozdě, a započte se znovu do náhradního
+            if (pending.get(postId) == adder) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Views of a post: the stored count plus the views not yet written. // Zobrazení příspěvku: uložený počet plus
+     * dosud nezapsaná zobrazení.
+     *
+     * @param postId Post id // Id příspěvku
+     * @return View count // Počet zobrazení
+     */
+    public long views(Long postId) {
+        long stored = postStatsRepository.findById(postId).map(PostStats::getViewCount).orElse(0L);
+        LongAdder buffered = pending.get(postId);
+        return stored + (buffered == null ? 0 : buffered.sum());
+    }
+
+    /**
+     * Writes the buffered views; synchronized so the scheduler and shutdown never write the same delta twice. //
+     * Zapíše nashromážděná zobrazení; synchronizováno, aby plánovač a ukončení nezapsaly stejnou změnu dvakrát.
+     */
+    @Scheduled(fixedDelayString = "${forum.posts.views.flush-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            // Adders stay in place, so a view arriving meanwhile lands in the next flush // Sčítače zůstávají
+            // na místě, takže zobrazení přicházející mezitím připadne dalšímu běhu
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                rows.add(new Object[]{delta, entry.getKey()});
+            } else {
+                // Idle since the last flush, stop tracking; re-checked under the map's lock so a view arriving
+                // meanwhile keeps it // Od posledního běhu nečinný, přestat sledovat; ověřeno znovu pod zámkem mapy,
+                // aby ho mezitím přišlé zobrazení zachovalo
+                pending.computeIfPresent(entry.getKey(), (id, adder) -> adder.sum() == 0 ? null : adder);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            // One transaction, so a failed insert never leaves the updates applied // Jedna transakce, aby selhaný
+            // insert nenechal provedené updaty
+            transactionTemplate.executeWithoutResult(status -> upsert(rows));
+        } catch (RuntimeException e) {
+            // Put the views back, the next flush retries them // Vrátit zobrazení zpět, další běh je zkusí znovu
+            log.warn("Post view flush failed, retrying later: {}", e.getMessage());
+            for (Object[] row : rows) {
+                pending.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+        }
+    }
+
+    private void upsert(List<Object[]> rows) {
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE post_stats SET view_count = view_count + ? WHERE post_id = ?", rows);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            // Selecting from posts skips views of a post deleted since, instead of failing the batch // Výběr
+            // z posts přeskočí zobrazení mezitím smazaného příspěvku, místo aby dávka selhala
+            jdbcTemplate.batchUpdate("INSERT INTO post_stats (post_id, view_count) "
+                    + "SELECT id, ? FROM posts WHERE id = ?", inserts);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package discussionforum.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token buckets limiting how fast one user or address may vote and comment. // Paměťové kbelíky tokenů
+ * omezující, jak rychle smí jeden uživatel nebo adresa hlasovat a komentovat.
+ * Each bucket is a single {@link AtomicLong} holding the time at which it refills completely (the generic cell rate
+ * algorithm), so taking tokens is one compare-and-set without locks and a rejected request costs no query. // Každý
+ * kbelík je jediný {@link AtomicLong} s časem, kdy se zcela doplní (algoritmus GCRA), takže odebrání tokenů je jedno
+ * porovnání a nastavení bez zámků a odmítnutý požadavek nestojí žádný dotaz.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class RateLimiter {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Actions with their own budget. // Akce s vlastním rozpočtem.
+     */
+    public enum Action {
+        VOTE, COMMENT
+    }
+
+    private final Map<Action, Map<String, AtomicLong>> buckets = new EnumMap<>(Action.class);
+    private LongSupplier clock = System::nanoTime;
+
+    @Value("${forum.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forum.rate-limit.votes.per-minute:60}")
+    private int votesPerMinute;
+
+    @Value("${forum.rate-limit.votes.burst:50}")
+    private int votesBurst;
+
+    @Value("${forum.rate-limit.comments.per-minute:6}")
+    private int commentsPerMinute;
+
+    @Value("${forum.rate-limit.comments.burst:5}")
+    private int commentsBurst;
+
+    public RateLimiter() {
+        for (Action action : Action.values()) {
+            buckets.put(action, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Takes tokens from the caller's bucket. // Odebere tokeny z kbelíku volajícího.
+     *
+     * @param action Budget to charge // Rozpočet, ze kterého se odebírá
+     * @param key User or address the bucket belongs to // Uživatel nebo adresa, které kbelík patří
+     * @param tokens Number of tokens, e.g. the votes in one batch // Počet tokenů, např. hlasů v jedné dávce
+     * @return {@code true} if allowed; a refused request takes nothing // {@code true}, pokud je povoleno; odmítnutý
+     *         požadavek nic neodebere
+     */
+    public boolean tryAcquire(Action action, String key, int tokens) {
+        if (!enabled || tokens <= 0) {
+            return true;
+        }
+        long interval = interval(action);
+        long capacity = interval * burst(action);
+        long cost = interval * tokens;
+        Map<String, AtomicLong> perKey = buckets.get(action);
+        AtomicLong bucket = perKey.get(key);
+        if (bucket == null) {
+            bucket = perKey.computeIfAbsent(key, k -> new AtomicLong(clock.getAsLong()));
+        }
+        while (true) {
+            long now = clock.getAsLong();
+            long full = bucket.get();
+            // A bucket that refilled long ago counts as full, not as credit // Kbelík doplněný dávno platí za plný, ne za zásobu
+            long start = full - now < 0 ? now : full;
+            long next = start + cost;
+            if (next - now > capacity) {
+                return false;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Seconds until {@code tokens} more would be allowed, for a {@code Retry-After} header. // Počet sekund, než by
+     * bylo povoleno dalších {@code tokens}, pro hlavičku {@code Retry-After}.
+     */
+    public long retryAfterSeconds(Action action, String key, int tokens) {
+        AtomicLong bucket = buckets.get(action).get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long wait = bucket.get() + interval(action) * tokens - interval(action) * burst(action) - clock.getAsLong();
+        // Rounded up, so a client waiting that long is let through // Zaokrouhleno nahoru, aby klient čekající tak dlouho prošel
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Drops buckets that have refilled, so one-off addresses do not accumulate. // Zahodí kbelíky, které se doplnily,
+     * aby se nehromadily jednorázové adresy.
+     * A request racing with the removal may start from a full bucket once. // Požadavek souběžný s odebráním může
+     * jednou začít s plným kbelíkem.
+     */
+    @Scheduled(fixedDelayString = "${forum.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (Map<String, AtomicLong> perKey : buckets.values()) {
+            perKey.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    int size(Action action) {
+        return buckets.get(action).size();
+    }
+
+    private long interval(Action action) {
+        int perMinute = action == Action.VOTE ? votesPerMinute : commentsPerMinute;
+        return NANOS_PER_MINUTE / Math.max(1, perMinute);
+    }
+
+    /**
+     * Most tokens one request can ever take at once; larger requests are refused however long the caller waits. //
+     * Nejvyšší počet tokenů, které může jeden požadavek najednou odebrat; větší požadavky se odmítnou bez ohledu
+     * na to, jak dlouho volající čeká.
+     */
+    public int burst(Action action) {
+        return Math.max(1, action == Action.VOTE ? votesBurst : commentsBurst);
+    }
+}
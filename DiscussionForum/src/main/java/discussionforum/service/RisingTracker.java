@@ -0,0 +1,184 @@
+package discussionforum.service;
+
+import discussionforum.event.PostVotedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks the upvote velocity of recent posts and publishes the "rising" ranking. // Sleduje rychlost přibývání
+ * hlasů u nedávných příspěvků a zveřejňuje pořadí "rising".
+ * Every post gets a ring of time slots covering the last {@code window-minutes}; each slot is split into stripes so
+ * concurrent voters on a hot post rarely touch the same cell, and all updates are plain atomic adds. A scheduled
+ * task sums the rings into an immutable snapshot that reads page through without computing anything. // Každý
+ * příspěvek má kruh časových slotů pokrývající posledních {@code window-minutes}; každý slot je rozdělen na pruhy,
+ * aby souběžní hlasující zřídka sahali na stejnou buňku, a všechny změny jsou prostá atomická přičtení. Plánovaná
+ * úloha sečte kruhy do neměnného snímku, přes který čtení jen stránkuje.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class RisingTracker {
+
+    /**
+     * Snapshot scope of the global feed; community ids start at 1. // Rozsah snímku globálního feedu; id komunit začínají od 1.
+     */
+    private static final long GLOBAL = 0L;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private volatile Map<Long, List<Long>> snapshot = Map.of();
+
+    @Value("${forum.ranking.rising.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${forum.ranking.rising.slot-seconds:60}")
+    private int slotSeconds;
+
+    @Value("${forum.ranking.rising.stripes:8}")
+    private int stripes;
+
+    @Value("${forum.ranking.rising.max-age-hours:24}")
+    private int maxAgeHours;
+
+    @Value("${forum.ranking.rising.size:500}")
+    private int size;
+
+    /**
+     * One page of the last published ranking. // Jedna stránka naposledy zveřejněného pořadí.
+     *
+     * @param communityId Community id, or {@code null} for all communities // Id komunity, nebo {@code null} pro všechny komunity
+     * @param pageable Unsorted page request // Neřazený požadavek na stránku
+     * @return Page of post ids, fastest rising first // Stránka id příspěvků, nejrychleji stoupající první
+     */
+    public Page<Long> page(Long communityId, Pageable pageable) {
+        List<Long> ranked = snapshot.getOrDefault(communityId == null ? GLOBAL : communityId, List.of());
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, to), pageable, ranked.size());
+    }
+
+    @TransactionalEventListener
+    public void onPostVoted(PostVotedEvent event) {
+        record(event, System.currentTimeMillis());
+    }
+
+    /**
+     * Sums every counter and swaps in a fresh ranking. // Sečte všechny čítače a vymění pořadí za nové.
+     */
+    @Scheduled(fixedDelayString = "${forum.ranking.rising.snapshot-interval-ms:30000}")
+    public void publish() {
+        publish(System.currentTimeMillis());
+    }
+
+    void record(PostVotedEvent event, long nowMillis) {
+        // Only upvotes count as momentum, and only while the post is young // Jako dynamika se počítají jen kladné hlasy a jen u mladých příspěvků
+        int delta = event.delta();
+        if (delta <= 0 || event.postId() == null || !isRecent(event.createdAt(), nowMillis)) {
+            return;
+        }
+        counters.computeIfAbsent(event.postId(), id -> new Counter(event.communityId(), event.createdAt()))
+                .add(slotOf(nowMillis), delta);
+    }
+
+    void publish(long nowMillis) {
+        long slot = slotOf(nowMillis);
+        Map<Long, List<Rate>> byScope = new HashMap<>();
+        counters.forEach((postId, counter) -> {
+            long votes = counter.sum(slot);
+            if (votes == 0 || !isRecent(counter.createdAt, nowMillis)) {
+                // Quiet or aged out, stop tracking // Utichlý nebo příliš starý, přestat sledovat
+                counters.remove(postId, counter);
+                return;
+            }
+            Rate rate = new Rate(postId, votes);
+            byScope.computeIfAbsent(GLOBAL, k -> new ArrayList<>()).add(rate);
+            if (counter.communityId != null) {
+                byScope.computeIfAbsent(counter.communityId, k -> new ArrayList<>()).add(rate);
+            }
+        });
+        Map<Long, List<Long>> next = new HashMap<>();
+        byScope.forEach((scope, rates) -> next.put(scope, rates.stream()
+                .sorted(Comparator.comparingLong(Rate::votes).reversed()
+                        .thenComparing(Comparator.comparingLong(Rate::postId).reversed()))
+                .limit(size)
+                .map(Rate::postId)
+                .toList()));
+        snapshot = Map.copyOf(next);
+    }
+
+    private long slotOf(long nowMillis) {
+        return nowMillis / (slotSeconds * 1000L);
+    }
+
+    private boolean isRecent(LocalDateTime createdAt, long nowMillis) {
+        if (createdAt == null) {
+            return true;
+        }
+        long createdMillis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return nowMillis - createdMillis <= maxAgeHours * 3_600_000L;
+    }
+
+    private record Rate(long postId, long votes) {
+    }
+
+    /**
+     * Ring of striped slot counters of one post. // Kruh pruhovaných čítačů slotů jednoho příspěvku.
+     * A slot is claimed for a new time period by a CAS on its epoch and then cleared; an add racing that clear may be
+     * lost, which the ranking tolerates. // Slot se pro nové období zabere pomocí CAS na jeho epoše a poté vynuluje;
+     * přičtení souběžné s nulováním se může ztratit, což pořadí toleruje.
+     */
+    private final class Counter {
+
+        private final Long communityId;
+        private final LocalDateTime createdAt;
+        private final int slots = Math.max(1, windowMinutes * 60 / slotSeconds);
+        private final AtomicLongArray epochs = new AtomicLongArray(slots);
+        private final AtomicLongArray cells = new AtomicLongArray(slots * stripes);
+
+        private Counter(Long communityId, LocalDateTime createdAt) {
+            this.communityId = communityId;
+            this.createdAt = createdAt;
+        }
+
+        private void add(long epoch, int delta) {
+            int slot = (int) (epoch % slots);
+            long seen = epochs.get(slot);
+            if (seen < epoch && epochs.compareAndSet(slot, seen, epoch)) {
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    cells.set(slot * stripes + stripe, 0L);
+                }
+            }
+            int stripe = (int) (Thread.currentThread().getId() % stripes);
+            cells.addAndGet(slot * stripes + stripe, delta);
+        }
+
+        private long sum(long epoch) {
+            long total = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                // Slots last written more than one window ago are stale // Sloty naposledy zapsané před více než oknem jsou zastaralé
+                if (epoch - epochs.get(slot) < slots) {
+                    for (int stripe = 0; stripe < stripes; stripe++) {
+                        total += cells.get(slot * stripes + stripe);
+                    }
+                }
+            }
+            return total;
+        }
+    }
+}
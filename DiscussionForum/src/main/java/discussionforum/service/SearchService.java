@@ -2,7 +2,7 @@ package discussionforum.service;
 
 import discussionforum.model.Comment;
 import discussionforum.model.Community;
-import discussionforum.model.Post;
+import discussionforum.model.PostSummary;
 import discussionforum.model.SearchResultDTO;
 import discussionforum.model.User;
 import discussionforum.repository.CommentRepository;
@@ -55,7 +55,7 @@ public class SearchService {
      * @param sortDir Sort direction (asc, desc) // Směr řazení
      * @return Page of matching posts // Stránka odpovídajících příspěvků
      */
-    public Page<Post> searchPosts(String query, int page, int size, String sortBy, String sortDir) {
+    public Page<PostSummary> searchPosts(String query, int page, int size, String sortBy, String sortDir) {
         if (!StringUtils.hasText(query)) {
             return Page.empty();
         }
@@ -75,7 +75,7 @@ public class SearchService {
      * @param size Page size // Velikost stránky
      * @return Page of matching posts in community // Stránka odpovídajících příspěvků v komunitě
      */
-    public Page<Post> searchPostsInCommunity(Community community, String query, int page, int size) {
+    public Page<PostSummary> searchPostsInCommunity(Community community, String query, int page, int size) {
         if (!StringUtils.hasText(query) || community == null) {
             return Page.empty();
         }
@@ -137,7 +137,7 @@ public class SearchService {
         
         switch (type.toLowerCase()) {
             case "posts":
-                Page<Post> postsPage = searchPosts(query, page, size, "createdAt", "desc");
+                Page<PostSummary> postsPage = searchPosts(query, page, size, "createdAt", "desc");
                 results.setPosts(postsPage.getContent().stream()
                     .map(SearchResultDTO.PostResult::new)
                     .collect(java.util.stream.Collectors.toList()));
@@ -156,7 +156,7 @@ public class SearchService {
                 break;
             case "all":
             default:
-                Page<Post> allPostsPage = searchPosts(query, 0, 5, "createdAt", "desc");
+                Page<PostSummary> allPostsPage = searchPosts(query, 0, 5, "createdAt", "desc");
                 results.setPosts(allPostsPage.getContent().stream()
                     .map(SearchResultDTO.PostResult::new)
                     .collect(java.util.stream.Collectors.toList()));
@@ -183,7 +183,7 @@ public class SearchService {
      * @param limit Maximum number of suggestions // Maximální počet návrhů
      * @return Page of post titles matching the query // Stránka názvů příspěvků odpovídajících dotazu
      */
-    public Page<Post> getSearchSuggestions(String query, int limit) {
+    public Page<PostSummary> getSearchSuggestions(String query, int limit) {
         if (!StringUtils.hasText(query) || query.length() < 2) {
             return Page.empty();
         }
@@ -0,0 +1,273 @@
+package discussionforum.service;
+
+import discussionforum.event.CommentCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.PostSummary;
+import discussionforum.repository.PostRepository;
+import discussionforum.sketch.CountMinSketch;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the posts with the most activity across all communities in the last hour. // Hledá příspěvky s největší
+ * aktivitou napříč všemi komunitami za poslední hodinu.
+ * Views, votes and comments are weighted and counted in a ring of count-min sketches, one per time slot, and the
+ * heaviest posts are kept in a bounded min-heap; memory is the same for ten posts or ten million. A scheduled task
+ * re-scores the heap and publishes the leaders, so pages read a ready list and never aggregate votes or comments.
+ * Recording activity of a post already in the heap, or of one too light to enter it, takes no lock; stored scores
+ * are lower bounds, refreshed when a post is about to be evicted and at every publish. // Zobrazení, hlasy a komentáře se váží a počítají v kruhu náčrtů count-min, jeden na časový slot, a nejtěžší
+ * příspěvky se drží v omezené min-haldě; paměť je stejná pro deset příspěvků i deset milionů. Plánovaná úloha haldu
+ * přepočítá a zveřejní vedoucí příspěvky, takže stránky čtou hotový seznam a nikdy neagregují hlasy ani komentáře.
+ * Zaznamenání aktivity příspěvku, který už v haldě je nebo je na vstup příliš lehký, nebere žádný zámek; uložená
+ * skóre jsou dolní meze, obnovované před vyřazením příspěvku a při každém zveřejnění.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class TrendingTracker {
+
+    private static final Comparator<Candidate> BY_ACTIVITY = Comparator.comparingLong(Candidate::activity)
+            .thenComparingLong(Candidate::postId);
+
+    private final PostRepository postRepository;
+
+    /**
+     * Heavy hitters by activity, lightest first; guarded by itself. // Nejtěžší příspěvky podle aktivity, nejlehčí
+     * první; chráněno sebou samým.
+     */
+    private final TreeSet<Candidate> heap = new TreeSet<>(BY_ACTIVITY);
+    private final Map<Long, Candidate> inHeap = new ConcurrentHashMap<>();
+
+    /**
+     * Stored activity a post must beat to enter the heap, or -1 while it has room; written under the heap lock. //
+     * Uložená aktivita, kterou musí příspěvek překonat, aby vstoupil do haldy, nebo -1, dokud je v ní místo;
+     * zapisuje se pod zámkem haldy.
+     */
+    private volatile long minActivity = -1;
+
+    private CountMinSketch[] sketches;
+    private AtomicLongArray epochs;
+    private volatile List<PostSummary> trending = List.of();
+
+    @Value("${forum.trending.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${forum.trending.slot-minutes:5}")
+    private int slotMinutes;
+
+    @Value("${forum.trending.sketch-depth:4}")
+    private int depth;
+
+    @Value("${forum.trending.sketch-width:2048}")
+    private int width;
+
+    @Value("${forum.trending.heap-size:100}")
+    private int heapSize;
+
+    @Value("${forum.trending.size:5}")
+    private int size;
+
+    @Value("${forum.trending.view-weight:1}")
+    private int viewWeight;
+
+    @Value("${forum.trending.vote-weight:5}")
+    private int voteWeight;
+
+    @Value("${forum.trending.comment-weight:10}")
+    private int commentWeight;
+
+    public TrendingTracker(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        int slots = Math.max(1, windowMinutes / slotMinutes);
+        sketches = new CountMinSketch[slots];
+        for (int i = 0; i < slots; i++) {
+            sketches[i] = new CountMinSketch(depth, width);
+        }
+        epochs = new AtomicLongArray(slots);
+    }
+
+    /**
+     * Posts trending at the last publish, most active first. // Příspěvky, které byly populární při posledním
+     * zveřejnění, nejaktivnější první.
+     */
+    public List<PostSummary> trending() {
+        return trending;
+    }
+
+    /**
+     * Records a view of a post. // Zaznamená zobrazení příspěvku.
+     *
+     * @param postId Post id // Id příspěvku
+     */
+    public void recordView(Long postId) {
+        record(postId, viewWeight, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener
+    public void onPostVoted(PostVotedEvent event) {
+        // Withdrawing a vote is activity too // Odebrání hlasu je také aktivita
+        record(event.postId(), voteWeight, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        record(event.postId(), commentWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * Re-scores the heap against the current window and publishes the leaders. // Přepočítá haldu podle aktuálního
+     * okna a zveřejní vedoucí příspěvky.
+     */
+    @Scheduled(fixedDelayString = "${forum.trending.publish-interval-ms:30000}")
+    public void publish() {
+        publish(System.currentTimeMillis());
+    }
+
+    void record(Long postId, int weight, long nowMillis) {
+        if (postId == null || weight <= 0) {
+            return;
+        }
+        long epoch = slotOf(nowMillis);
+        CountMinSketch sketch = sketches[claim(epoch)];
+        sketch.add(postId, weight);
+        // A post already in the heap is re-scored lazily, so a viral post's readers never serialize here // Příspěvek
+        // už v haldě se přepočítá líně, takže se čtenáři virálního příspěvku zde nikdy neřadí za sebe
+        if (inHeap.containsKey(postId)) {
+            return;
+        }
+        long activity = activity(postId, epoch);
+        if (activity > minActivity) {
+            offer(postId, activity, epoch);
+        }
+    }
+
+    void publish(long nowMillis) {
+        long epoch = slotOf(nowMillis);
+        List<Candidate> leaders = new ArrayList<>();
+        synchronized (heap) {
+            // Stored scores only grow between publishes; slots leaving the window lower them here // Uložená skóre
+            // mezi zveřejněními jen rostou; sloty opouštějící okno je snižují zde
+            List<Candidate> rescored = new ArrayList<>();
+            for (Candidate candidate : heap) {
+                long activity = activity(candidate.postId(), epoch);
+                if (activity > 0) {
+                    rescored.add(new Candidate(candidate.postId(), activity));
+                }
+            }
+            heap.clear();
+            inHeap.clear();
+            for (Candidate candidate : rescored) {
+                heap.add(candidate);
+                inHeap.put(candidate.postId(), candidate);
+            }
+            updateMinActivity();
+            for (Candidate candidate : heap.descendingSet()) {
+                if (leaders.size() == size) {
+                    break;
+                }
+                leaders.add(candidate);
+            }
+        }
+        if (leaders.isEmpty()) {
+            trending = List.of();
+            return;
+        }
+        Map<Long, PostSummary> byId = postRepository.findSummariesByIdIn(leaders.stream().map(Candidate::postId).toList())
+                .stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+        // Deleted posts simply drop out // Smazané příspěvky jednoduše vypadnou
+        trending = leaders.stream()
+                .map(candidate -> byId.get(candidate.postId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void offer(long postId, long activity, long epoch) {
+        synchronized (heap) {
+            try {
+                if (inHeap.containsKey(postId)) {
+                    return;
+                }
+                while (heap.size() >= heapSize) {
+                    Candidate lightest = heap.pollFirst();
+                    if (lightest.activity() >= activity) {
+                        heap.add(lightest);
+                        return;
+                    }
+                    // Its stored score may lag behind, so it is re-scored before being evicted // Jeho uložené skóre
+                    // může zaostávat, proto se před vyřazením přepočítá
+                    long current = activity(lightest.postId(), epoch);
+                    if (current > lightest.activity()) {
+                        Candidate rescored = new Candidate(lightest.postId(), current);
+                        heap.add(rescored);
+                        inHeap.put(rescored.postId(), rescored);
+                    } else {
+                        inHeap.remove(lightest.postId());
+                    }
+                }
+                Candidate candidate = new Candidate(postId, activity);
+                heap.add(candidate);
+                inHeap.put(postId, candidate);
+            } finally {
+                updateMinActivity();
+            }
+        }
+    }
+
+    private void updateMinActivity() {
+        minActivity = heap.size() < heapSize ? -1 : heap.first().activity();
+    }
+
+    /**
+     * Ring index of a time slot, cleared first if it still holds an older slot. // Index slotu v kruhu; pokud ještě
+     * drží starší slot, nejprve se vynuluje.
+     * As in {@link RisingTracker}, an add racing the clear may be lost, which the ranking tolerates. // Stejně jako
+     * v {@link RisingTracker} se přičtení souběžné s nulováním může ztratit, což pořadí toleruje.
+     */
+    private int claim(long epoch) {
+        int slot = (int) (epoch % sketches.length);
+        long seen = epochs.get(slot);
+        if (seen < epoch && epochs.compareAndSet(slot, seen, epoch)) {
+            sketches[slot].clear();
+        }
+        return slot;
+    }
+
+    private long activity(long postId, long epoch) {
+        long total = 0;
+        for (int slot = 0; slot < sketches.length; slot++) {
+            // Slots last written more than one window ago are stale // Sloty naposledy zapsané před více než oknem jsou zastaralé
+            if (epoch - epochs.get(slot) < sketches.length) {
+                total += sketches[slot].estimate(postId);
+            }
+        }
+        return total;
+    }
+
+    private long slotOf(long nowMillis) {
+        return nowMillis / (slotMinutes * 60_000L);
+    }
+
+    private record Candidate(long postId, long activity) {
+    }
+}
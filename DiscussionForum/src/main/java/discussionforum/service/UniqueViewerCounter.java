@@ -0,0 +1,192 @@
+package discussionforum.service;
+
+import discussionforum.model.PostStats;
+import discussionforum.repository.PostStatsRepository;
+import discussionforum.repository.PostViewerDailyRepository;
+import discussionforum.sketch.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates how many distinct people viewed each post, without a row per viewer. // Odhaduje, kolik různých lidí
+ * zobrazilo každý příspěvek, bez řádku pro každého uživatele.
+ * Views land in per-post, per-day HyperLogLog sketches in memory. A scheduled writer merges them into the stored
+ * all-time sketch in {@code post_stats} and the daily sketch in {@code post_viewer_daily}; merging is idempotent, so
+ * any number of nodes can write into the same rows. // Zobrazení se zapisují do náčrtů HyperLogLog v paměti po
+ * příspěvcích a dnech. Plánovaný zapisovač je slučuje do uloženého celkového náčrtu v {@code post_stats} a denního
+ * náčrtu v {@code post_viewer_daily}; slučování je idempotentní, takže do stejných řádků může zapisovat libovolný
+ * počet uzlů.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+public class UniqueViewerCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueViewerCounter.class);
+
+    private final PostStatsRepository postStatsRepository;
+    private final PostViewerDailyRepository dailyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Key, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    @Value("${forum.posts.viewers.daily-retention-days:30}")
+    private int dailyRetentionDays;
+
+    public UniqueViewerCounter(PostStatsRepository postStatsRepository, PostViewerDailyRepository dailyRepository,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.postStatsRepository = postStatsRepository;
+        this.dailyRepository = dailyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records that a viewer saw a post. // Zaznamená, že uživatel viděl příspěvek.
+     *
+     * @param postId Post id // Id příspěvku
+     * @param viewer Stable key of the viewer, e.g. a username or session id // Stálý klíč uživatele, např. uživatelské jméno nebo id relace
+     */
+    public void record(Long postId, String viewer) {
+        // Updated inside compute(), so the flush never removes a sketch in the middle of an update // Aktualizuje se
+        // uvnitř compute(), takže běh zápisu nikdy neodebere náčrt uprostřed aktualizace
+        pending.compute(new Key(postId, today()), (key, sketch) -> {
+            HyperLogLog target = sketch == null ? new HyperLogLog() : sketch;
+            target.offer(viewer);
+            return target;
+        });
+    }
+
+    /**
+     * Estimated number of distinct people who ever viewed a post. // Odhadovaný počet různých lidí, kteří kdy
+     * příspěvek zobrazili.
+     *
+     * @param postId Post id // Id příspěvku
+     * @return Estimated distinct viewers // Odhadovaný počet různých uživatelů
+     */
+    public long estimate(Long postId) {
+        HyperLogLog sketch = HyperLogLog.fromBytes(postStatsRepository.findById(postId)
+                .map(PostStats::getViewerSketch)
+                .orElse(null));
+        mergePending(sketch, postId, null);
+        return sketch.estimate();
+    }
+
+    /**
+     * Estimated number of distinct people who viewed a post within the last days. // Odhadovaný počet různých lidí,
+     * kteří příspěvek zobrazili během posledních dní.
+     *
+     * @param postId Post id // Id příspěvku
+     * @param days Window length in days, today included // Délka okna ve dnech včetně dneška
+     * @return Estimated distinct viewers in the window // Odhadovaný počet různých uživatelů v okně
+     */
+    public long estimate(Long postId, int days) {
+        LocalDateTime since = today().minusDays(days - 1L);
+        HyperLogLog sketch = new HyperLogLog();
+        for (byte[] daily : dailyRepository.findSketches(postId, since)) {
+            sketch.merge(HyperLogLog.fromBytes(daily));
+        }
+        mergePending(sketch, postId, since);
+        return sketch.estimate();
+    }
+
+    /**
+     * Merges the buffered sketches into the stored ones; synchronized so the scheduler and shutdown never interleave.
+     * // Sloučí nashromážděné náčrty do uložených; synchronizováno, aby se plánovač a ukončení neprokládaly.
+     */
+    @Scheduled(fixedDelayString = "${forum.posts.viewers.flush-ms:10000}")
+    @PreDestroy
+    public synchronized void flush() {
+        for (Key key : new ArrayList<>(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                // Both rows in one transaction, so a retry never counts into only one of them // Oba řádky v jedné
+                // transakci, aby opakování nezapočítalo jen do jednoho z nich
+                transactionTemplate.executeWithoutResult(status -> write(key, sketch.toBytes()));
+            } catch (RuntimeException e) {
+                // Merge it back, the next flush retries it // Sloučit zpět, další běh ho zkusí znovu
+                log.warn("Viewer sketch flush of post {} failed, retrying later: {}", key.postId(), e.getMessage());
+                pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${forum.posts.viewers.prune-interval-ms:3600000}")
+    public void prune() {
+        jdbcTemplate.update("DELETE FROM post_viewer_daily WHERE bucket_start < ?",
+                Timestamp.valueOf(today().minusDays(dailyRetentionDays)));
+    }
+
+    private void write(Key key, byte[] bytes) {
+        Timestamp day = Timestamp.valueOf(key.day());
+        List<byte[]> daily = jdbcTemplate.queryForList(
+                "SELECT sketch FROM post_viewer_daily WHERE post_id = ? AND bucket_start = ? FOR UPDATE",
+                byte[].class, key.postId(), day);
+        if (daily.isEmpty()) {
+            // Selecting from posts skips a post deleted since // Výběr z posts přeskočí mezitím smazaný příspěvek
+            jdbcTemplate.update("INSERT INTO post_viewer_daily (post_id, bucket_start, sketch) "
+                    + "SELECT id, ?, ? FROM posts WHERE id = ?", day, bytes, key.postId());
+        } else {
+            jdbcTemplate.update("UPDATE post_viewer_daily SET sketch = ? WHERE post_id = ? AND bucket_start = ?",
+                    merged(daily.get(0), bytes), key.postId(), day);
+        }
+
+        List<byte[]> total = jdbcTemplate.queryForList(
+                "SELECT viewer_sketch FROM post_stats WHERE post_id = ? FOR UPDATE", byte[].class, key.postId());
+        if (total.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO post_stats (post_id, view_count, viewer_sketch) "
+                    + "SELECT id, 0, ? FROM posts WHERE id = ?", bytes, key.postId());
+        } else {
+            jdbcTemplate.update("UPDATE post_stats SET viewer_sketch = ? WHERE post_id = ?",
+                    merged(total.get(0), bytes), key.postId());
+        }
+    }
+
+    private void mergePending(HyperLogLog sketch, Long postId, LocalDateTime since) {
+        // Flushes empty the buffer every few seconds, so only today and a just-passed midnight can be pending //
+        // Zápisy vyprazdňují zásobník každých pár sekund, takže čekat může jen dnešek a právě uplynulá půlnoc
+        LocalDateTime today = today();
+        for (LocalDateTime day : List.of(today, today.minusDays(1))) {
+            HyperLogLog buffered = pending.get(new Key(postId, day));
+            if (buffered != null && (since == null || !day.isBefore(since))) {
+                sketch.merge(buffered);
+            }
+        }
+    }
+
+    private static byte[] merged(byte[] stored, byte[] bytes) {
+        HyperLogLog sketch = HyperLogLog.fromBytes(stored);
+        sketch.merge(HyperLogLog.fromBytes(bytes));
+        return sketch.toBytes();
+    }
+
+    private static LocalDateTime today() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private record Key(Long postId, LocalDateTime day) {
+    }
+}
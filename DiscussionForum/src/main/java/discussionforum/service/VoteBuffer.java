@@ -0,0 +1,554 @@
+package discussionforum.service;
+
+import discussionforum.event.PostVotedEvent;
+import discussionforum.exception.VoteBufferFullException;
+import discussionforum.model.PostTallyRow;
+import discussionforum.model.VoteResult;
+import discussionforum.model.VoteType;
+import discussionforum.ranking.ControversyScore;
+import discussionforum.ranking.HotScore;
+import discussionforum.repository.PostRepository;
+import discussionforum.repository.UserRepository;
+import discussionforum.repository.VoteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Optional write-behind mode for post votes. // Volitelný režim hlasování se zpožděným zápisem.
+ * A vote only updates the voter's latest intent in a striped in-memory map, appends it to a local log and is
+ * acknowledged. A scheduled flusher coalesces each voter's toggles since the last flush (up, none, up is one upvote)
+ * and writes the remaining changes and the summed post counters in JDBC batches. When the buffer is full the voting
+ * thread runs the flush itself, and a vote is refused while the database stays unreachable. // Hlas pouze změní
+ * poslední záměr uživatele v rozložené mapě v paměti, připíše jej do lokálního logu a je potvrzen. Plánovaný
+ * zapisovač sloučí přepínání každého uživatele od posledního běhu a zbylé změny i sečtené čítače zapíše dávkově.
+ * Při plném zásobníku spustí zápis sám hlasující vlákno a hlas je odmítnut, dokud je databáze nedostupná.
+ * The returned score is the stored score plus the deltas not yet written, read as a consistent pair: a flush moves
+ * its deltas from memory to the database between two bumps of a sequence number. // Vrácené skóre je uložené skóre
+ * plus dosud nezapsané rozdíly, čtené jako konzistentní dvojice: zápis přesune své rozdíly z paměti do databáze
+ * mezi dvěma zvýšeními pořadového čísla.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+public class VoteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteBuffer.class);
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final VoteRepository voteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VoteJournal voteJournal;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VoteBitmaps voteBitmaps;
+    private final Map<Long, Integer> pendingScore = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    // Odd from just before a flush commits until its deltas leave pendingScore, so a stored score and pending delta
+    // read at one even value agree; any change also marks a vote row read before it as stale // Liché od okamžiku
+    // těsně před potvrzením zápisu, dokud jeho rozdíly neopustí pendingScore, takže uložené skóre a čekající rozdíl
+    // načtené při jedné sudé hodnotě souhlasí; každá změna také označí dříve načtený řádek hlasu jako zastaralý
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${forum.votes.buffer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${forum.votes.buffer.stripes:16}")
+    private int stripeCount;
+
+    @Value("${forum.votes.buffer.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${forum.votes.buffer.log-dir:data/vote-buffer}")
+    private String logDir;
+
+    @Value("${forum.votes.buffer.log-fsync:false}")
+    private boolean logFsync;
+
+    private Stripe[] stripes;
+    private VoteBufferLog intentLog;
+
+    public VoteBuffer(UserRepository userRepository, PostRepository postRepository, VoteRepository voteRepository,
+                      JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                      VoteJournal voteJournal, ApplicationEventPublisher eventPublisher, VoteBitmaps voteBitmaps) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.voteRepository = voteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Never joins the voter's transaction, a flush commits or fails on its own // Nikdy se nepřipojí k transakci
+        // hlasujícího, zápis se potvrdí nebo selže samostatně
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.voteJournal = voteJournal;
+        this.eventPublisher = eventPublisher;
+        this.voteBitmaps = voteBitmaps;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        intentLog = new VoteBufferLog(Path.of(logDir), logFsync);
+        // Intents a previous run acknowledged but never wrote // Záměry, které minulý běh potvrdil, ale nezapsal
+        List<VoteBufferLog.Entry> replayed = intentLog.replay();
+        for (VoteBufferLog.Entry entry : replayed) {
+            Key key = new Key(entry.postId(), entry.userId());
+            Map<Key, Pending> pending = stripeFor(key).pending;
+            Pending current = pending.get(key);
+            if (current == null) {
+                current = new Pending(entry.base());
+                pending.put(key, current);
+                size.incrementAndGet();
+            }
+            adjustScore(entry.postId(), VoteType.weight(entry.intent()) - VoteType.weight(current.intent));
+            current.intent = entry.intent();
+        }
+        if (!replayed.isEmpty()) {
+            log.info("Replayed {} buffered votes from {}", replayed.size(), logDir);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a vote toggle and acknowledges it without writing to the database. // Zaznamená přepnutí hlasu
+     * a potvrdí jej bez zápisu do databáze.
+     *
+     * @param postId Post id // Id příspěvku
+     * @param username Voter // Hlasující
+     * @param type Vote button pressed // Stisknuté tlačítko hlasu
+     * @return Post score including votes not yet written, and the voter's vote // Skóre příspěvku včetně dosud
+     *         nezapsaných hlasů a hlas uživatele
+     */
+    public VoteResult record(Long postId, String username, VoteType type) {
+        if (size.get() >= maxEntries) {
+            // Backpressure: the voter pays for the flush // Protitlak: zápis zaplatí hlasující
+            flush();
+            if (size.get() >= maxEntries) {
+                throw new VoteBufferFullException("Voting is busy, please try again shortly");
+            }
+        }
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
+        long scoreReadAt = generation.get();
+        int stored = postRepository.findScore(postId)
+                .orElseThrow(() -> new EntityNotFoundException("Post not found with id " + postId));
+        VoteType intent = buffer(postId, userId, type);
+        return new VoteResult(score(postId, stored, scoreReadAt), intent);
+    }
+
+    /**
+     * Stores the voter's new intent and returns it. // Uloží nový záměr uživatele a vrátí ho.
+     */
+    private VoteType buffer(Long postId, Long userId, VoteType type) {
+        Key key = new Key(postId, userId);
+        Stripe stripe = stripeFor(key);
+        VoteType persisted = null;
+        long readAt = -1;
+        while (true) {
+            stripe.lock.lock();
+            try {
+                Pending entry = stripe.find(key);
+                boolean fresh = entry == null && readAt == generation.get();
+                if (entry != null || fresh) {
+                    VoteType base = fresh ? persisted : entry.base;
+                    VoteType previous = fresh ? persisted : entry.intent;
+                    VoteType intent = previous == type ? null : type;
+                    // Logged before it is acknowledged // Zalogováno dříve, než je potvrzeno
+                    intentLog.append(postId, userId, base, intent);
+                    if (fresh) {
+                        entry = new Pending(base);
+                        stripe.pending.put(key, entry);
+                        size.incrementAndGet();
+                    }
+                    entry.intent = intent;
+                    adjustScore(postId, VoteType.weight(intent) - VoteType.weight(previous));
+                    // The next page the voter loads shows the arrow before the flush // Další stránka, kterou uživatel
+                    // načte, ukáže šipku ještě před zápisem
+                    voteBitmaps.acknowledge(userId, postId, intent);
+                    return intent;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            // Not buffered yet, read the stored vote outside the lock // Ještě není v zásobníku, načíst uložený hlas mimo zámek
+            readAt = generation.get();
+            persisted = voteRepository.findType(postId, userId).orElse(null);
+        }
+    }
+
+    /**
+     * Stored score plus the pending delta of a post, re-read until both come from one even generation. // Uložené
+     * skóre plus čekající rozdíl příspěvku, načítané znovu, dokud obojí nepochází z jedné sudé generace.
+     */
+    private int score(Long postId, int stored, long readAt) {
+        while (true) {
+            int pending = pendingScore.getOrDefault(postId, 0);
+            if ((readAt & 1) == 0 && generation.get() == readAt) {
+                return stored + pending;
+            }
+            readAt = generation.get();
+            if ((readAt & 1) != 0) {
+                // A flush is committing, which takes one round trip // Zápis se právě potvrzuje, což trvá jednu cestu
+                Thread.onSpinWait();
+                continue;
+            }
+            stored = postRepository.findScore(postId).orElse(stored);
+        }
+    }
+
+    /**
+     * Writes the buffered intents; synchronized so the scheduler and a blocked voter never flush concurrently. //
+     * Zapíše nashromážděné záměry; synchronizováno, aby plánovač a blokovaný hlasující nezapisovali souběžně.
+     */
+    @Scheduled(fixedDelayString = "${forum.votes.buffer.flush-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        Map<Key, Pending> drained = drain();
+        if (drained.isEmpty()) {
+            return;
+        }
+        Handover handover = new Handover(drained);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                write(drained);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(handover);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Vote buffer flush failed, retrying later: {}", e.getMessage());
+            handover.abort();
+            restore();
+            return;
+        }
+        // Without transaction synchronization the deltas are handed over now // Bez synchronizace transakce se
+        // rozdíly předají nyní
+        handover.complete();
+        settle();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        intentLog.close();
+    }
+
+    /**
+     * Moves every stripe's intents in flight and seals the log segment holding them. // Přesune záměry všech pruhů
+     * do zápisu a uzavře segment logu, který je obsahuje.
+     */
+    private Map<Key, Pending> drain() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            Map<Key, Pending> drained = new LinkedHashMap<>();
+            for (Stripe stripe : stripes) {
+                drained.putAll(stripe.pending);
+                stripe.inFlight = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            if (!drained.isEmpty()) {
+                // All stripes are held, so no intent of this flush lands in the next segment // Všechny pruhy jsou
+                // drženy, takže žádný záměr tohoto zápisu nepadne do dalšího segmentu
+                intentLog.roll();
+            }
+            size.addAndGet(-drained.size());
+            return drained;
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Releases the written intents; runs after the generation moved on, so a vote read meanwhile is re-read. //
+     * Uvolní zapsané záměry; běží až po posunu generace, takže se mezitím načtený hlas načte znovu.
+     */
+    private void settle() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (Map.Entry<Key, Pending> entry : stripe.inFlight.entrySet()) {
+                    Pending newer = stripe.pending.get(entry.getKey());
+                    if (newer != null) {
+                        // The flush events carried the older intent // Události zápisu nesly starší záměr
+                        voteBitmaps.acknowledge(entry.getKey().userId(), entry.getKey().postId(), newer.intent);
+                    }
+                }
+                stripe.inFlight = Map.of();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        intentLog.discardSealed();
+    }
+
+    /**
+     * Puts the in-flight intents back after a failed flush; their log segments stay sealed. // Vrátí záměry
+     * z neúspěšného zápisu zpět; jejich segmenty logu zůstanou uzavřené.
+     */
+    private void restore() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (Map.Entry<Key, Pending> entry : stripe.inFlight.entrySet()) {
+                    Pending newer = stripe.pending.get(entry.getKey());
+                    if (newer == null) {
+                        stripe.pending.put(entry.getKey(), entry.getValue());
+                        size.incrementAndGet();
+                    } else {
+                        // The newer intent started from the in-flight one, keep the older base // Novější záměr
+                        // navázal na ten v zápisu, ponechat starší základ
+                        newer.base = entry.getValue().base;
+                    }
+                }
+                stripe.inFlight = Map.of();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private void write(Map<Key, Pending> drained) {
+        List<Change> inserts = new ArrayList<>();
+        List<Change> deletes = new ArrayList<>();
+        List<Change> switches = new ArrayList<>();
+        for (Map.Entry<Key, Pending> entry : drained.entrySet()) {
+            Pending pending = entry.getValue();
+            if (pending.base == pending.intent) {
+                continue; // Toggled back, nothing to write // Přepnuto zpět, není co zapsat
+            }
+            Change change = new Change(entry.getKey(), pending.base, pending.intent);
+            (pending.base == null ? inserts : pending.intent == null ? deletes : switches).add(change);
+        }
+        List<Change> applied = new ArrayList<>();
+        // Guarded like the direct path, so replaying a log that was already written changes nothing // Podmíněno
+        // stejně jako přímá cesta, takže přehrání již zapsaného logu nic nezmění
+        batch("INSERT INTO votes (post_id, user_id, type) SELECT id, ?, ? FROM posts WHERE id = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM votes WHERE post_id = ? AND user_id = ?)", inserts, applied,
+                c -> new Object[]{c.key().userId(), c.intent().name(), c.key().postId(), c.key().postId(), c.key().userId()});
+        batch("DELETE FROM votes WHERE post_id = ? AND user_id = ? AND type = ?", deletes, applied,
+                c -> new Object[]{c.key().postId(), c.key().userId(), c.base().name()});
+        batch("UPDATE votes SET type = ? WHERE post_id = ? AND user_id = ? AND type = ?", switches, applied,
+                c -> new Object[]{c.intent().name(), c.key().postId(), c.key().userId(), c.base().name()});
+        if (applied.isEmpty()) {
+            return;
+        }
+
+        Map<Long, int[]> counters = new LinkedHashMap<>();
+        for (Change change : applied) {
+            int[] counter = counters.computeIfAbsent(change.key().postId(), id -> new int[3]);
+            counter[0] += VoteType.weight(change.intent()) - VoteType.weight(change.base());
+            counter[1] += count(change.intent(), VoteType.UPVOTE) - count(change.base(), VoteType.UPVOTE);
+            counter[2] += count(change.intent(), VoteType.DOWNVOTE) - count(change.base(), VoteType.DOWNVOTE);
+        }
+        List<Object[]> rows = new ArrayList<>(counters.size());
+        counters.forEach((postId, c) -> rows.add(new Object[]{c[0], c[1], c[1], c[2], c[2], postId}));
+        jdbcTemplate.batchUpdate("UPDATE posts SET score = score + ?, "
+                + "upvotes = CASE WHEN upvotes + ? < 0 THEN 0 ELSE upvotes + ? END, "
+                + "downvotes = CASE WHEN downvotes + ? < 0 THEN 0 ELSE downvotes + ? END WHERE id = ?", rows);
+
+        Map<Long, PostTallyRow> tallies = new HashMap<>();
+        for (PostTallyRow tally : postRepository.findTallies(counters.keySet())) {
+            tallies.put(tally.getId(), tally);
+        }
+        List<Object[]> ranking = new ArrayList<>(tallies.size());
+        for (PostTallyRow tally : tallies.values()) {
+            ranking.add(new Object[]{HotScore.of(tally.getScore(), tally.getCreatedAt()),
+                    ControversyScore.of(tally.getUpvotes(), tally.getDownvotes()), tally.getId()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE posts SET hot_score = ?, controversy = ? WHERE id = ?", ranking);
+
+        // Delivered after commit like direct votes, feeds and rollups stay in step // Doručeno po potvrzení jako
+        // u přímých hlasů, feedy a souhrny zůstanou v souladu
+        List<PostVotedEvent> events = new ArrayList<>(applied.size());
+        for (Change change : applied) {
+            PostTallyRow tally = tallies.get(change.key().postId());
+            if (tally != null) {
+                events.add(new PostVotedEvent(tally.getId(), tally.getCommunityId(),
+                        change.key().userId(), change.base(), change.intent(), tally.getScore(),
+                        HotScore.of(tally.getScore(), tally.getCreatedAt()),
+                        ControversyScore.of(tally.getUpvotes(), tally.getDownvotes()), tally.getCreatedAt()));
+            }
+        }
+        voteJournal.postsVoted(events);
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    private void batch(String sql, List<Change> changes, List<Change> applied,
+                       Function<Change, Object[]> args) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            rows.add(args.apply(change));
+        }
+        int[] updated = jdbcTemplate.batchUpdate(sql, rows);
+        for (int i = 0; i < updated.length; i++) {
+            // Zero means the guard failed: the row already moved on or the post is gone // Nula znamená nesplněnou
+            // podmínku: řádek se už změnil nebo příspěvek neexistuje
+            if (updated[i] != 0) {
+                applied.add(changes.get(i));
+            }
+        }
+    }
+
+    private void adjustScore(Long postId, int delta) {
+        // A delta summing to zero removes its entry in the same atomic step // Rozdíl se součtem nula odebere svou
+        // položku v témže atomickém kroku
+        pendingScore.merge(postId, delta, (current, added) -> current + added == 0 ? null : current + added);
+    }
+
+    private Stripe stripeFor(Key key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private static int count(VoteType vote, VoteType type) {
+        return vote == type ? 1 : 0;
+    }
+
+    private record Key(Long postId, Long userId) {
+    }
+
+    private record Change(Key key, VoteType base, VoteType intent) {
+    }
+
+    /**
+     * Stored vote when the voter was first buffered, and the latest intent. // Uložený hlas při prvním zápisu do
+     * zásobníku a poslední záměr.
+     */
+    private static final class Pending {
+        private VoteType base;
+        private VoteType intent;
+
+        private Pending(VoteType base) {
+            this.base = base;
+            this.intent = base;
+        }
+    }
+
+    /**
+     * Moves the deltas of one flush out of pendingScore right after it commits, ahead of the after-commit listeners.
+     * // Přesune rozdíly jednoho zápisu z pendingScore hned po jeho potvrzení, před posluchači po potvrzení.
+     */
+    private final class Handover implements TransactionSynchronization {
+        private final Map<Key, Pending> drained;
+        private boolean committing;
+        private boolean done;
+
+        private Handover(Map<Key, Pending> drained) {
+            this.drained = drained;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            committing = true;
+            generation.incrementAndGet();
+        }
+
+        @Override
+        public void afterCommit() {
+            complete();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                abort();
+            }
+        }
+
+        private void complete() {
+            if (done) {
+                return;
+            }
+            if (!committing) {
+                committing = true;
+                generation.incrementAndGet();
+            }
+            for (Map.Entry<Key, Pending> entry : drained.entrySet()) {
+                Pending pending = entry.getValue();
+                adjustScore(entry.getKey().postId(), VoteType.weight(pending.base) - VoteType.weight(pending.intent));
+            }
+            done = true;
+            generation.incrementAndGet();
+        }
+
+        private void abort() {
+            if (committing && !done) {
+                done = true;
+                generation.incrementAndGet();
+            }
+        }
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<Key, Pending> pending = new HashMap<>();
+        private Map<Key, Pending> inFlight = Map.of();
+
+        // An intent still being flushed is the starting point of the next one // Záměr, který se právě zapisuje,
+        // je výchozím bodem dalšího
+        private Pending find(Key key) {
+            Pending entry = pending.get(key);
+            if (entry == null) {
+                Pending flushing = inFlight.get(key);
+                if (flushing != null) {
+                    entry = new Pending(flushing.intent);
+                    pending.put(key, entry);
+                    size.incrementAndGet();
+                }
+            }
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package discussionforum.service;
+
+import discussionforum.model.VoteType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only log of the vote intents held by {@link VoteBuffer}. // Lokální log hlasů držených v
+ * {@link VoteBuffer}, do kterého se pouze připisuje.
+ * Intents go to numbered segment files, one line {@code postId userId base intent} each. A flush seals the open
+ * segment and deletes the sealed ones once their intents are committed, so after a crash the surviving segments
+ * hold exactly the votes that may be missing from the database. // Záměry se zapisují do číslovaných segmentů,
+ * jeden řádek na záměr. Zápis do databáze uzavře otevřený segment a po potvrzení uzavřené segmenty smaže, takže po
+ * pádu zbylé segmenty obsahují přesně hlasy, které mohou v databázi chybět.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+class VoteBufferLog {
+
+    private static final String PREFIX = "votes-";
+    private static final String SUFFIX = ".log";
+    private static final String NONE = "-";
+
+    private final Path dir;
+    private final boolean fsync;
+    private final List<Path> sealed = new ArrayList<>();
+    private FileChannel channel;
+    private long sequence;
+
+    VoteBufferLog(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+            // Segments left by a previous run count as sealed until a flush writes them // Segmenty z minulého běhu
+            // platí za uzavřené, dokud je zápis neuloží
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(VoteBufferLog::isSegment).sorted().forEach(sealed::add);
+            }
+            for (Path segment : sealed) {
+                sequence = Math.max(sequence, sequenceOf(segment));
+            }
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open vote log in " + dir, e);
+        }
+    }
+
+    /**
+     * Intents of the sealed segments, oldest first. // Záměry z uzavřených segmentů, od nejstaršího.
+     */
+    synchronized List<Entry> replay() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : sealed) {
+            try {
+                for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                    Entry entry = Entry.parse(line);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read vote log " + segment, e);
+            }
+        }
+        return entries;
+    }
+
+    synchronized void append(Long postId, Long userId, VoteType base, VoteType intent) {
+        String line = postId + " " + userId + " " + name(base) + " " + name(intent) + "\n";
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to vote log", e);
+        }
+    }
+
+    /**
+     * Seals the open segment; later intents go to a fresh one. // Uzavře otevřený segment; další záměry jdou do nového.
+     */
+    synchronized void roll() {
+        try {
+            channel.close();
+            sealed.add(segment(sequence));
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll vote log", e);
+        }
+    }
+
+    /**
+     * Deletes the sealed segments after their intents were committed. // Smaže uzavřené segmenty po potvrzení jejich záměrů.
+     */
+    synchronized void discardSealed() {
+        for (Path segment : sealed) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete vote log " + segment, e);
+            }
+        }
+        sealed.clear();
+    }
+
+    synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close vote log", e);
+        }
+    }
+
+    private void open() throws IOException {
+        sequence++;
+        channel = FileChannel.open(segment(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segment(long number) {
+        return dir.resolve(PREFIX + String.format("%020d", number) + SUFFIX);
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static String name(VoteType type) {
+        return type == null ? NONE : type.name();
+    }
+
+    private static VoteType type(String name) {
+        return NONE.equals(name) ? null : VoteType.valueOf(name);
+    }
+
+    record Entry(Long postId, Long userId, VoteType base, VoteType intent) {
+
+        // A line torn by a crash is skipped // Řádek přerušený pádem se přeskočí
+        static Entry parse(String line) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                return new Entry(Long.valueOf(parts[0]), Long.valueOf(parts[1]), type(parts[2]), type(parts[3]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package discussionforum.service;
+
+import discussionforum.model.VoteCountRow;
+import discussionforum.ranking.ControversyScore;
+import discussionforum.repository.CommentRepository;
+import discussionforum.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off repair of the denormalized up/down vote and comment counters at startup. // Jednorázová oprava
+ * denormalizovaných čítačů hlasů a komentářů při startu.
+ * Recounts only rows whose counters disagree with their vote rows, then fills in the controversy score they imply,
+ * so once the data is consistent a restart costs two cheap queries. // Přepočítá jen řádky, jejichž čítače
+ * nesouhlasí s hlasy, a doplní z nich skóre kontroverznosti; po sjednocení dat stojí restart dva levné dotazy.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+@Order(3)
+public class VoteCounterBackfill implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteCounterBackfill.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+
+    @Value("${forum.ranking.counters.backfill-on-startup:true}")
+    private boolean enabled;
+
+    public VoteCounterBackfill(PostRepository postRepository, CommentRepository commentRepository) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        int posts = postRepository.backfillVoteCounters();
+        for (VoteCountRow row : postRepository.findMissingControversy()) {
+            postRepository.updateControversy(row.getId(), ControversyScore.of(row.getUpvotes(), row.getDownvotes()));
+        }
+        int comments = commentRepository.backfillVoteCounters();
+        for (VoteCountRow row : commentRepository.findMissingControversy()) {
+            commentRepository.updateControversy(row.getId(), ControversyScore.of(row.getUpvotes(), row.getDownvotes()));
+        }
+        if (posts > 0 || comments > 0) {
+            log.info("Recounted votes of {} posts and {} comments", posts, comments);
+        }
+        int commented = postRepository.backfillCommentCounts();
+        if (commented > 0) {
+            log.info("Recounted comments of {} posts", commented);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package discussionforum.service;
+
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.VoteType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends every vote change to the {@code vote_events} journal. // Připisuje každou změnu hlasu do journalu
+ * {@code vote_events}.
+ * Written in the caller's transaction, so the journal holds exactly the committed votes and
+ * {@link VoteJournalReplay} can audit or rebuild scores and rollups from it. // Zapisuje se v transakci volajícího,
+ * takže journal obsahuje přesně potvrzené hlasy a {@link VoteJournalReplay} z něj může ověřit nebo znovu sestavit
+ * skóre a souhrny.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+public class VoteJournal {
+
+    private static final String INSERT = "INSERT INTO vote_events "
+            + "(post_id, comment_id, community_id, user_id, previous_vote, current_vote, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${forum.votes.journal.enabled:true}")
+    private boolean enabled;
+
+    public VoteJournal(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals one vote on a post. // Zapíše jeden hlas pro příspěvek.
+     */
+    public void postVoted(PostVotedEvent event) {
+        if (enabled) {
+            jdbcTemplate.update(INSERT, row(event, Timestamp.valueOf(LocalDateTime.now())));
+        }
+    }
+
+    /**
+     * Journals the votes of one write-behind flush in a single batch. // Zapíše hlasy jednoho odloženého zápisu
+     * jednou dávkou.
+     */
+    public void postsVoted(List<PostVotedEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (PostVotedEvent event : events) {
+            rows.add(row(event, now));
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    /**
+     * Journals one vote on a comment. // Zapíše jeden hlas pro komentář.
+     */
+    public void commentVoted(Long commentId, Long postId, Long userId, VoteType previous, VoteType current) {
+        if (enabled) {
+            jdbcTemplate.update(INSERT, postId, commentId, null, userId, VoteType.weight(previous),
+                    VoteType.weight(current), Timestamp.valueOf(LocalDateTime.now()));
+        }
+    }
+
+    private static Object[] row(PostVotedEvent event, Timestamp at) {
+        return new Object[]{event.postId(), null, event.communityId(), event.userId(),
+                VoteType.weight(event.previous()), VoteType.weight(event.current()), at};
+    }
+}
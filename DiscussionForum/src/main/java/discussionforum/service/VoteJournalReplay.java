@@ -0,0 +1,382 @@
+package discussionforum.service;
+
+import discussionforum.model.VoteJournalBaseline;
+import discussionforum.ranking.ControversyScore;
+import discussionforum.ranking.HotScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Audits or rebuilds post and comment scores and the vote rollups from the {@code vote_events} journal. // Ověří
+ * nebo znovu sestaví skóre příspěvků a komentářů a souhrny hlasů z journalu {@code vote_events}.
+ * The journal is split into id ranges folded in parallel, one worker per core, each into its own tallies that are
+ * merged at the end, so replay time divides by the number of cores. Only rows that drifted from the journal are
+ * written back. The first start seeds the journal with the votes stored before it and marks that baseline; a rebuild
+ * is refused until the baseline exists. // Journal
+ * se rozdělí na rozsahy id, které se paralelně sečtou, jeden pracovník na jádro, každý do vlastních součtů sloučených
+ * na konci, takže doba přehrání klesá s počtem jader. Zpět se zapíší jen řádky, které se od journalu odchýlily. První
+ * start naplní journal hlasy uloženými před jeho vznikem a označí tento výchozí stav; přestavba je odmítnuta, dokud
+ * výchozí stav neexistuje.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+@Order(4)
+public class VoteJournalReplay implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteJournalReplay.class);
+
+    private static final int WRITE_BATCH = 1000;
+    private static final int[] NO_VOTES = new int[3];
+    private static final String INSERT_EVENTS = "INSERT INTO vote_events "
+            + "(post_id, comment_id, community_id, user_id, previous_vote, current_vote, created_at) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VoteJournal voteJournal;
+
+    @Value("${forum.votes.journal.seed-on-startup:true}")
+    private boolean seedOnStartup;
+
+    // off, audit or rebuild // off, audit nebo rebuild
+    @Value("${forum.votes.journal.replay-on-startup:off}")
+    private String replayOnStartup;
+
+    @Value("${forum.votes.journal.replay-threads:0}")
+    private int replayThreads;
+
+    @Value("${forum.votes.journal.replay-chunk-size:250000}")
+    private int chunkSize;
+
+    @Value("${forum.ranking.top.hourly-retention-days:8}")
+    private int hourlyRetentionDays;
+
+    @Value("${forum.ranking.top.daily-retention-days:366}")
+    private int dailyRetentionDays;
+
+    public VoteJournalReplay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             VoteJournal voteJournal) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.voteJournal = voteJournal;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!voteJournal.isEnabled()) {
+            return;
+        }
+        if (seedOnStartup) {
+            seedBaseline();
+        }
+        if ("audit".equalsIgnoreCase(replayOnStartup) || "rebuild".equalsIgnoreCase(replayOnStartup)) {
+            Report report = replay("rebuild".equalsIgnoreCase(replayOnStartup));
+            log.info("Vote journal {}: {}", replayOnStartup.toLowerCase(), report);
+        }
+    }
+
+    /**
+     * Seeds the journal once with the votes that were stored before it, recorded by a baseline marker row. // Jednou
+     * naplní journal hlasy uloženými před jeho vznikem, což zaznamená řádek výchozího stavu.
+     * A pair of voter and target that was never journaled gets its stored vote; a pair that was journaled live
+     * first gets the vote its earliest event replaced, so votes cast before seeding are never counted twice. Both
+     * halves are one statement each and read the same snapshot. Baseline events are dated to the voted post or
+     * comment, as the real vote time was never recorded. // Dvojice hlasujícího a cíle, která nebyla nikdy
+     * zapsána, dostane svůj uložený hlas; dvojice zapsaná už za provozu dostane hlas, který nahradila její nejstarší
+     * událost, takže hlasy před naplněním se nikdy nezapočtou dvakrát. Obě poloviny jsou vždy jedním příkazem
+     * a čtou stejný snímek. Výchozí události nesou datum příspěvku nebo komentáře, protože skutečný čas hlasu nebyl
+     * nikdy uložen.
+     *
+     * @return Events written, {@code 0} once the baseline exists // Počet zapsaných událostí, {@code 0} pokud výchozí
+     * stav už existuje
+     */
+    public int seedBaseline() {
+        if (hasBaseline()) {
+            return 0;
+        }
+        Integer seeded;
+        try {
+            seeded = transactionTemplate.execute(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                // Claimed first, so a second node seeding at the same time fails on the key instead of seeding
+                // twice // Zabráno jako první, takže druhý uzel plnící současně selže na klíči místo dvojího plnění
+                jdbcTemplate.update("INSERT INTO vote_journal_baseline (id, seeded_at, events) VALUES (?, ?, 0)",
+                        VoteJournalBaseline.ID, now);
+                int posts = jdbcTemplate.update(INSERT_EVENTS
+                        + "SELECT v.post_id, NULL, p.community_id, v.user_id, 0, "
+                        + "CASE WHEN v.type = 'UPVOTE' THEN 1 ELSE -1 END, COALESCE(p.created_at, ?) "
+                        + "FROM votes v JOIN posts p ON p.id = v.post_id "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM vote_events e WHERE e.comment_id IS NULL "
+                        + "AND e.post_id = v.post_id AND e.user_id = v.user_id) "
+                        + "UNION ALL "
+                        + "SELECT e.post_id, NULL, e.community_id, e.user_id, 0, e.previous_vote, "
+                        + "COALESCE(p.created_at, e.created_at) "
+                        + "FROM vote_events e LEFT JOIN posts p ON p.id = e.post_id "
+                        + "WHERE e.comment_id IS NULL AND e.previous_vote <> 0 "
+                        + "AND e.id = (SELECT MIN(f.id) FROM vote_events f WHERE f.comment_id IS NULL "
+                        + "AND f.post_id = e.post_id AND f.user_id = e.user_id)", now);
+                int comments = jdbcTemplate.update(INSERT_EVENTS
+                        + "SELECT c.post_id, v.comment_id, NULL, v.user_id, 0, "
+                        + "CASE WHEN v.type = 'UPVOTE' THEN 1 ELSE -1 END, COALESCE(c.created_at, ?) "
+                        + "FROM comment_votes v JOIN comments c ON c.id = v.comment_id "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM vote_events e "
+                        + "WHERE e.comment_id = v.comment_id AND e.user_id = v.user_id) "
+                        + "UNION ALL "
+                        + "SELECT e.post_id, e.comment_id, NULL, e.user_id, 0, e.previous_vote, "
+                        + "COALESCE(c.created_at, e.created_at) "
+                        + "FROM vote_events e LEFT JOIN comments c ON c.id = e.comment_id "
+                        + "WHERE e.comment_id IS NOT NULL AND e.previous_vote <> 0 "
+                        + "AND e.id = (SELECT MIN(f.id) FROM vote_events f "
+                        + "WHERE f.comment_id = e.comment_id AND f.user_id = e.user_id)", now);
+                jdbcTemplate.update("UPDATE vote_journal_baseline SET events = ? WHERE id = ?", posts + comments,
+                        VoteJournalBaseline.ID);
+                return posts + comments;
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("The vote journal baseline was seeded concurrently");
+            return 0;
+        }
+        if (seeded != null && seeded > 0) {
+            log.info("Seeded the vote journal with {} stored votes", seeded);
+        }
+        return seeded == null ? 0 : seeded;
+    }
+
+    /**
+     * Whether the journal was seeded with the votes stored before it. // Zda byl journal naplněn hlasy uloženými před
+     * jeho vznikem.
+     */
+    public boolean hasBaseline() {
+        Long markers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vote_journal_baseline", Long.class);
+        return markers != null && markers > 0;
+    }
+
+    /**
+     * Folds the whole journal and compares it with the stored counters. // Sečte celý journal a porovná jej
+     * s uloženými čítači.
+     *
+     * @param rebuild Write the journal's values over drifted rows and rebuild the rollups; {@code false} only
+     *                audits // Zapsat hodnoty journalu přes odchýlené řádky a přestavět souhrny; {@code false} jen ověří
+     * @return What was replayed and how much had drifted // Co bylo přehráno a kolik se odchýlilo
+     * @throws IllegalStateException A rebuild without a baseline would zero every vote cast before the journal //
+     *                               Přestavba bez výchozího stavu by vynulovala všechny hlasy starší než journal
+     */
+    public Report replay(boolean rebuild) {
+        if (rebuild && !hasBaseline()) {
+            throw new IllegalStateException("The vote journal has no baseline; seed it before a rebuild");
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Tally tally = fold(now);
+        List<Object[]> posts = driftedPosts(tally);
+        List<Object[]> comments = driftedComments(tally);
+        if (rebuild) {
+            write("UPDATE posts SET score = ?, upvotes = ?, downvotes = ?, hot_score = ?, controversy = ? "
+                    + "WHERE id = ?", posts);
+            write("UPDATE comments SET score = ?, upvotes = ?, downvotes = ?, controversy = ? WHERE id = ?", comments);
+            transactionTemplate.executeWithoutResult(status -> {
+                rebuildRollup("post_vote_hourly", tally.hourly, tally);
+                rebuildRollup("post_vote_daily", tally.daily, tally);
+            });
+        }
+        return new Report(tally.events, posts.size(), comments.size(), tally.hourly.size() + tally.daily.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Splits the journal into id ranges and folds them on a pool of workers. // Rozdělí journal na rozsahy id
+     * a sečte je na skupině pracovníků.
+     */
+    private Tally fold(LocalDateTime now) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM vote_events");
+        Tally total = new Tally(now, hourlyRetentionDays, dailyRetentionDays);
+        if (bounds.get("lo") == null) {
+            return total;
+        }
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+        int threads = replayThreads > 0 ? replayThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Tally>> parts = new ArrayList<>();
+            for (long from = lo; from <= hi; from += chunkSize) {
+                long start = from;
+                long end = Math.min(hi, from + chunkSize - 1);
+                parts.add(pool.submit(() -> foldRange(start, end, now)));
+            }
+            // Merged in range order on this thread, workers never share a map // Slučuje se v pořadí rozsahů na
+            // tomto vlákně, pracovníci nesdílejí žádnou mapu
+            for (Future<Tally> part : parts) {
+                total.merge(part.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Vote journal replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Vote journal replay failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return total;
+    }
+
+    private Tally foldRange(long from, long to, LocalDateTime now) {
+        Tally tally = new Tally(now, hourlyRetentionDays, dailyRetentionDays);
+        jdbcTemplate.query("SELECT post_id, comment_id, community_id, previous_vote, current_vote, created_at "
+                + "FROM vote_events WHERE id BETWEEN ? AND ?", tally::add, from, to);
+        return tally;
+    }
+
+    private List<Object[]> driftedPosts(Tally tally) {
+        List<Object[]> drifted = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, created_at, score, upvotes, downvotes FROM posts", rs -> {
+            long id = rs.getLong("id");
+            int[] votes = tally.posts.getOrDefault(id, NO_VOTES);
+            if (votes[0] != rs.getInt("score") || votes[1] != rs.getInt("upvotes") || votes[2] != rs.getInt("downvotes")) {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                drifted.add(new Object[]{votes[0], votes[1], votes[2],
+                        HotScore.of(votes[0], createdAt == null ? null : createdAt.toLocalDateTime()),
+                        ControversyScore.of(votes[1], votes[2]), id});
+            }
+        });
+        return drifted;
+    }
+
+    private List<Object[]> driftedComments(Tally tally) {
+        List<Object[]> drifted = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, score, upvotes, downvotes FROM comments", rs -> {
+            long id = rs.getLong("id");
+            int[] votes = tally.comments.getOrDefault(id, NO_VOTES);
+            if (votes[0] != rs.getInt("score") || votes[1] != rs.getInt("upvotes") || votes[2] != rs.getInt("downvotes")) {
+                drifted.add(new Object[]{votes[0], votes[1], votes[2], ControversyScore.of(votes[1], votes[2]), id});
+            }
+        });
+        return drifted;
+    }
+
+    private void write(String sql, List<Object[]> rows) {
+        for (int i = 0; i < rows.size(); i += WRITE_BATCH) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(i, Math.min(rows.size(), i + WRITE_BATCH)));
+        }
+    }
+
+    private void rebuildRollup(String table, Map<Bucket, int[]> buckets, Tally tally) {
+        jdbcTemplate.update("DELETE FROM " + table);
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Bucket, int[]> entry : buckets.entrySet()) {
+            Long communityId = tally.communities.get(entry.getKey().postId());
+            if (entry.getValue()[0] != 0 && communityId != null) {
+                rows.add(new Object[]{communityId, Timestamp.valueOf(entry.getKey().start()), entry.getValue()[0],
+                        entry.getKey().postId()});
+            }
+        }
+        // Selecting from posts skips buckets of deleted posts // Výběr z posts přeskočí buckety smazaných příspěvků
+        write("INSERT INTO " + table + " (post_id, community_id, bucket_start, delta) "
+                + "SELECT id, ?, ?, ? FROM posts WHERE id = ?", rows);
+    }
+
+    /**
+     * Outcome of one replay. // Výsledek jednoho přehrání.
+     *
+     * @param events Journal events folded // Počet sečtených událostí journalu
+     * @param driftedPosts Posts whose counters disagreed with the journal // Příspěvky, jejichž čítače nesouhlasily s journalem
+     * @param driftedComments Comments whose counters disagreed with the journal // Komentáře, jejichž čítače nesouhlasily s journalem
+     * @param rollupBuckets Rollup buckets inside the retention windows // Buckety souhrnů v rámci doby uchování
+     * @param millis Duration // Doba trvání
+     */
+    public record Report(long events, int driftedPosts, int driftedComments, int rollupBuckets, long millis) {
+    }
+
+    private record Bucket(Long postId, LocalDateTime start) {
+    }
+
+    /**
+     * Per-target sums of one range of the journal: score, upvotes and downvotes. // Součty jednoho rozsahu journalu
+     * po cílech: skóre, kladné a záporné hlasy.
+     */
+    private static final class Tally {
+        private final LocalDateTime hourlySince;
+        private final LocalDateTime dailySince;
+        private final Map<Long, int[]> posts = new HashMap<>();
+        private final Map<Long, int[]> comments = new HashMap<>();
+        private final Map<Bucket, int[]> hourly = new HashMap<>();
+        private final Map<Bucket, int[]> daily = new HashMap<>();
+        private final Map<Long, Long> communities = new HashMap<>();
+        private long events;
+
+        private Tally(LocalDateTime now, int hourlyRetentionDays, int dailyRetentionDays) {
+            this.hourlySince = now.minusDays(hourlyRetentionDays);
+            this.dailySince = now.minusDays(dailyRetentionDays);
+        }
+
+        private void add(ResultSet rs) throws SQLException {
+            events++;
+            int previous = rs.getInt("previous_vote");
+            int current = rs.getInt("current_vote");
+            int[] delta = {current - previous, count(current, 1) - count(previous, 1),
+                    count(current, -1) - count(previous, -1)};
+            long commentId = rs.getLong("comment_id");
+            if (!rs.wasNull()) {
+                sum(comments, commentId, delta);
+                return;
+            }
+            long postId = rs.getLong("post_id");
+            sum(posts, postId, delta);
+            long communityId = rs.getLong("community_id");
+            if (!rs.wasNull()) {
+                communities.put(postId, communityId);
+            }
+            LocalDateTime at = rs.getTimestamp("created_at").toLocalDateTime();
+            if (delta[0] != 0 && !at.isBefore(hourlySince)) {
+                sum(hourly, new Bucket(postId, at.truncatedTo(ChronoUnit.HOURS)), new int[]{delta[0]});
+            }
+            if (delta[0] != 0 && !at.isBefore(dailySince)) {
+                sum(daily, new Bucket(postId, at.truncatedTo(ChronoUnit.DAYS)), new int[]{delta[0]});
+            }
+        }
+
+        private void merge(Tally other) {
+            events += other.events;
+            other.posts.forEach((id, delta) -> sum(posts, id, delta));
+            other.comments.forEach((id, delta) -> sum(comments, id, delta));
+            other.hourly.forEach((bucket, delta) -> sum(hourly, bucket, delta));
+            other.daily.forEach((bucket, delta) -> sum(daily, bucket, delta));
+            communities.putAll(other.communities);
+        }
+
+        private static <K> void sum(Map<K, int[]> sums, K key, int[] delta) {
+            int[] total = sums.computeIfAbsent(key, k -> new int[delta.length]);
+            for (int i = 0; i < delta.length; i++) {
+                total[i] += delta[i];
+            }
+        }
+
+        private static int count(int vote, int type) {
+            return vote == type ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package discussionforum.sketch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct items in fixed memory. // Náčrt HyperLogLog odhadující počet
+ * různých prvků v pevné paměti.
+ * 2048 one-byte registers give a standard error of about 2.3 % at any count. Merging keeps the larger register, so
+ * sketches from several nodes or time buckets combine into the sketch of their union, and merging the same sketch
+ * twice changes nothing. // 2048 jednobajtových registrů dává směrodatnou chybu kolem 2,3 % při libovolném počtu.
+ * Sloučení ponechá větší registr, takže náčrty z více uzlů nebo časových bucketů dají náčrt jejich sjednocení
+ * a opakované sloučení téhož náčrtu nic nezmění.
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+public final class HyperLogLog {
+
+    /**
+     * Bits of the hash choosing the register. // Počet bitů hashe, které vybírají registr.
+     */
+    public static final int PRECISION = 11;
+
+    /**
+     * Length of the serialized form: the precision followed by the registers. // Délka serializované podoby: přesnost
+     * následovaná registry.
+     */
+    public static final int SERIALIZED_LENGTH = 1 + (1 << PRECISION);
+
+    private static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    /**
+     * Restores a sketch from its serialized form. // Obnoví náčrt z jeho serializované podoby.
+     *
+     * @param bytes Serialized sketch, or {@code null} for an empty one // Serializovaný náčrt, nebo {@code null} pro prázdný
+     * @return Sketch // Náčrt
+     * @throws IllegalArgumentException if the bytes are not a sketch of this precision // pokud bajty nejsou náčrt této přesnosti
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null) {
+            return sketch;
+        }
+        if (bytes.length != SERIALIZED_LENGTH || bytes[0] != PRECISION) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        System.arraycopy(bytes, 1, sketch.registers, 0, REGISTERS);
+        return sketch;
+    }
+
+    /**
+     * Adds an item; adding it again has no effect. // Přidá prvek; opakované přidání nemá žádný účinek.
+     *
+     * @param item Item, e.g. a viewer key // Prvek, např. klíč uživatele
+     */
+    public synchronized void offer(String item) {
+        long hash = hash(item);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Position of the first set bit after the index bits, capped when they are all zero // Pozice prvního
+        // nastaveného bitu za bity indexu, omezená, pokud jsou všechny nulové
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), Long.SIZE - PRECISION) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merges another sketch into this one, giving the sketch of their union. // Sloučí jiný náčrt do tohoto, výsledkem
+     * je náčrt jejich sjednocení.
+     *
+     * @param other Sketch to merge // Náčrt ke sloučení
+     */
+    public void merge(HyperLogLog other) {
+        byte[] theirs = other.snapshot();
+        synchronized (this) {
+            for (int i = 0; i < REGISTERS; i++) {
+                if (theirs[i] > registers[i]) {
+                    registers[i] = theirs[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimated number of distinct items added. // Odhadovaný počet přidaných různých prvků.
+     */
+    public synchronized long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1d / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate while many registers are empty // Lineární počítání je přesnější,
+            // dokud je mnoho registrů prázdných
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Compact serialized form for storage. // Kompaktní serializovaná podoba pro uložení.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[SERIALIZED_LENGTH];
+        bytes[0] = PRECISION;
+        System.arraycopy(snapshot(), 0, bytes, 1, REGISTERS);
+        return bytes;
+    }
+
+    private synchronized byte[] snapshot() {
+        return Arrays.copyOf(registers, REGISTERS);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so every bit depends on the whole item.
+     * // 64bitový FNV-1a nad bajty UTF-8, dokončený mixérem MurmurHash3, aby každý bit závisel na celém prvku.
+     */
+    static long hash(String item) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
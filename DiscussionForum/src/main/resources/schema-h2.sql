@@ -30,23 +30,51 @@ CREATE TABLE IF NOT EXISTS posts (
     content CLOB NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     score INTEGER DEFAULT 0,
+    hot_score DOUBLE NOT NULL DEFAULT 0,
+    upvotes INTEGER NOT NULL DEFAULT 0,
+    downvotes INTEGER NOT NULL DEFAULT 0,
+    controversy DOUBLE NOT NULL DEFAULT 0,
+    comment_count INTEGER NOT NULL DEFAULT 0,
     author_id BIGINT NOT NULL,
     community_id BIGINT NOT NULL,
     FOREIGN KEY (author_id) REFERENCES users(id),
     FOREIGN KEY (community_id) REFERENCES communities(id)
 );
 
+-- Hot feed indexes (single index range scan per hot page)
+CREATE INDEX IF NOT EXISTS idx_posts_hot_score ON posts (hot_score);
+CREATE INDEX IF NOT EXISTS idx_posts_community_hot_score ON posts (community_id, hot_score);
+
+-- Keyset pagination indexes for the "new" and "top" feeds
+CREATE INDEX IF NOT EXISTS idx_posts_created_at ON posts (created_at);
+CREATE INDEX IF NOT EXISTS idx_posts_community_created_at ON posts (community_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_posts_score ON posts (score);
+CREATE INDEX IF NOT EXISTS idx_posts_community_score ON posts (community_id, score);
+
+-- Controversial feed indexes, score derived from upvotes and downvotes
+CREATE INDEX IF NOT EXISTS idx_posts_controversy ON posts (controversy);
+CREATE INDEX IF NOT EXISTS idx_posts_community_controversy ON posts (community_id, controversy);
+
 -- Comments table
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     content CLOB NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    score INTEGER NOT NULL DEFAULT 0,
+    upvotes INTEGER NOT NULL DEFAULT 0,
+    downvotes INTEGER NOT NULL DEFAULT 0,
+    controversy DOUBLE NOT NULL DEFAULT 0,
     post_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
     FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
     FOREIGN KEY (author_id) REFERENCES users(id)
 );
 
+-- Comment thread orders within a post
+CREATE INDEX IF NOT EXISTS idx_comments_post_created_at ON comments (post_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_comments_post_score ON comments (post_id, score);
+CREATE INDEX IF NOT EXISTS idx_comments_post_controversy ON comments (post_id, controversy);
+
 -- Votes table
 CREATE TABLE IF NOT EXISTS votes (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -58,6 +86,70 @@ CREATE TABLE IF NOT EXISTS votes (
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+-- Per-post net vote change per hour, summed by the windowed top sorts
+CREATE TABLE IF NOT EXISTS post_vote_hourly (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    community_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    delta INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_post_vote_hourly_window ON post_vote_hourly (bucket_start, post_id, delta);
+CREATE INDEX IF NOT EXISTS idx_post_vote_hourly_community_window ON post_vote_hourly (community_id, bucket_start, post_id, delta);
+
+-- Per-post net vote change per day, summed by the windowed top sorts
+CREATE TABLE IF NOT EXISTS post_vote_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    community_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    delta INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_post_vote_daily_window ON post_vote_daily (bucket_start, post_id, delta);
+CREATE INDEX IF NOT EXISTS idx_post_vote_daily_community_window ON post_vote_daily (community_id, bucket_start, post_id, delta);
+
+-- Per-post view counts and all-time viewer sketch, written behind by PostViewCounter and UniqueViewerCounter
+CREATE TABLE IF NOT EXISTS post_stats (
+    post_id BIGINT PRIMARY KEY,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    viewer_sketch VARBINARY(2049),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+-- Per-post HyperLogLog of the viewers of one day, merged for windowed unique viewer estimates
+CREATE TABLE IF NOT EXISTS post_viewer_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sketch VARBINARY(2049) NOT NULL,
+    UNIQUE(post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_post_viewer_daily_window ON post_viewer_daily (bucket_start);
+
+-- Append-only journal of vote changes on posts and comments, replayed by VoteJournalReplay to rebuild scores
+CREATE TABLE IF NOT EXISTS vote_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    comment_id BIGINT,
+    community_id BIGINT,
+    user_id BIGINT NOT NULL,
+    previous_vote TINYINT NOT NULL,
+    current_vote TINYINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Single row written when the journal was seeded with the votes stored before it, required by a rebuild
+CREATE TABLE IF NOT EXISTS vote_journal_baseline (
+    id BIGINT PRIMARY KEY,
+    seeded_at TIMESTAMP NOT NULL,
+    events INTEGER NOT NULL
+);
+
 -- Join table for many-to-many relationship between users and roles
 CREATE TABLE IF NOT EXISTS user_roles (
     user_id BIGINT NOT NULL,
@@ -30,10 +30,26 @@ CREATE TABLE IF NOT EXISTS posts (
     content TEXT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     score INTEGER DEFAULT 0,
+    hot_score DOUBLE NOT NULL DEFAULT 0,
+    upvotes INTEGER NOT NULL DEFAULT 0,
+    downvotes INTEGER NOT NULL DEFAULT 0,
+    controversy DOUBLE NOT NULL DEFAULT 0,
+    comment_count INTEGER NOT NULL DEFAULT 0,
     author_id BIGINT NOT NULL,
     community_id BIGINT NOT NULL,
     FOREIGN KEY (author_id) REFERENCES users(id),
-    FOREIGN KEY (community_id) REFERENCES communities(id)
+    FOREIGN KEY (community_id) REFERENCES communities(id),
+    -- Hot feed indexes (single index range scan per hot page)
+    INDEX idx_posts_hot_score (hot_score),
+    INDEX idx_posts_community_hot_score (community_id, hot_score),
+    -- Keyset pagination indexes for the "new" and "top" feeds
+    INDEX idx_posts_created_at (created_at),
+    INDEX idx_posts_community_created_at (community_id, created_at),
+    INDEX idx_posts_score (score),
+    INDEX idx_posts_community_score (community_id, score),
+    -- Controversial feed indexes, score derived from upvotes and downvotes
+    INDEX idx_posts_controversy (controversy),
+    INDEX idx_posts_community_controversy (community_id, controversy)
 );
 
 -- Comments table
@@ -41,10 +57,18 @@ CREATE TABLE IF NOT EXISTS comments (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     content TEXT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    score INTEGER NOT NULL DEFAULT 0,
+    upvotes INTEGER NOT NULL DEFAULT 0,
+    downvotes INTEGER NOT NULL DEFAULT 0,
+    controversy DOUBLE NOT NULL DEFAULT 0,
     post_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
     FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
-    FOREIGN KEY (author_id) REFERENCES users(id)
+    FOREIGN KEY (author_id) REFERENCES users(id),
+    -- Comment thread orders within a post
+    INDEX idx_comments_post_created_at (post_id, created_at),
+    INDEX idx_comments_post_score (post_id, score),
+    INDEX idx_comments_post_controversy (post_id, controversy)
 );
 
 -- Votes table
@@ -58,6 +82,70 @@ CREATE TABLE IF NOT EXISTS votes (
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+-- Per-post net vote change per hour, summed by the windowed top sorts
+CREATE TABLE IF NOT EXISTS post_vote_hourly (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    community_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    delta INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_post_vote_hourly_window (bucket_start, post_id, delta),
+    INDEX idx_post_vote_hourly_community_window (community_id, bucket_start, post_id, delta)
+);
+
+-- Per-post net vote change per day, summed by the windowed top sorts
+CREATE TABLE IF NOT EXISTS post_vote_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    community_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    delta INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_post_vote_daily_window (bucket_start, post_id, delta),
+    INDEX idx_post_vote_daily_community_window (community_id, bucket_start, post_id, delta)
+);
+
+-- Per-post view counts and all-time viewer sketch, written behind by PostViewCounter and UniqueViewerCounter
+CREATE TABLE IF NOT EXISTS post_stats (
+    post_id BIGINT PRIMARY KEY,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    viewer_sketch VARBINARY(2049),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+-- Per-post HyperLogLog of the viewers of one day, merged for windowed unique viewer estimates
+CREATE TABLE IF NOT EXISTS post_viewer_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sketch VARBINARY(2049) NOT NULL,
+    UNIQUE(post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_post_viewer_daily_window (bucket_start)
+);
+
+-- Append-only journal of vote changes on posts and comments, replayed by VoteJournalReplay to rebuild scores
+CREATE TABLE IF NOT EXISTS vote_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    comment_id BIGINT,
+    community_id BIGINT,
+    user_id BIGINT NOT NULL,
+    previous_vote TINYINT NOT NULL,
+    current_vote TINYINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Single row written when the journal was seeded with the votes stored before it, required by a rebuild
+CREATE TABLE IF NOT EXISTS vote_journal_baseline (
+    id BIGINT PRIMARY KEY,
+    seeded_at TIMESTAMP NOT NULL,
+    events INTEGER NOT NULL
+);
+
 -- Join table for many-to-many relationship between users and roles
 CREATE TABLE IF NOT EXISTS user_roles (
     user_id BIGINT NOT NULL,
@@ -168,23 +168,124 @@ document.addEventListener('DOMContentLoaded', function() {
     }
 
     // Infinite Scroll Implementation // Implementace nekonečného rolování
-    // Future feature: Load more content as user scrolls // Budoucí funkce: Načíst více obsahu při rolování uživatele
+    // Load the next posts of a feed as JSON and append cards cloned from a rendered one // Načíst další příspěvky feedu jako JSON a připojit karty naklonované z vykreslené karty
+    const postsFeed = document.querySelector('.posts-feed[data-next-cursor]');
     let isLoading = false;
     
     function handleScroll() {
-        if (isLoading) return;
+        if (isLoading || !postsFeed || !postsFeed.dataset.nextCursor) return;
         
         const scrollPosition = window.innerHeight + window.scrollY;
         const documentHeight = document.documentElement.offsetHeight;
         
         if (scrollPosition >= documentHeight - 1000) {
-            // Load more content
             isLoading = true;
-            // Implement infinite scroll here
-            setTimeout(() => {
+            loadMorePosts().finally(() => {
                 isLoading = false;
-            }, 1000);
+            });
+        }
+    }
+    
+    function loadMorePosts() {
+        const params = new URLSearchParams({
+            after: postsFeed.dataset.nextCursor,
+            sort: postsFeed.dataset.sort || 'hot'
+        });
+        if (postsFeed.dataset.feed) {
+            params.set('feed', postsFeed.dataset.feed);
+        }
+        if (postsFeed.dataset.community) {
+            params.set('community', postsFeed.dataset.community);
+        }
+        
+        return fetch(`/api/feed?${params}`, {
+            headers: { 'Accept': 'application/json' }
+        })
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`HTTP error! status: ${response.status}`);
+            }
+            return response.json();
+        })
+        .then(data => {
+            const cards = postsFeed.querySelectorAll('.post-card');
+            const template = cards[cards.length - 1];
+            let anchor = template;
+            data.content.forEach(post => {
+                const card = buildPostCard(template, post);
+                anchor.after(card);
+                anchor = card;
+            });
+            
+            if (data.nextCursor) {
+                postsFeed.dataset.nextCursor = data.nextCursor;
+            } else {
+                delete postsFeed.dataset.nextCursor;
+            }
+            // Page links no longer match what is shown // Odkazy na stránky už neodpovídají zobrazenému obsahu
+            postsFeed.querySelectorAll('nav').forEach(nav => nav.remove());
+        })
+        .catch(error => {
+            // Stop scrolling and leave the page links in place // Zastavit rolování a ponechat odkazy na stránky
+            delete postsFeed.dataset.nextCursor;
+        });
+    }
+    
+    function buildPostCard(template, post) {
+        const card = template.cloneNode(true);
+        const setText = (field, text) => card.querySelectorAll(`[data-field="${field}"]`)
+            .forEach(element => element.textContent = text);
+        
+        card.querySelectorAll('form[data-vote]').forEach(form => {
+            form.action = `/posts/${post.id}/${form.dataset.vote}`;
+            // The viewer's own vote, never the one copied from the cloned card // Vlastní hlas uživatele, nikdy hlas zkopírovaný z klonované karty
+            const button = form.querySelector('.vote-btn');
+            if (button) {
+                button.classList.toggle('voted', post.vote === form.dataset.vote.toUpperCase());
+            }
+        });
+        setText('score', post.score);
+        setText('author', 'u/' + (post.authorDisplayName || post.authorUsername));
+        setText('created', formatCreatedAt(post.createdAt));
+        setText('title', post.title);
+        card.querySelectorAll('[data-field="title"]').forEach(link => link.href = `/posts/${post.id}`);
+        
+        const community = card.querySelector('[data-field="community"]');
+        if (community) {
+            community.href = `/c/${encodeURIComponent(post.communityName)}`;
+            community.querySelector('span').textContent = post.communityName;
+        }
+        
+        // Same rule as the server: preview only content longer than the excerpt // Stejné pravidlo jako na serveru: náhled jen u obsahu delšího než úryvek
+        const preview = card.querySelector('[data-field="preview"]');
+        if (preview) {
+            const longer = post.excerpt && post.excerpt.length > 200;
+            preview.classList.toggle('d-none', !longer);
+            preview.querySelector('p').textContent = longer ? post.excerpt.substring(0, 197) + '...' : '';
+        }
+        
+        const comments = card.querySelector('[data-field="comments"]');
+        if (comments) {
+            comments.href = `/posts/${post.id}`;
+            comments.querySelector('span').textContent = post.commentCount + ' Comments';
+        }
+        
+        const saveButton = card.querySelector('.save-post-btn');
+        if (saveButton) {
+            saveButton.setAttribute('onclick', `toggleSavePost(${post.id}); return false;`);
+            saveButton.classList.toggle('saved', post.saved === true);
+            saveButton.style.color = '';
+            saveButton.querySelector('i').className = 'fas fa-bookmark';
         }
+        return card;
+    }
+    
+    function formatCreatedAt(createdAt) {
+        // Server time without zone, formatted like the rendered cards: dd.MM.yy HH:mm // Čas serveru bez zóny ve formátu vykreslených karet
+        if (!createdAt) return '';
+        const [date, time] = createdAt.split('T');
+        const [year, month, day] = date.split('-');
+        return `${day}.${month}.${year.substring(2)} ${time.substring(0, 5)}`;
     }
     
     window.addEventListener('scroll', handleScroll);
@@ -253,6 +354,16 @@ document.addEventListener('DOMContentLoaded', function() {
         });
     }
 
+    // Post Voting Event Delegation // Delegace událostí hlasování příspěvků
+    // Vote forms post in the background instead of reloading the page; delegated so cards added by infinite scroll are covered // Formuláře hlasování se odesílají na pozadí místo znovunačtení stránky; delegováno, aby zahrnulo i karty přidané nekonečným rolováním
+    document.addEventListener('submit', function(e) {
+        const form = e.target.closest('form[data-vote]');
+        if (form) {
+            e.preventDefault();
+            window.votePost(form);
+        }
+    });
+
     // Comment Voting Event Delegation // Delegace událostí hlasování komentářů
     // Handle comment voting with event delegation for dynamic content // Zpracovat hlasování komentářů s delegací událostí pro dynamický obsah
     document.addEventListener('click', function(e) {
@@ -294,6 +405,149 @@ document.addEventListener('DOMContentLoaded', function() {
 // Global Function Definitions // Definice globálních funkcí
 // Make functions globally available for dynamic content interaction // Zpřístupnit funkce globálně pro interakci s dynamickým obsahem
 
+/**
+ * Client Action Queue // Fronta akcí klienta
+ * Collects votes, saves and joins for a short moment and sends them to /api/actions in one request // Sbírá hlasy, uložení a připojení po krátkou dobu a odesílá je na /api/actions v jednom požadavku
+ * Saves and joins name the state they want, so later clicks on the same target replace earlier ones; votes toggle, so every vote click is sent in order // Uložení a připojení určují požadovaný stav, takže pozdější kliknutí na stejný cíl nahradí dřívější; hlasy se přepínají, proto se každé kliknutí odešle v pořadí
+ */
+window.forumActions = (function() {
+    const DEBOUNCE_MS = 150;
+    const MAX_BATCH = 50;
+    let queue = [];
+    let timer = null;
+    
+    function keyOf(action) {
+        switch (action.type) {
+            case 'SAVE':
+            case 'UNSAVE':
+                return 'save:' + action.postId;
+            case 'JOIN':
+            case 'LEAVE':
+                return 'join:' + action.community;
+            default:
+                return null;
+        }
+    }
+    
+    function headers() {
+        const csrfToken = document.querySelector('meta[name="_csrf"]')?.getAttribute('content');
+        const csrfHeaderName = document.querySelector('meta[name="_csrf_header"]')?.getAttribute('content') || 'X-CSRF-TOKEN';
+        const result = {
+            'Content-Type': 'application/json',
+            'X-Requested-With': 'XMLHttpRequest'
+        };
+        if (csrfToken && csrfHeaderName) {
+            result[csrfHeaderName] = csrfToken;
+        }
+        return result;
+    }
+    
+    function send() {
+        clearTimeout(timer);
+        timer = null;
+        const batch = queue.splice(0, MAX_BATCH);
+        if (batch.length === 0) {
+            return;
+        }
+        if (queue.length > 0) {
+            timer = setTimeout(send, DEBOUNCE_MS);
+        }
+        
+        // keepalive lets a batch sent while leaving the page still arrive // keepalive umožní doručit dávku odeslanou při opouštění stránky
+        fetch('/api/actions', {
+            method: 'POST',
+            headers: headers(),
+            body: JSON.stringify(batch.map(entry => entry.action)),
+            keepalive: true
+        })
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`HTTP error! status: ${response.status}`);
+            }
+            return response.json();
+        })
+        .then(data => {
+            // Every click waiting on a coalesced action gets its final result // Každé kliknutí čekající na sloučenou akci dostane její konečný výsledek
+            batch.forEach((entry, i) => {
+                const result = Object.assign({type: entry.action.type}, data.results[i]);
+                entry.waiters.forEach(waiter => waiter.resolve(result));
+            });
+        })
+        .catch(error => {
+            batch.forEach(entry => entry.waiters.forEach(waiter => waiter.reject(error)));
+        });
+    }
+    
+    // Clicks still waiting are sent before the page goes away // Čekající kliknutí se odešlou před opuštěním stránky
+    window.addEventListener('pagehide', send);
+    
+    return {
+        /**
+         * Queues one action // Zařadí jednu akci do fronty
+         * @param {Object} action - {type, postId} or {type, community} // {type, postId} nebo {type, community}
+         * @returns {Promise<Object>} Result of the action as applied, with the type actually sent // Výsledek provedené akce s typem, který byl skutečně odeslán
+         */
+        enqueue: function(action) {
+            return new Promise((resolve, reject) => {
+                const key = keyOf(action);
+                const existing = key ? queue.find(entry => entry.key === key) : null;
+                if (existing) {
+                    existing.action = action;
+                    existing.waiters.push({resolve, reject});
+                } else {
+                    queue.push({action, key, waiters: [{resolve, reject}]});
+                }
+                clearTimeout(timer);
+                if (queue.length >= MAX_BATCH) {
+                    send();
+                } else {
+                    timer = setTimeout(send, DEBOUNCE_MS);
+                }
+            });
+        },
+        flush: send
+    };
+})();
+
+/**
+ * Post Voting Function // Funkce hlasování příspěvků
+ * Queues a post vote and updates the score and both vote buttons from its result // Zařadí hlas pro příspěvek a podle výsledku aktualizuje skóre a obě tlačítka hlasování
+ * @param {Element} form - Vote form that was submitted // Odeslaný formulář hlasování
+ */
+window.votePost = function(form) {
+    const match = form.getAttribute('action').match(/\/posts\/(\d+)\//);
+    if (!match) {
+        return;
+    }
+    const section = form.closest('.vote-section');
+    const button = form.querySelector('.vote-btn');
+    
+    window.forumActions.enqueue({type: form.dataset.vote.toUpperCase(), postId: Number(match[1])})
+    .then(result => {
+        if (!result.success) {
+            throw new Error(result.message);
+        }
+        if (section) {
+            section.querySelectorAll('.vote-score').forEach(score => score.textContent = result.score);
+            section.querySelectorAll('form[data-vote]').forEach(voteForm => {
+                const voteButton = voteForm.querySelector('.vote-btn');
+                if (voteButton) {
+                    voteButton.classList.toggle('voted', result.vote === voteForm.dataset.vote.toUpperCase());
+                }
+            });
+        }
+    })
+    .catch(error => {
+        // Subtle error indication
+        if (button) {
+            button.style.color = '#ef4444';
+            setTimeout(() => {
+                button.style.color = '';
+            }, 500);
+        }
+    });
+};
+
 /**
  * Comment Voting Function // Funkce hlasování komentářů
  * Handles AJAX voting for comments with visual feedback // Zpracovává AJAX hlasování komentářů s vizuální zpětnou vazbou
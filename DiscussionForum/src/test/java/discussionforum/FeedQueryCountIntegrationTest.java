@@ -0,0 +1,140 @@
+package discussionforum;
+
+import discussionforum.model.Community;
+import discussionforum.model.Post;
+import discussionforum.model.PostSummary;
+import discussionforum.model.User;
+import discussionforum.repository.CommunityRepository;
+import discussionforum.repository.PostRepository;
+import discussionforum.repository.UserRepository;
+import discussionforum.service.PostService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the number of SQL statements a feed page costs // Integrační test počtu SQL příkazů,
+ * které stojí stránka feedu
+ * Guards against N+1 selects: the count must not grow with the page size
+ * Hlídá N+1 dotazy: počet nesmí růst s velikostí stránky
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:querycount",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional
+class FeedQueryCountIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Seed posts spread over several authors and communities // Vytvořit příspěvky od více autorů ve více komunitách
+        for (int i = 0; i < 4; i++) {
+            User author = new User();
+            author.setUsername("counter" + i);
+            author.setPassword("password");
+            author.setEmail("counter" + i + "@example.com");
+            userRepository.save(author);
+
+            Community community = new Community();
+            community.setName("countcommunity" + i);
+            communityRepository.save(community);
+
+            for (int j = 0; j < 4; j++) {
+                Post post = new Post();
+                post.setTitle("Post " + i + "/" + j);
+                post.setContent("Content " + i + "/" + j);
+                post.setAuthor(author);
+                post.setCommunity(community);
+                post.setAttachmentUrls(Set.of("/uploads/" + i + "-" + j + ".png"));
+                postRepository.save(post);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void feedPage_ShouldCostSameNumberOfQueries_ForAnyPageSize() {
+        // Arrange // Příprava
+        postService.feed(0, 1, "new"); // Warm the feed index // Zahřát index feedu
+
+        // Act // Akce
+        long small = statementsFor(() -> postService.feed(0, 2, "new").getContent().forEach(this::render));
+        long large = statementsFor(() -> postService.feed(0, 12, "new").getContent().forEach(this::render));
+
+        // Assert // Ověření
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void entityPage_ShouldFetchAuthorsCommunitiesAndAttachmentsInFixedQueries() {
+        // Act // Akce
+        long statements = statementsFor(() -> {
+            Page<Post> page = postRepository.findAll(PageRequest.of(0, 12));
+            page.forEach(post -> {
+                post.getAuthor().getUsername();
+                post.getCommunity().getName();
+                post.getAttachmentUrls().size();
+            });
+        });
+
+        // Assert // Ověření
+        // Page with joins, count, one batch of attachments // Stránka se spojeními, počet, jedna dávka příloh
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    private void render(PostSummary post) {
+        post.getAuthorUsername();
+        post.getCommunityName();
+    }
+
+    private long statementsFor(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,180 @@
+package discussionforum;
+
+import discussionforum.model.Comment;
+import discussionforum.model.Community;
+import discussionforum.model.Post;
+import discussionforum.model.User;
+import discussionforum.model.VoteType;
+import discussionforum.ranking.HotScore;
+import discussionforum.repository.CommentRepository;
+import discussionforum.repository.CommunityRepository;
+import discussionforum.repository.PostRepository;
+import discussionforum.repository.UserRepository;
+import discussionforum.repository.VoteRepository;
+import discussionforum.service.CommentService;
+import discussionforum.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for votes cast concurrently on one hot post and comment // Integrační test souběžných hlasů na
+ * jeden příspěvek a komentář
+ * Every vote must land exactly once in the score and the counters
+ * Každý hlas se musí do skóre a čítačů promítnout právě jednou
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:voterace",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class VoteConcurrencyIntegrationTest {
+
+    private static final int VOTERS = 40;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Long postId;
+    private Long commentId;
+    private List<String> voters;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime(), 36);
+        Community community = new Community();
+        community.setName("race" + run);
+        communityRepository.save(community);
+
+        User author = newUser("author" + run);
+        Post post = new Post();
+        post.setTitle("Hot post");
+        post.setContent("Everybody votes here");
+        post.setAuthor(author);
+        post.setCommunity(community);
+        postId = postRepository.save(post).getId();
+
+        Comment comment = new Comment();
+        comment.setContent("Everybody votes here too");
+        comment.setAuthor(author);
+        comment.setPost(post);
+        commentId = commentRepository.save(comment).getId();
+
+        voters = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            voters.add(newUser("v" + i + run).getUsername());
+        }
+    }
+
+    @Test
+    void vote_ShouldCountEveryVote_WhenVotersRaceOnOnePost() throws Exception {
+        // Act // Akce
+        runConcurrently(i -> postService.vote(postId, voters.get(i), i % 4 == 0 ? VoteType.DOWNVOTE : VoteType.UPVOTE));
+
+        // Assert // Ověření
+        Post post = postRepository.findById(postId).orElseThrow();
+        assertThat(post.getUpvotes()).isEqualTo(30);
+        assertThat(post.getDownvotes()).isEqualTo(10);
+        assertThat(post.getScore()).isEqualTo(20);
+        assertThat(post.getHotScore()).isEqualTo(HotScore.of(20, post.getCreatedAt()));
+        assertThat(voteRepository.countByPostIdAndType(postId, VoteType.UPVOTE)).isEqualTo(30);
+        assertThat(voteRepository.countByPostIdAndType(postId, VoteType.DOWNVOTE)).isEqualTo(10);
+    }
+
+    @Test
+    void vote_ShouldStayExact_WhenVotersSwitchAndWithdrawConcurrently() throws Exception {
+        // Arrange // Příprava
+        runConcurrently(i -> postService.vote(postId, voters.get(i), VoteType.UPVOTE));
+
+        // Act: even voters switch to a downvote, odd voters withdraw // Akce: sudí přepnou na záporný, lichí hlas odeberou
+        runConcurrently(i -> postService.vote(postId, voters.get(i), i % 2 == 0 ? VoteType.DOWNVOTE : VoteType.UPVOTE));
+
+        // Assert // Ověření
+        Post post = postRepository.findById(postId).orElseThrow();
+        assertThat(post.getUpvotes()).isZero();
+        assertThat(post.getDownvotes()).isEqualTo(VOTERS / 2);
+        assertThat(post.getScore()).isEqualTo(-VOTERS / 2);
+        assertThat(voteRepository.countByPostIdAndType(postId, VoteType.DOWNVOTE)).isEqualTo(VOTERS / 2);
+    }
+
+    @Test
+    void voteComment_ShouldCountEveryVote_WhenVotersSwitchAndWithdrawConcurrently() throws Exception {
+        // Arrange // Příprava
+        runConcurrently(i -> commentService.voteComment(commentId, voters.get(i), i % 4 == 0 ? VoteType.DOWNVOTE : VoteType.UPVOTE));
+
+        // Act: every third voter repeats the vote and withdraws it // Akce: každý třetí uživatel hlas zopakuje a tím odebere
+        runConcurrently(i -> i % 3 == 0
+                ? commentService.voteComment(commentId, voters.get(i), i % 4 == 0 ? VoteType.DOWNVOTE : VoteType.UPVOTE)
+                : 0);
+
+        // Assert: 30 up and 10 down, minus 10 and 4 withdrawn // Ověření: 30 kladných a 10 záporných, bez 10 a 4 odebraných
+        Comment comment = commentRepository.findById(commentId).orElseThrow();
+        assertThat(comment.getUpvotes()).isEqualTo(20);
+        assertThat(comment.getDownvotes()).isEqualTo(6);
+        assertThat(comment.getScore()).isEqualTo(14);
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setEmail(username + "@example.com");
+        return userRepository.save(user);
+    }
+
+    private void runConcurrently(VoteAction action) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < VOTERS; i++) {
+                int voter = i;
+                tasks.add(() -> action.vote(voter));
+            }
+            for (Future<Object> result : pool.invokeAll(tasks)) {
+                result.get(); // Rethrows any failed vote // Znovu vyhodí případnou chybu hlasu
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface VoteAction {
+        Object vote(int voter);
+    }
+}
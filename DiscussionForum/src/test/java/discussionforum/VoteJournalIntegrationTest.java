@@ -0,0 +1,207 @@
+package discussionforum;
+
+import discussionforum.model.Comment;
+import discussionforum.model.CommentRequestDTO;
+import discussionforum.model.Community;
+import discussionforum.model.Post;
+import discussionforum.model.User;
+import discussionforum.model.VoteType;
+import discussionforum.repository.CommunityRepository;
+import discussionforum.repository.PostRepository;
+import discussionforum.repository.UserRepository;
+import discussionforum.service.CommentService;
+import discussionforum.service.PostService;
+import discussionforum.service.VoteJournalReplay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration test for the vote journal and its replay // Integrační test journalu hlasů a jeho přehrání
+ * Counters corrupted behind the application's back must be found by an audit and restored by a rebuild
+ * Čítače poškozené mimo aplikaci musí audit najít a přestavba obnovit
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:votejournal",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "forum.votes.journal.replay-threads=4",
+    "forum.votes.journal.replay-chunk-size=2"
+})
+class VoteJournalIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private VoteJournalReplay voteJournalReplay;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long postId;
+    private Long commentId;
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        // Every test starts from a journal that matches the stored votes // Každý test začíná s journalem odpovídajícím uloženým hlasům
+        jdbcTemplate.update("DELETE FROM vote_events");
+        jdbcTemplate.update("DELETE FROM vote_journal_baseline");
+        voteJournalReplay.seedBaseline();
+        run = Long.toString(System.nanoTime(), 36);
+        Community community = new Community();
+        community.setName("journal" + run);
+        communityRepository.save(community);
+
+        User author = newUser("author" + run);
+        Post post = new Post();
+        post.setTitle("Journaled post");
+        post.setContent("Votes are replayed here");
+        post.setAuthor(author);
+        post.setCommunity(community);
+        postId = postRepository.save(post).getId();
+
+        CommentRequestDTO request = new CommentRequestDTO();
+        request.setPostId(postId);
+        request.setContent("Journaled comment");
+        Comment comment = commentService.add(request, author.getUsername());
+        commentId = comment.getId();
+    }
+
+    @Test
+    void replay_ShouldRestoreCorruptedCounters_FromJournal() {
+        // Arrange: up, up, down, then one switch and one withdrawal // Příprava: nahoru, nahoru, dolů, pak přepnutí a odebrání
+        for (String voter : new String[]{"a", "b", "c"}) {
+            newUser(voter + run);
+        }
+        postService.vote(postId, "a" + run, VoteType.UPVOTE);
+        postService.vote(postId, "b" + run, VoteType.UPVOTE);
+        postService.vote(postId, "c" + run, VoteType.DOWNVOTE);
+        postService.vote(postId, "b" + run, VoteType.DOWNVOTE);
+        postService.vote(postId, "a" + run, VoteType.UPVOTE);
+        commentService.voteComment(commentId, "a" + run, VoteType.UPVOTE);
+        commentService.voteComment(commentId, "b" + run, VoteType.UPVOTE);
+        jdbcTemplate.update("UPDATE posts SET score = 99, upvotes = 7 WHERE id = ?", postId);
+        jdbcTemplate.update("UPDATE comments SET score = -5 WHERE id = ?", commentId);
+        jdbcTemplate.update("DELETE FROM post_vote_hourly WHERE post_id = ?", postId);
+
+        // Act // Akce
+        VoteJournalReplay.Report audit = voteJournalReplay.replay(false);
+        VoteJournalReplay.Report rebuild = voteJournalReplay.replay(true);
+        VoteJournalReplay.Report clean = voteJournalReplay.replay(false);
+
+        // Assert // Ověření
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vote_events WHERE post_id = ?", Long.class, postId))
+                .isEqualTo(7);
+        assertThat(audit.events()).isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vote_events", Long.class));
+        assertThat(audit.driftedPosts()).isEqualTo(1);
+        assertThat(audit.driftedComments()).isEqualTo(1);
+        assertThat(rebuild.driftedPosts()).isEqualTo(1);
+        assertThat(postScore("posts", postId)).isEqualTo(-2);
+        assertThat(jdbcTemplate.queryForObject("SELECT upvotes FROM posts WHERE id = ?", Integer.class, postId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT downvotes FROM posts WHERE id = ?", Integer.class, postId))
+                .isEqualTo(2);
+        assertThat(postScore("comments", commentId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(delta) FROM post_vote_hourly WHERE post_id = ?",
+                Integer.class, postId)).isEqualTo(-2);
+        assertThat(clean.driftedPosts()).isZero();
+        assertThat(clean.driftedComments()).isZero();
+    }
+
+    @Test
+    void seedBaseline_ShouldJournalStoredVotes_OnlyOnce() {
+        // Arrange: votes stored before the journal existed // Příprava: hlasy uložené před vznikem journalu
+        newUser("d" + run);
+        postService.vote(postId, "d" + run, VoteType.DOWNVOTE);
+        commentService.voteComment(commentId, "d" + run, VoteType.DOWNVOTE);
+        jdbcTemplate.update("DELETE FROM vote_events");
+        jdbcTemplate.update("DELETE FROM vote_journal_baseline");
+
+        // Act // Akce
+        int seeded = voteJournalReplay.seedBaseline();
+        int again = voteJournalReplay.seedBaseline();
+
+        // Assert // Ověření
+        assertThat(seeded).isGreaterThanOrEqualTo(2);
+        assertThat(again).isZero();
+        assertThat(voteJournalReplay.replay(false).driftedPosts()).isZero();
+        assertThat(voteJournalReplay.replay(false).driftedComments()).isZero();
+    }
+
+    @Test
+    void seedBaseline_ShouldNotCountTwice_VotesJournaledBeforeSeeding() {
+        // Arrange: old votes, then live traffic journaled before the seeding ran // Příprava: staré hlasy, pak provoz
+        // zapsaný do journalu dřív, než proběhlo naplnění
+        for (String voter : new String[]{"e", "f", "g"}) {
+            newUser(voter + run);
+        }
+        postService.vote(postId, "e" + run, VoteType.UPVOTE);
+        postService.vote(postId, "f" + run, VoteType.UPVOTE);
+        commentService.voteComment(commentId, "e" + run, VoteType.UPVOTE);
+        jdbcTemplate.update("DELETE FROM vote_events");
+        jdbcTemplate.update("DELETE FROM vote_journal_baseline");
+        postService.vote(postId, "e" + run, VoteType.DOWNVOTE);
+        postService.vote(postId, "g" + run, VoteType.UPVOTE);
+        commentService.voteComment(commentId, "e" + run, VoteType.DOWNVOTE);
+
+        // Act // Akce
+        voteJournalReplay.seedBaseline();
+        jdbcTemplate.update("UPDATE posts SET score = 0, upvotes = 0, downvotes = 0 WHERE id = ?", postId);
+        VoteJournalReplay.Report rebuild = voteJournalReplay.replay(true);
+
+        // Assert: e down, f up, g up // Ověření: e dolů, f nahoru, g nahoru
+        assertThat(rebuild.driftedPosts()).isEqualTo(1);
+        assertThat(rebuild.driftedComments()).isZero();
+        assertThat(postScore("posts", postId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT upvotes FROM posts WHERE id = ?", Integer.class, postId))
+                .isEqualTo(2);
+        assertThat(postScore("comments", commentId)).isEqualTo(-1);
+    }
+
+    @Test
+    void replay_ShouldRefuseRebuild_WithoutBaseline() {
+        // Arrange // Příprava
+        jdbcTemplate.update("DELETE FROM vote_journal_baseline");
+
+        // Act & Assert // Akce a ověření
+        assertThatThrownBy(() -> voteJournalReplay.replay(true)).isInstanceOf(IllegalStateException.class);
+        assertThat(voteJournalReplay.replay(false).events()).isNotNegative();
+    }
+
+    private int postScore(String table, Long id) {
+        return jdbcTemplate.queryForObject("SELECT score FROM " + table + " WHERE id = ?", Integer.class, id);
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setEmail(username + "@example.com");
+        return userRepository.save(user);
+    }
+}
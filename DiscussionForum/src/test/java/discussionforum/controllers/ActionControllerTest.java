@@ -0,0 +1,125 @@
+package discussionforum.controllers;
+
+import discussionforum.model.ActionResult;
+import discussionforum.service.ActionBatchService;
+import discussionforum.service.CommunityService;
+import discussionforum.service.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Web layer tests for ActionController // Testy webové vrstvy pro ActionController
+ * Tests that batches are validated before the caller's vote budget is charged
+ * Testuje, že se dávky ověří dříve, než se započtou do rozpočtu hlasů volajícího
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@WebMvcTest(ActionController.class)
+@ActiveProfiles("test")
+class ActionControllerTest {
+
+    private static final String TWO_VOTES = "[{\"type\":\"UPVOTE\",\"postId\":1},{\"type\":\"DOWNVOTE\",\"postId\":2}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ActionBatchService actionBatchService;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @MockBean
+    private CommunityService communityService;
+
+    @BeforeEach
+    void setUp() {
+        when(rateLimiter.burst(RateLimiter.Action.VOTE)).thenReturn(50);
+        when(rateLimiter.tryAcquire(any(), anyString(), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void apply_ShouldChargeOneTokenPerVote_AndReturnResults() throws Exception {
+        when(actionBatchService.apply(anyString(), anyList())).thenReturn(List.of(ActionResult.failed("x"), ActionResult.failed("y")));
+
+        mockMvc.perform(post("/api/actions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_VOTES))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"success\": true}"));
+
+        verify(rateLimiter).tryAcquire(RateLimiter.Action.VOTE, "u:testuser", 2);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void apply_ShouldNotChargeBudget_WhenBatchTooLarge() throws Exception {
+        doThrow(new IllegalArgumentException("At most 1 actions per batch")).when(actionBatchService).checkSize(anyList());
+
+        mockMvc.perform(post("/api/actions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_VOTES))
+                .andExpect(status().isBadRequest());
+
+        verify(rateLimiter, never()).tryAcquire(any(), anyString(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void apply_ShouldReturnBadRequest_WhenVotesExceedBurst() throws Exception {
+        when(rateLimiter.burst(RateLimiter.Action.VOTE)).thenReturn(1);
+
+        mockMvc.perform(post("/api/actions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_VOTES))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"success\": false, \"message\": \"At most 1 votes per batch\"}"));
+
+        verify(rateLimiter, never()).tryAcquire(any(), anyString(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void apply_ShouldReturnTooManyRequests_WhenVoteBudgetExceeded() throws Exception {
+        when(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:testuser", 2)).thenReturn(false);
+        when(rateLimiter.retryAfterSeconds(RateLimiter.Action.VOTE, "u:testuser", 2)).thenReturn(3L);
+
+        mockMvc.perform(post("/api/actions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_VOTES))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"));
+
+        verify(actionBatchService, never()).apply(anyString(), anyList());
+    }
+}
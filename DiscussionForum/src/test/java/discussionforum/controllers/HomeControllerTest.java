@@ -13,7 +13,11 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -42,7 +46,22 @@ class HomeControllerTest {
     @MockBean
     private CommunityService communityService;
 
-    private Post testPost;
+    @MockBean
+    private JoinedFeedService joinedFeedService;
+
+    @MockBean
+    private FeedFragmentCache fragmentCache;
+
+    @MockBean
+    private FeedSnapshotter feedSnapshotter;
+
+    @MockBean
+    private TrendingTracker trendingTracker;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    private PostSummary testPost;
     private Community testCommunity;
     private User testUser;
 
@@ -59,19 +78,14 @@ class HomeControllerTest {
         testCommunity.setName("testcommunity");
         testCommunity.setDescription("Test Community");
 
-        testPost = new Post();
-        testPost.setId(1L);
-        testPost.setTitle("Test Post");
-        testPost.setContent("Test Content");
-        testPost.setAuthor(testUser);
-        testPost.setCommunity(testCommunity);
-        testPost.setScore(5);
+        testPost = new PostSummary(1L, "Test Post", "Test Content", LocalDateTime.now(), 5, 0d, 0d, 0,
+                testCommunity.getName(), testUser.getUsername(), testUser.getDisplayName());
     }
 
     @Test
     void home_ShouldReturnIndexView_WithDefaultParameters() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(eq(0), eq(10), eq("hot"))).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -91,7 +105,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldReturnIndexView_WithCustomPagination() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(eq(1), eq(20), eq("new"))).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -113,7 +127,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldReturnIndexView_WithTopSort() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(eq(0), eq(10), eq("top"))).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -130,7 +144,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldHandleEmptyPostList() throws Exception {
         // Arrange // Příprava
-        Page<Post> emptyPage = new PageImpl<>(Arrays.asList());
+        Page<PostSummary> emptyPage = new PageImpl<>(Arrays.asList());
         when(postService.feed(any(Integer.class), any(Integer.class), anyString())).thenReturn(emptyPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -146,7 +160,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldHandleEmptyCommunityList() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(any(Integer.class), any(Integer.class), anyString())).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList());
 
@@ -163,7 +177,7 @@ class HomeControllerTest {
     @WithMockUser(username = "testuser")
     void home_ShouldIncludeUserContext_WhenAuthenticated() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(any(Integer.class), any(Integer.class), anyString())).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -195,7 +209,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldSetCorrectPageTitle() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(any(Integer.class), any(Integer.class), anyString())).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -210,7 +224,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldHandleInvalidSortParameter() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(eq(0), eq(10), eq("invalid"))).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -229,7 +243,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldHandleNegativePage() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(eq(-1), eq(10), eq("hot"))).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -247,7 +261,7 @@ class HomeControllerTest {
     @Test
     void home_ShouldHandleLargePageSize() throws Exception {
         // Arrange // Příprava
-        Page<Post> postPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> postPage = new PageImpl<>(Arrays.asList(testPost));
         when(postService.feed(eq(0), eq(1000), eq("hot"))).thenReturn(postPage);
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
@@ -261,4 +275,49 @@ class HomeControllerTest {
         // Služba by měla vhodně zvládnout velké velikosti stránek
         verify(postService).feed(0, 1000, "hot");
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void feedChunk_ShouldReturnCompactPostsWithNextCursor() throws Exception {
+        // Arrange // Příprava
+        when(postService.feedAfter("cursor", 10, "new"))
+                .thenReturn(new CursorPage<>(Arrays.asList(testPost), "next"));
+        when(postService.viewerState("testuser", List.of(1L)))
+                .thenReturn(new ViewerState(Map.of(1L, VoteType.UPVOTE), Set.of(1L)));
+
+        // Act & Assert // Akce a ověření
+        mockMvc.perform(get("/api/feed")
+                        .param("after", "cursor")
+                        .param("sort", "new"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Test Post"))
+                .andExpect(jsonPath("$.content[0].communityName").value("testcommunity"))
+                .andExpect(jsonPath("$.content[0].hotScore").doesNotExist())
+                .andExpect(jsonPath("$.content[0].vote").value("UPVOTE"))
+                .andExpect(jsonPath("$.content[0].saved").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verifyNoInteractions(communityService);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void feedChunk_ShouldReadCommunityById_AndCapStepSize() throws Exception {
+        // Arrange // Příprava
+        when(postService.byCommunityIdAfter(1L, "cursor", 50, "hot"))
+                .thenReturn(new CursorPage<>(Arrays.asList(testPost), null));
+        when(postService.viewerState(eq("testuser"), any())).thenReturn(ViewerState.EMPTY);
+
+        // Act & Assert // Akce a ověření
+        mockMvc.perform(get("/api/feed")
+                        .param("community", "1")
+                        .param("after", "cursor")
+                        .param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(postService).byCommunityIdAfter(1L, "cursor", 50, "hot");
+    }
+}
@@ -1,16 +1,22 @@
 package discussionforum.controllers;
 
+import discussionforum.exception.VoteBufferFullException;
 import discussionforum.model.Comment;
 import discussionforum.model.CommentRequestDTO;
 import discussionforum.model.Community;
 import discussionforum.model.Post;
 import discussionforum.model.PostRequestDTO;
 import discussionforum.model.User;
+import discussionforum.model.VoteResult;
 import discussionforum.model.VoteType;
 import discussionforum.service.CommentService;
 import discussionforum.service.CommunityService;
 import discussionforum.service.FileUploadService;
 import discussionforum.service.PostService;
+import discussionforum.service.PostViewCounter;
+import discussionforum.service.RateLimiter;
+import discussionforum.service.TrendingTracker;
+import discussionforum.service.UniqueViewerCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +32,7 @@ import java.util.Collections;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -35,6 +42,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -59,6 +67,18 @@ class PostControllerTest {
     @MockBean
     private FileUploadService fileUploadService;
 
+    @MockBean
+    private PostViewCounter postViewCounter;
+
+    @MockBean
+    private UniqueViewerCounter uniqueViewerCounter;
+
+    @MockBean
+    private TrendingTracker trendingTracker;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
     private Post testPost;
     private Comment testComment;
     private Community testCommunity;
@@ -66,6 +86,8 @@ class PostControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(rateLimiter.tryAcquire(any(), anyString(), anyInt())).thenReturn(true);
+
         testUser = new User();
         testUser.setId(1L);
         testUser.setUsername("testuser");
@@ -147,44 +169,92 @@ class PostControllerTest {
     @Test
     @WithMockUser(username = "testuser")
     void viewPost_ShouldReturnPostDetailView_WhenPostExists() throws Exception {
+        testPost.setCommentCount(4);
         when(postService.get(1L)).thenReturn(testPost);
-        when(commentService.forPost(1L)).thenReturn(Collections.emptyList());
-        when(commentService.getTotalCommentCount(1L)).thenReturn(0);
+        when(commentService.forPost(1L, "old")).thenReturn(Collections.emptyList());
         when(communityService.all()).thenReturn(Arrays.asList(testCommunity));
 
         mockMvc.perform(get("/posts/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("post/detail"))
                 .andExpect(model().attributeExists("post"))
-                .andExpect(model().attributeExists("communities"));
+                .andExpect(model().attributeExists("communities"))
+                .andExpect(model().attributeExists("viewCount"))
+                .andExpect(model().attributeExists("uniqueViewers"))
+                .andExpect(model().attribute("totalCommentCount", 4));
 
         verify(postService).get(1L);
+        verify(postViewCounter).record(1L);
+        verify(uniqueViewerCounter).record(1L, "u:testuser");
+        verify(trendingTracker).recordView(1L);
     }
 
     @Test
     @WithMockUser(username = "testuser")
-    void upvotePost_ShouldRedirect_WhenValidVote() throws Exception {
-        when(postService.vote(1L, "testuser", VoteType.UPVOTE)).thenReturn(6);
+    void upvotePost_ShouldReturnScoreAndVote_WhenValidVote() throws Exception {
+        when(postService.vote(1L, "testuser", VoteType.UPVOTE)).thenReturn(new VoteResult(6, VoteType.UPVOTE));
 
         mockMvc.perform(post("/posts/1/upvote")
                         .with(csrf()))
-                .andExpect(status().is3xxRedirection());
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"success\": true, \"score\": 6, \"vote\": \"UPVOTE\"}"));
 
         verify(postService).vote(1L, "testuser", VoteType.UPVOTE);
     }
 
     @Test
     @WithMockUser(username = "testuser")
-    void downvotePost_ShouldRedirect_WhenValidVote() throws Exception {
-        when(postService.vote(1L, "testuser", VoteType.DOWNVOTE)).thenReturn(4);
+    void downvotePost_ShouldReturnNullVote_WhenVoteWithdrawn() throws Exception {
+        when(postService.vote(1L, "testuser", VoteType.DOWNVOTE)).thenReturn(new VoteResult(4, null));
 
         mockMvc.perform(post("/posts/1/downvote")
                         .with(csrf()))
-                .andExpect(status().is3xxRedirection());
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"success\": true, \"score\": 4, \"vote\": null}"));
 
         verify(postService).vote(1L, "testuser", VoteType.DOWNVOTE);
     }
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void upvotePost_ShouldReturnServiceUnavailable_WhenVoteBufferFull() throws Exception {
+        when(postService.vote(1L, "testuser", VoteType.UPVOTE))
+                .thenThrow(new VoteBufferFullException("Voting is busy, please try again shortly"));
+
+        mockMvc.perform(post("/posts/1/upvote")
+                        .with(csrf()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().json("{\"success\": false}"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void upvotePost_ShouldReturnTooManyRequests_WhenVoteBudgetExceeded() throws Exception {
+        when(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:testuser", 1)).thenReturn(false);
+        when(rateLimiter.retryAfterSeconds(RateLimiter.Action.VOTE, "u:testuser", 1)).thenReturn(2L);
+
+        mockMvc.perform(post("/posts/1/upvote")
+                        .with(csrf()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(content().json("{\"success\": false}"));
+
+        verify(postService, never()).vote(any(), anyString(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void addComment_ShouldReturnTooManyRequests_WhenCommentBudgetExceeded() throws Exception {
+        when(rateLimiter.tryAcquire(RateLimiter.Action.COMMENT, "u:testuser", 1)).thenReturn(false);
+
+        mockMvc.perform(post("/posts/1/comment")
+                        .with(csrf())
+                        .param("content", "Test Comment"))
+                .andExpect(status().isTooManyRequests());
+
+        verify(commentService, never()).add(any(), anyString());
+    }
+
     @Test
     @WithMockUser(username = "testuser")
     void savePost_ShouldReturnSuccess_WhenPostSaved() throws Exception {
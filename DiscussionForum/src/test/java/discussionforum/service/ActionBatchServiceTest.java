@@ -0,0 +1,142 @@
+package discussionforum.service;
+
+import discussionforum.model.ActionRequestDTO;
+import discussionforum.model.ActionResult;
+import discussionforum.model.ActionType;
+import discussionforum.model.VoteResult;
+import discussionforum.model.VoteType;
+import discussionforum.repository.CommunityRepository;
+import discussionforum.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ActionBatchService // Unit testy pro ActionBatchService
+ * Tests ordered application of batched actions and per-action results
+ * Testuje provedení dávkových akcí v pořadí a výsledky jednotlivých akcí
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class ActionBatchServiceTest {
+
+    @Mock
+    private PostService postService;
+
+    @Mock
+    private CommunityService communityService;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommunityRepository communityRepository;
+
+    @InjectMocks
+    private ActionBatchService actionBatchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(actionBatchService, "maxBatch", 3);
+    }
+
+    @Test
+    void apply_ShouldRunActionsInOrder_AndReturnOneResultEach() {
+        // Arrange // Příprava
+        when(postRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(communityRepository.findExistingNames(anyCollection())).thenReturn(List.of("java"));
+        when(postService.vote(1L, "testuser", VoteType.UPVOTE)).thenReturn(new VoteResult(6, VoteType.UPVOTE));
+        when(postService.savePost(1L, "testuser")).thenReturn(false);
+        when(communityService.joinCommunity("java", "testuser")).thenReturn(true);
+
+        // Act // Akce
+        List<ActionResult> results = actionBatchService.apply("testuser", List.of(
+                action(ActionType.UPVOTE, 1L, null),
+                action(ActionType.SAVE, 1L, null),
+                action(ActionType.JOIN, null, "java")));
+
+        // Assert // Ověření
+        assertThat(results).containsExactly(
+                new ActionResult(true, null, 6, VoteType.UPVOTE),
+                new ActionResult(false, "Post is already saved", null, null),
+                new ActionResult(true, null, null, null));
+        InOrder order = inOrder(postService, communityService);
+        order.verify(postService).vote(1L, "testuser", VoteType.UPVOTE);
+        order.verify(postService).savePost(1L, "testuser");
+        order.verify(communityService).joinCommunity("java", "testuser");
+    }
+
+    @Test
+    void apply_ShouldFailOnlyTheAction_WhenTargetMissing() {
+        // Arrange // Příprava
+        when(postRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(communityRepository.findExistingNames(anyCollection())).thenReturn(Collections.emptyList());
+        when(postService.unsavePost(1L, "testuser")).thenReturn(true);
+
+        // Act // Akce
+        List<ActionResult> results = actionBatchService.apply("testuser", List.of(
+                action(ActionType.DOWNVOTE, 9L, null),
+                action(ActionType.UNSAVE, 1L, null),
+                action(ActionType.LEAVE, null, "gone")));
+
+        // Assert // Ověření
+        assertThat(results).extracting(ActionResult::success).containsExactly(false, true, false);
+        assertThat(results.get(0).message()).isEqualTo("Post not found with id 9");
+        verify(postService, never()).vote(any(), any(), any());
+        verify(communityService, never()).leaveCommunity(any(), any());
+    }
+
+    @Test
+    void apply_ShouldFailOnlyTheAction_WhenItHasNoTarget() {
+        // Arrange // Příprava
+        when(communityRepository.findExistingNames(anyCollection())).thenReturn(List.of("java"));
+        when(communityService.joinCommunity("java", "testuser")).thenReturn(true);
+
+        // Act // Akce
+        List<ActionResult> results = actionBatchService.apply("testuser", List.of(
+                action(ActionType.JOIN, null, "java"),
+                action(ActionType.SAVE, null, null),
+                action(ActionType.LEAVE, null, null)));
+
+        // Assert // Ověření
+        assertThat(results).extracting(ActionResult::success).containsExactly(true, false, false);
+        assertThat(results).extracting(ActionResult::message)
+                .containsExactly(null, "Missing post id", "Missing community");
+        verifyNoInteractions(postRepository);
+        verify(postService, never()).savePost(any(), any());
+    }
+
+    @Test
+    void apply_ShouldRejectBatch_WhenLargerThanLimit() {
+        // Arrange // Příprava
+        List<ActionRequestDTO> actions = Collections.nCopies(4, action(ActionType.UPVOTE, 1L, null));
+
+        // Act & Assert // Akce a ověření
+        assertThatThrownBy(() -> actionBatchService.apply("testuser", actions))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(postService, postRepository);
+    }
+
+    private static ActionRequestDTO action(ActionType type, Long postId, String community) {
+        ActionRequestDTO action = new ActionRequestDTO();
+        action.setType(type);
+        action.setPostId(postId);
+        action.setCommunity(community);
+        return action;
+    }
+}
@@ -9,6 +9,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -39,6 +41,12 @@ class CommentServiceTest {
     @Mock
     private CommentVoteRepository commentVoteRepository;
 
+    @Mock
+    private VoteJournal voteJournal;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -108,6 +116,7 @@ class CommentServiceTest {
         assertThat(result.getAuthor()).isEqualTo(testUser);
         assertThat(result.getPost()).isEqualTo(testPost);
         verify(commentRepository).save(any(Comment.class));
+        verify(postRepository).adjustCommentCount(testPost.getId(), 1);
     }
 
     @Test
@@ -155,6 +164,7 @@ class CommentServiceTest {
             comment.getPost() == testPost &&
             comment.getAuthor() == testUser
         ));
+        verify(postRepository).adjustCommentCount(testPost.getId(), 1);
     }
 
     @Test
@@ -177,74 +187,123 @@ class CommentServiceTest {
     @Test
     void vote_ShouldCreateUpvote_WhenNoExistingVote() {
         // Arrange // Příprava
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(testComment));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(commentVoteRepository.findByCommentAndUser(testComment, testUser))
-                .thenReturn(Optional.empty());
-        when(commentVoteRepository.save(any(CommentVote.class))).thenReturn(testCommentVote);
-        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(commentVoteRepository.findType(1L, 1L)).thenReturn(Optional.empty());
+        when(commentVoteRepository.insertIfAbsent(1L, 1L, VoteType.UPVOTE)).thenReturn(1);
+        when(commentRepository.applyVoteDelta(1L, 1, 1, 0)).thenReturn(1);
+        CommentTallyRow tally = tally(1, 1, 0);
+        when(commentRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
         int result = commentService.voteComment(1L, "testuser", VoteType.UPVOTE);
 
         // Assert // Ověření
         assertThat(result).isEqualTo(1); // Score should increase by 1 // Skóre by se mělo zvýšit o 1
-        verify(commentVoteRepository).save(any(CommentVote.class));
-        verify(commentRepository).save(testComment);
+        verify(commentRepository).updateControversy(1L, 0d);
+        verify(commentRepository, never()).findById(any());
+        verify(commentRepository, never()).save(any(Comment.class));
+        verify(voteJournal).commentVoted(1L, 1L, 1L, null, VoteType.UPVOTE);
     }
 
     @Test
     void vote_ShouldToggleVote_WhenSameVoteExists() {
         // Arrange // Příprava
-        testComment.setScore(1);
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(testComment));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(commentVoteRepository.findByCommentAndUser(testComment, testUser))
-                .thenReturn(Optional.of(testCommentVote));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(commentVoteRepository.findType(1L, 1L)).thenReturn(Optional.of(VoteType.UPVOTE));
+        when(commentVoteRepository.deleteIfType(1L, 1L, VoteType.UPVOTE)).thenReturn(1);
+        when(commentRepository.applyVoteDelta(1L, -1, -1, 0)).thenReturn(1);
+        CommentTallyRow tally = tally(0, 0, 0);
+        when(commentRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
         int result = commentService.voteComment(1L, "testuser", VoteType.UPVOTE);
 
         // Assert // Ověření
         assertThat(result).isEqualTo(0); // Score should decrease by 1 // Skóre by se mělo snížit o 1
-        verify(commentVoteRepository).delete(testCommentVote);
+        verify(voteJournal).commentVoted(eq(1L), any(), any(), eq(VoteType.UPVOTE), isNull());
     }
 
     @Test
     void vote_ShouldSwitchVote_WhenDifferentVoteExists() {
         // Arrange // Příprava
-        testCommentVote.setType(VoteType.DOWNVOTE);
-        testComment.setScore(-1);
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(testComment));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(commentVoteRepository.findByCommentAndUser(testComment, testUser))
-                .thenReturn(Optional.of(testCommentVote));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(commentVoteRepository.findType(1L, 1L)).thenReturn(Optional.of(VoteType.DOWNVOTE));
+        when(commentVoteRepository.switchType(1L, 1L, VoteType.DOWNVOTE, VoteType.UPVOTE)).thenReturn(1);
+        when(commentRepository.applyVoteDelta(1L, 2, 1, -1)).thenReturn(1);
+        CommentTallyRow tally = tally(1, 1, 0);
+        when(commentRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
         int result = commentService.voteComment(1L, "testuser", VoteType.UPVOTE);
 
         // Assert // Ověření
         assertThat(result).isEqualTo(1); // Score should increase by 2 // Skóre by se mělo zvýšit o 2
-        verify(commentVoteRepository).save(testCommentVote);
-        assertThat(testCommentVote.getType()).isEqualTo(VoteType.UPVOTE);
+        verify(commentVoteRepository, never()).save(any(CommentVote.class));
+    }
+
+    @Test
+    void vote_ShouldRereadUnderLock_WhenSameVoterRacedAhead() {
+        // Arrange: another request of the same voter inserted first // Příprava: jiný požadavek téhož uživatele vložil dříve
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(commentVoteRepository.findType(1L, 1L)).thenReturn(Optional.empty());
+        when(commentVoteRepository.insertIfAbsent(1L, 1L, VoteType.UPVOTE)).thenReturn(0);
+        when(commentRepository.existsById(1L)).thenReturn(true);
+        when(commentVoteRepository.findTypeForUpdate(1L, 1L)).thenReturn(Optional.of(VoteType.UPVOTE));
+        when(commentVoteRepository.deleteIfType(1L, 1L, VoteType.UPVOTE)).thenReturn(1);
+        when(commentRepository.applyVoteDelta(1L, -1, -1, 0)).thenReturn(1);
+        CommentTallyRow tally = tally(0, 0, 0);
+        when(commentRepository.findTally(1L)).thenReturn(Optional.of(tally));
+
+        // Act // Akce
+        int result = commentService.voteComment(1L, "testuser", VoteType.UPVOTE);
+
+        // Assert: counted once, as the undo of the winner's vote // Ověření: započteno jednou, jako zrušení vítězného hlasu
+        assertThat(result).isZero();
+        verify(commentRepository, times(1)).applyVoteDelta(anyLong(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void forPost_ShouldKeepQueryOrder_WhenSortIsControversial() {
+        // Arrange // Příprava
+        Comment reply = new Comment();
+        reply.setId(3L);
+        reply.setPost(testPost);
+        reply.setParent(testParentComment);
+        Comment otherReply = new Comment();
+        otherReply.setId(4L);
+        otherReply.setPost(testPost);
+        otherReply.setParent(testParentComment);
+        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(commentRepository.findByPost(testPost, CommentSort.CONTROVERSIAL.toSort()))
+                .thenReturn(List.of(otherReply, testComment, testParentComment, reply));
+
+        // Act // Akce
+        List<Comment> result = commentService.forPost(1L, "controversial");
+
+        // Assert // Ověření
+        assertThat(result).containsExactly(testComment, testParentComment);
+        assertThat(testParentComment.getReplies()).containsExactly(otherReply, reply);
     }
 
     @Test
     void vote_ShouldThrowException_WhenCommentNotFound() {
         // Arrange // Příprava
-        when(commentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(commentVoteRepository.findType(999L, 1L)).thenReturn(Optional.empty());
+        when(commentVoteRepository.insertIfAbsent(999L, 1L, VoteType.UPVOTE)).thenReturn(0);
+        when(commentRepository.existsById(999L)).thenReturn(false);
 
         // Act & Assert // Akce a ověření
         assertThatThrownBy(() -> commentService.voteComment(999L, "testuser", VoteType.UPVOTE))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Comment not found");
+        verify(commentRepository, never()).applyVoteDelta(anyLong(), anyInt(), anyInt(), anyInt());
     }
 
     @Test
     void vote_ShouldThrowException_WhenUserNotFound() {
         // Arrange // Příprava
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(testComment));
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(userRepository.findIdByUsername("nonexistent")).thenReturn(Optional.empty());
 
         // Act & Assert // Akce a ověření
         assertThatThrownBy(() -> commentService.voteComment(1L, "nonexistent", VoteType.UPVOTE))
@@ -255,21 +314,19 @@ class CommentServiceTest {
     @Test
     void vote_ShouldCreateDownvote_WhenNoExistingVote() {
         // Arrange // Příprava
-        testCommentVote.setType(VoteType.DOWNVOTE);
-        when(commentRepository.findById(1L)).thenReturn(Optional.of(testComment));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(commentVoteRepository.findByCommentAndUser(testComment, testUser))
-                .thenReturn(Optional.empty());
-        when(commentVoteRepository.save(any(CommentVote.class))).thenReturn(testCommentVote);
-        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(commentVoteRepository.findType(1L, 1L)).thenReturn(Optional.empty());
+        when(commentVoteRepository.insertIfAbsent(1L, 1L, VoteType.DOWNVOTE)).thenReturn(1);
+        when(commentRepository.applyVoteDelta(1L, -1, 0, 1)).thenReturn(1);
+        CommentTallyRow tally = tally(-1, 3, 3);
+        when(commentRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
         int result = commentService.voteComment(1L, "testuser", VoteType.DOWNVOTE);
 
         // Assert // Ověření
         assertThat(result).isEqualTo(-1); // Score should decrease by 1 // Skóre by se mělo snížit o 1
-        verify(commentVoteRepository).save(any(CommentVote.class));
-        verify(commentRepository).save(testComment);
+        verify(commentRepository).updateControversy(1L, 6d); // 6 votes split evenly // 6 hlasů rozdělených rovnoměrně
     }
 
     @Test
@@ -324,4 +381,13 @@ class CommentServiceTest {
             comment.getScore() == 0
         ));
     }
-}
\ No newline at end of file
+
+    private CommentTallyRow tally(int score, int upvotes, int downvotes) {
+        CommentTallyRow tally = mock(CommentTallyRow.class);
+        when(tally.getPostId()).thenReturn(1L);
+        when(tally.getScore()).thenReturn(score);
+        when(tally.getUpvotes()).thenReturn(upvotes);
+        when(tally.getDownvotes()).thenReturn(downvotes);
+        return tally;
+    }
+}
@@ -0,0 +1,162 @@
+package discussionforum.service;
+
+import discussionforum.event.CommentCreatedEvent;
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.VoteType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.ui.ExtendedModelMap;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedFragmentCache // Unit testy pro FeedFragmentCache
+ * Tests which cached feed pages the post, vote and comment events drop
+ * Testuje, které uložené stránky feedu zahodí události příspěvků, hlasů a komentářů
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedFragmentCacheTest {
+
+    @Mock
+    private TemplateEngine templateEngine;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    private FeedFragmentCache cache;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        cache = new FeedFragmentCache(templateEngine, applicationContext);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60000L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "pages", 2);
+        lenient().when(templateEngine.process(anyString(), eq(Set.of(FeedFragmentCache.FRAGMENT)), any(IContext.class)))
+                .thenReturn("<div>posts</div>");
+    }
+
+    @Test
+    void render_ShouldCachePage_ForLaterRequests() {
+        // Act // Akce
+        String html = render(null, 0, List.of(1L, 2L));
+
+        // Assert // Ověření
+        assertThat(html).isEqualTo("<div>posts</div>");
+        assertThat(cache.get(null, "hot", null)).isEqualTo("<div>posts</div>");
+        assertThat(cache.get(null, "new", 0)).isNull();
+        assertThat(cache.get(1L, "hot", 0)).isNull();
+    }
+
+    @Test
+    void onPostCreated_ShouldDropGlobalAndCommunityPages_Only() {
+        // Arrange // Příprava
+        render(null, 1, List.of(1L));
+        render(1L, 0, List.of(1L));
+        render(2L, 0, List.of(2L));
+
+        // Act // Akce
+        cache.onPostCreated(new PostCreatedEvent(9L, 1L, 0, 0d, 0d, now));
+
+        // Assert // Ověření
+        assertThat(cache.get(null, "hot", 1)).isNull();
+        assertThat(cache.get(1L, "hot", 0)).isNull();
+        assertThat(cache.get(2L, "hot", 0)).isNotNull();
+    }
+
+    @Test
+    void onPostVotedAndCommentCreated_ShouldDropPagesShowingThePost() {
+        // Arrange // Příprava
+        render(null, 0, List.of(1L, 2L));
+        render(1L, 0, List.of(2L));
+        render(1L, 1, List.of(3L));
+
+        // Act // Akce
+        cache.onPostVoted(new PostVotedEvent(2L, 1L, 7L, null, VoteType.UPVOTE, 1, 0d, 0d, now));
+        cache.onCommentCreated(new CommentCreatedEvent(5L, 3L, 1L));
+
+        // Assert // Ověření
+        assertThat(cache.get(null, "hot", 0)).isNull();
+        assertThat(cache.get(1L, "hot", 0)).isNull();
+        assertThat(cache.get(1L, "hot", 1)).isNull();
+    }
+
+    @Test
+    void get_ShouldMiss_AfterTtl() {
+        // Arrange // Příprava
+        ReflectionTestUtils.setField(cache, "ttlMs", -1L);
+        render(null, 0, List.of(1L));
+
+        // Act & Assert // Akce a ověření
+        assertThat(cache.get(null, "hot", 0)).isNull();
+    }
+
+    @Test
+    void get_ShouldShareEntry_AcrossSpellingsOfOneSort() {
+        // Arrange // Příprava
+        render(null, 0, List.of(1L));
+
+        // Act: case variants and unknown sorts all select the hot feed // Akce: varianty velikosti písmen i neznámá
+        // řazení zvolí feed hot
+        cache.render(null, "anything", 0, List.of(1L), "index",
+                new MockHttpServletRequest(), new MockHttpServletResponse(), new ExtendedModelMap());
+
+        // Assert // Ověření
+        assertThat(cache.get(null, "HOT", 0)).isEqualTo("<div>posts</div>");
+        assertThat(cache.get(null, null, 0)).isEqualTo("<div>posts</div>");
+        assertThat(cache.get(null, "Top:Week", 0)).isNull();
+        assertThat(ReflectionTestUtils.getField(cache, "fragments")).asInstanceOf(MAP).hasSize(1);
+    }
+
+    @Test
+    void render_ShouldEvictOldestPage_WhenFull() {
+        // Arrange // Příprava
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        render(1L, 0, List.of(1L));
+        render(2L, 0, List.of(2L));
+
+        // Act // Akce
+        render(3L, 0, List.of(3L));
+
+        // Assert // Ověření
+        assertThat(cache.get(1L, "hot", 0)).isNull();
+        assertThat(cache.get(2L, "hot", 0)).isNotNull();
+        assertThat(cache.get(3L, "hot", 0)).isNotNull();
+    }
+
+    @Test
+    void cacheable_ShouldAcceptLeadingPagesAtDefaultSize_Only() {
+        assertThat(cache.cacheable(null, null)).isTrue();
+        assertThat(cache.cacheable(1, 10)).isTrue();
+        assertThat(cache.cacheable(2, null)).isFalse();
+        assertThat(cache.cacheable(0, 25)).isFalse();
+    }
+
+    private String render(Long communityId, int page, List<Long> postIds) {
+        return cache.render(communityId, "hot", page, postIds, "index",
+                new MockHttpServletRequest(), new MockHttpServletResponse(), new ExtendedModelMap());
+    }
+}
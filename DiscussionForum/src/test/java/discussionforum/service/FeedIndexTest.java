@@ -0,0 +1,199 @@
+package discussionforum.service;
+
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.FeedCursor;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostRankRow;
+import discussionforum.model.VoteType;
+import discussionforum.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedIndex // Unit testy pro FeedIndex
+ * Tests lazy loading, event updates and the fallback to the database past the indexed depth
+ * Testuje líné načtení, aktualizace událostmi a návrat k databázi za indexovanou hloubkou
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedIndexTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private FeedIndex feedIndex;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        feedIndex = new FeedIndex(postRepository);
+        ReflectionTestUtils.setField(feedIndex, "capacity", 3);
+        ReflectionTestUtils.setField(feedIndex, "depth", 2);
+    }
+
+    @Test
+    void page_ShouldServeLoadedRanking_AndQueryDatabaseOnlyOnce() {
+        // Arrange // Příprava
+        when(postRepository.findRankRowsByCommunityId(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(row(3L, 5), row(1L, 2)));
+
+        // Act // Akce
+        Optional<FeedIndex.IndexedPage> first = feedIndex.page(1L, FeedSort.TOP, 0, 1);
+        Optional<FeedIndex.IndexedPage> second = feedIndex.page(1L, FeedSort.TOP, 1, 1);
+
+        // Assert // Ověření
+        assertThat(first).map(FeedIndex.IndexedPage::ids).contains(List.of(3L));
+        assertThat(second).map(FeedIndex.IndexedPage::ids).contains(List.of(1L));
+        assertThat(first.get().total()).isEqualTo(2);
+        verify(postRepository, times(1)).findRankRowsByCommunityId(eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void page_ShouldFallBack_WhenPageIsPastDepthOfPartialRanking() {
+        // Arrange // Příprava
+        when(postRepository.findRankRows(any(Pageable.class)))
+                .thenReturn(List.of(row(4L, 9), row(3L, 5), row(2L, 1)));
+        when(postRepository.count()).thenReturn(10L);
+
+        // Act // Akce
+        Optional<FeedIndex.IndexedPage> inside = feedIndex.page(null, FeedSort.TOP, 0, 2);
+        Optional<FeedIndex.IndexedPage> outside = feedIndex.page(null, FeedSort.TOP, 1, 2);
+
+        // Assert // Ověření
+        assertThat(inside).map(FeedIndex.IndexedPage::total).contains(10L);
+        assertThat(outside).isEmpty();
+    }
+
+    @Test
+    void onPostVoted_ShouldReorderRanking() {
+        // Arrange // Příprava
+        when(postRepository.findRankRowsByCommunityId(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(row(3L, 5), row(1L, 2)));
+        feedIndex.page(1L, FeedSort.TOP, 0, 2);
+
+        // Act // Akce
+        feedIndex.onPostVoted(new PostVotedEvent(1L, 1L, 7L, null, VoteType.UPVOTE, 6, 0d, 0d, now));
+
+        // Assert // Ověření
+        assertThat(feedIndex.page(1L, FeedSort.TOP, 0, 2)).map(FeedIndex.IndexedPage::ids)
+                .contains(List.of(1L, 3L));
+    }
+
+    @Test
+    void onPostCreated_ShouldAddPostToLoadedRankings() {
+        // Arrange // Příprava
+        when(postRepository.findRankRowsByCommunityId(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, 2)));
+        feedIndex.page(1L, FeedSort.NEW, 0, 2);
+
+        // Act // Akce
+        feedIndex.onPostCreated(new PostCreatedEvent(5L, 1L, 0, 0d, 0d, now.plusHours(1)));
+
+        // Assert // Ověření
+        Optional<FeedIndex.IndexedPage> page = feedIndex.page(1L, FeedSort.NEW, 0, 2);
+        assertThat(page).map(FeedIndex.IndexedPage::ids).contains(List.of(5L, 1L));
+        assertThat(page.get().total()).isEqualTo(2);
+    }
+
+    @Test
+    void after_ShouldSeekPastCursor_AndFallBackBeyondDepth() {
+        // Arrange // Příprava
+        when(postRepository.findRankRowsByCommunityId(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(row(4L, 9), row(3L, 5), row(2L, 1)));
+        when(postRepository.countByCommunityId(1L)).thenReturn(10L);
+
+        // Act // Akce
+        Optional<List<FeedIndex.Ranked>> first = feedIndex.after(1L, FeedSort.TOP, null, 1);
+        Optional<List<FeedIndex.Ranked>> second = feedIndex.after(1L, FeedSort.TOP, new FeedCursor(FeedSort.TOP, 9, 4L), 1);
+        Optional<List<FeedIndex.Ranked>> beyond = feedIndex.after(1L, FeedSort.TOP, new FeedCursor(FeedSort.TOP, 5, 3L), 1);
+
+        // Assert // Ověření
+        assertThat(first).contains(List.of(new FeedIndex.Ranked(4L, 9d)));
+        assertThat(second).contains(List.of(new FeedIndex.Ranked(3L, 5d)));
+        assertThat(beyond).isEmpty();
+    }
+
+    @Test
+    void rebuild_ShouldKeepVote_ThatCommitsWhileRankingLoads() {
+        // Arrange: the rebuild reads the rows before the vote commits // Příprava: přestavba čte řádky dříve,
+        // než se hlas potvrdí
+        List<PostRankRow> rows = List.of(row(3L, 5), row(1L, 2));
+        when(postRepository.findRankRowsByCommunityId(eq(1L), any(Pageable.class)))
+                .thenReturn(rows)
+                .thenAnswer(invocation -> {
+                    feedIndex.onPostVoted(new PostVotedEvent(1L, 1L, 7L, null, VoteType.UPVOTE, 6, 0d, 0d, now));
+                    return rows;
+                });
+        feedIndex.page(1L, FeedSort.TOP, 0, 2);
+
+        // Act // Akce
+        feedIndex.rebuild();
+
+        // Assert // Ověření
+        assertThat(feedIndex.page(1L, FeedSort.TOP, 0, 2)).map(FeedIndex.IndexedPage::ids)
+                .contains(List.of(1L, 3L));
+    }
+
+    @Test
+    void page_ShouldKeepPost_CreatedWhileRankingLoadsFirstTime() {
+        // Arrange // Příprava
+        when(postRepository.findRankRowsByCommunityId(eq(1L), any(Pageable.class))).thenAnswer(invocation -> {
+            feedIndex.onPostCreated(new PostCreatedEvent(5L, 1L, 0, 0d, 0d, now.plusHours(1)));
+            return List.of(row(1L, 2));
+        });
+
+        // Act // Akce
+        Optional<FeedIndex.IndexedPage> page = feedIndex.page(1L, FeedSort.NEW, 0, 2);
+
+        // Assert // Ověření
+        assertThat(page).map(FeedIndex.IndexedPage::ids).contains(List.of(5L, 1L));
+        assertThat(page.get().total()).isEqualTo(2);
+    }
+
+    private PostRankRow row(Long id, int score) {
+        return new PostRankRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getScore() {
+                return score;
+            }
+
+            @Override
+            public double getHotScore() {
+                return score;
+            }
+
+            @Override
+            public double getControversy() {
+                return 0d;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return now;
+            }
+        };
+    }
+}
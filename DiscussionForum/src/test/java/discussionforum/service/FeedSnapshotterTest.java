@@ -0,0 +1,161 @@
+package discussionforum.service;
+
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.PostSummary;
+import discussionforum.model.VoteType;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedSnapshotter // Unit testy pro FeedSnapshotter
+ * Tests which feeds get snapshotted and how pages are cut from a snapshot
+ * Testuje, které feedy se zachycují a jak se ze snímku vyřezávají stránky
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedSnapshotterTest {
+
+    @Mock
+    private PostService postService;
+
+    private FeedSnapshotter snapshotter;
+
+    @BeforeEach
+    void setUp() {
+        snapshotter = new FeedSnapshotter(postService);
+        ReflectionTestUtils.setField(snapshotter, "enabled", true);
+        ReflectionTestUtils.setField(snapshotter, "pages", 2);
+        ReflectionTestUtils.setField(snapshotter, "maxStalenessMs", 60000L);
+        ReflectionTestUtils.setField(snapshotter, "idleMs", 60000L);
+        ReflectionTestUtils.setField(snapshotter, "maxFeeds", 10);
+    }
+
+    @Test
+    void page_ShouldMiss_UntilRefreshSnapshotsTheRequestedFeed() {
+        // Arrange // Příprava
+        when(postService.feed(0, 20, "hot")).thenReturn(posts(15, 40));
+
+        // Act // Akce
+        Optional<Page<PostSummary>> before = snapshotter.page(null, "hot", null, null);
+        snapshotter.refresh();
+        Optional<Page<PostSummary>> first = snapshotter.page(null, "hot", 0, 10);
+        Optional<Page<PostSummary>> second = snapshotter.page(null, "hot", 1, null);
+
+        // Assert // Ověření
+        assertThat(before).isEmpty();
+        assertThat(first.get().getContent()).hasSize(10);
+        assertThat(second.get().getContent()).extracting(PostSummary::getId).containsExactly(11L, 12L, 13L, 14L, 15L);
+        assertThat(second.get().getTotalElements()).isEqualTo(40);
+        assertThat(second.get().hasNext()).isTrue();
+        verify(postService, times(1)).feed(0, 20, "hot");
+    }
+
+    @Test
+    void page_ShouldMiss_ForDeepPagesOtherSizesAndStaleSnapshots() {
+        // Arrange // Příprava
+        when(postService.byCommunity("java", 0, 20, "new")).thenReturn(posts(20, 20));
+        snapshotter.page("java", "new", 0, null);
+        snapshotter.refresh();
+
+        // Act & Assert // Akce a ověření
+        assertThat(snapshotter.page("java", "new", 2, null)).isEmpty();
+        assertThat(snapshotter.page("java", "new", 0, 25)).isEmpty();
+        ReflectionTestUtils.setField(snapshotter, "maxStalenessMs", -1L);
+        assertThat(snapshotter.page("java", "new", 0, null)).isEmpty();
+    }
+
+    @Test
+    void page_ShouldShareOneFeed_AcrossSpellingsOfItsSort() {
+        // Arrange // Příprava
+        when(postService.feed(0, 20, "hot")).thenReturn(posts(15, 40));
+        when(postService.feed(0, 20, "top:week")).thenReturn(posts(5, 5));
+        snapshotter.page(null, "HOT", null, null);
+        snapshotter.page(null, "anything", null, null);
+        snapshotter.page(null, "TOP:Week", null, null);
+
+        // Act // Akce
+        snapshotter.refresh();
+
+        // Assert: one query per feed actually selected // Ověření: jeden dotaz na každý skutečně zvolený feed
+        assertThat(snapshotter.page(null, "hot", 0, null)).isPresent();
+        assertThat(snapshotter.page(null, "top:week", 0, null)).isPresent();
+        verify(postService, times(1)).feed(0, 20, "hot");
+        verify(postService, times(1)).feed(0, 20, "top:week");
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void refresh_ShouldDropFeed_WhenItCannotBeRead() {
+        // Arrange // Příprava
+        when(postService.byCommunity("gone", 0, 20, "hot"))
+                .thenThrow(new EntityNotFoundException("Community not found with name: gone"));
+        snapshotter.page("gone", "hot", null, null);
+
+        // Act // Akce
+        snapshotter.refresh();
+        snapshotter.refresh();
+
+        // Assert // Ověření
+        verify(postService, times(1)).byCommunity("gone", 0, 20, "hot");
+    }
+
+    @Test
+    void onPostVoted_ShouldDropOnlySnapshotsShowingThePost() {
+        // Arrange // Příprava
+        when(postService.feed(0, 20, "hot")).thenReturn(posts(15, 40));
+        when(postService.byCommunity("java", 0, 20, "hot")).thenReturn(posts(3, 3));
+        snapshotter.page(null, "hot", null, null);
+        snapshotter.page("java", "hot", null, null);
+        snapshotter.refresh();
+
+        // Act // Akce
+        snapshotter.onPostVoted(new PostVotedEvent(12L, 1L, 7L, null, VoteType.UPVOTE, 1, 0d, 0d, null));
+
+        // Assert // Ověření
+        assertThat(snapshotter.page(null, "hot", 0, null)).isEmpty();
+        assertThat(snapshotter.page("java", "hot", 0, null)).isPresent();
+    }
+
+    @Test
+    void onPostCreated_ShouldDropSnapshots_UntilNextRefresh() {
+        // Arrange // Příprava
+        when(postService.feed(0, 20, "new")).thenReturn(posts(5, 5));
+        snapshotter.page(null, "new", null, null);
+        snapshotter.refresh();
+
+        // Act // Akce
+        snapshotter.onPostCreated(new PostCreatedEvent(6L, 1L, 0, 0d, 0d, null));
+        Optional<Page<PostSummary>> dropped = snapshotter.page(null, "new", null, null);
+        snapshotter.refresh();
+
+        // Assert // Ověření
+        assertThat(dropped).isEmpty();
+        assertThat(snapshotter.page(null, "new", null, null)).isPresent();
+    }
+
+    private Page<PostSummary> posts(int count, long total) {
+        List<PostSummary> content = LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new PostSummary(id, "Post " + id, "", null, 0, 0d, 0d, 0, "community", "alice", null))
+                .toList();
+        return new PageImpl<>(content, PageRequest.of(0, 20), total);
+    }
+}
@@ -0,0 +1,107 @@
+package discussionforum.service;
+
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedTotals // Unit testy pro FeedTotals
+ * Tests cached counting, event increments and pages built from slices
+ * Testuje ukládané počítání, navyšování událostmi a stránky sestavené z výřezů
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class FeedTotalsTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private FeedTotals feedTotals;
+
+    @BeforeEach
+    void setUp() {
+        feedTotals = new FeedTotals(postRepository);
+        ReflectionTestUtils.setField(feedTotals, "ttlMs", 60000L);
+    }
+
+    @Test
+    void count_ShouldQueryOnce_AndFollowNewPosts() {
+        // Arrange // Příprava
+        when(postRepository.count()).thenReturn(40L);
+        when(postRepository.countByCommunityId(1L)).thenReturn(7L);
+        feedTotals.count(null);
+        feedTotals.count(1L);
+
+        // Act // Akce
+        feedTotals.onPostCreated(new PostCreatedEvent(9L, 1L, 0, 0d, 0d, LocalDateTime.now()));
+
+        // Assert // Ověření
+        assertThat(feedTotals.count(null)).isEqualTo(41);
+        assertThat(feedTotals.count(1L)).isEqualTo(8);
+        verify(postRepository, times(1)).count();
+        verify(postRepository, times(1)).countByCommunityId(1L);
+    }
+
+    @Test
+    void count_ShouldRecount_AfterTtl() {
+        // Arrange // Příprava
+        ReflectionTestUtils.setField(feedTotals, "ttlMs", -1L);
+        when(postRepository.count()).thenReturn(40L, 42L);
+
+        // Act // Akce
+        feedTotals.count(null);
+        long second = feedTotals.count(null);
+
+        // Assert // Ověření
+        assertThat(second).isEqualTo(42);
+    }
+
+    @Test
+    void page_ShouldUseApproximateTotal_WhenSliceHasNext() {
+        // Arrange // Příprava
+        when(postRepository.count()).thenReturn(100L);
+
+        // Act // Akce
+        PageRequest second = PageRequest.of(1, 2);
+        Page<String> page = feedTotals.page(null, second, new SliceImpl<>(List.of("a", "b"), second, true));
+
+        // Assert // Ověření
+        assertThat(page.getTotalElements()).isEqualTo(100);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void page_ShouldNotPromiseNextPage_WhenTotalIsStale() {
+        // Arrange // Příprava
+        when(postRepository.count()).thenReturn(3L);
+
+        // Act // Akce
+        PageRequest second = PageRequest.of(1, 2);
+        PageRequest third = PageRequest.of(2, 2);
+        Page<String> more = feedTotals.page(null, second, new SliceImpl<>(List.of("a", "b"), second, true));
+        Page<String> last = feedTotals.page(null, third, new SliceImpl<>(List.of("c"), third, false));
+
+        // Assert // Ověření
+        assertThat(more.getTotalElements()).isEqualTo(5);
+        assertThat(more.hasNext()).isTrue();
+        assertThat(last.getTotalElements()).isEqualTo(5);
+        assertThat(last.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,132 @@
+package discussionforum.service;
+
+import discussionforum.model.CursorPage;
+import discussionforum.model.FeedCursor;
+import discussionforum.model.FeedSort;
+import discussionforum.model.PostRankRow;
+import discussionforum.model.PostSummary;
+import discussionforum.repository.CommunityMembershipRepository;
+import discussionforum.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JoinedFeedService // Unit testy pro JoinedFeedService
+ * Tests the k-way merge of per-community streams and the keyset cursor of the merged page
+ * Testuje k-cestné sloučení proudů jednotlivých komunit a kurzor sloučené stránky
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class JoinedFeedServiceTest {
+
+    @Mock
+    private CommunityMembershipRepository membershipRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private FeedIndex feedIndex;
+
+    @InjectMocks
+    private JoinedFeedService joinedFeedService;
+
+    @Test
+    void page_ShouldMergeIndexedAndQueriedCommunities_InRankOrder() {
+        // Arrange // Příprava
+        when(membershipRepository.findCommunityIdsByUsername("alice")).thenReturn(List.of(1L, 2L));
+        when(feedIndex.after(eq(1L), eq(FeedSort.TOP), isNull(), eq(4)))
+                .thenReturn(Optional.of(List.of(new FeedIndex.Ranked(10L, 9d), new FeedIndex.Ranked(11L, 3d))));
+        when(feedIndex.after(eq(2L), eq(FeedSort.TOP), isNull(), eq(4))).thenReturn(Optional.empty());
+        when(postRepository.findRankPage(eq(2L), eq(FeedSort.TOP), isNull(), eq(4)))
+                .thenReturn(List.of(row(20L, 7), row(21L, 1)));
+        when(postRepository.findSummariesByIdIn(List.of(10L, 20L, 11L)))
+                .thenReturn(List.of(post(11L, 3), post(10L, 9), post(20L, 7)));
+
+        // Act // Akce
+        CursorPage<PostSummary> page = joinedFeedService.page("alice", null, 3, "top");
+
+        // Assert // Ověření
+        assertThat(page.getContent()).extracting(PostSummary::getId).containsExactly(10L, 20L, 11L);
+        assertThat(page.getNextCursor()).isEqualTo(new FeedCursor(FeedSort.TOP, 3, 11L).encode());
+    }
+
+    @Test
+    void page_ShouldReturnLastPageWithoutCursor_WhenStreamsRunOut() {
+        // Arrange // Příprava
+        when(membershipRepository.findCommunityIdsByUsername("alice")).thenReturn(List.of(1L));
+        when(feedIndex.after(eq(1L), eq(FeedSort.TOP), any(FeedCursor.class), eq(11)))
+                .thenReturn(Optional.of(List.of(new FeedIndex.Ranked(11L, 3d))));
+        when(postRepository.findSummariesByIdIn(List.of(11L))).thenReturn(List.of(post(11L, 3)));
+
+        // Act // Akce
+        CursorPage<PostSummary> page = joinedFeedService.page("alice",
+                new FeedCursor(FeedSort.TOP, 9, 10L).encode(), null, "top");
+
+        // Assert // Ověření
+        assertThat(page.getContent()).extracting(PostSummary::getId).containsExactly(11L);
+        assertThat(page.hasNext()).isFalse();
+        verify(postRepository, never()).findRankPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void page_ShouldBeEmpty_WhenUserHasNotJoinedAnyCommunity() {
+        // Arrange // Příprava
+        when(membershipRepository.findCommunityIdsByUsername("alice")).thenReturn(List.of());
+
+        // Act // Akce
+        CursorPage<PostSummary> page = joinedFeedService.page("alice", null, 10, "hot");
+
+        // Assert // Ověření
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        verifyNoInteractions(feedIndex);
+    }
+
+    private PostSummary post(Long id, int score) {
+        return new PostSummary(id, "Post " + id, "", null, score, 0d, 0d, 0, "community", "alice", null);
+    }
+
+    private PostRankRow row(Long id, int score) {
+        return new PostRankRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getScore() {
+                return score;
+            }
+
+            @Override
+            public double getHotScore() {
+                return 0d;
+            }
+
+            @Override
+            public double getControversy() {
+                return 0d;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return LocalDateTime.of(2025, 1, 1, 12, 0);
+            }
+        };
+    }
+}
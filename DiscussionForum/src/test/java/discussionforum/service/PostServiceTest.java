@@ -8,13 +8,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.mockito.ArgumentCaptor;
+import discussionforum.ranking.HotScore;
+import discussionforum.event.PostCreatedEvent;
+import discussionforum.event.PostVotedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -48,6 +59,32 @@ class PostServiceTest {
     @Mock
     private PostSaveRepository postSaveRepository;
 
+    @Mock
+    private FeedIndex feedIndex;
+
+    @Mock
+    private VoteRollupService voteRollupService;
+
+    @Mock
+    private RisingTracker risingTracker;
+
+    // Real totals; the test slices have no next page, so nothing is counted // Skutečné počty; testovací výřezy
+    // nemají další stránku, takže se nic nepočítá
+    @Spy
+    private FeedTotals feedTotals = new FeedTotals(null);
+
+    @Mock
+    private VoteBuffer voteBuffer;
+
+    @Mock
+    private VoteJournal voteJournal;
+
+    @Mock
+    private VoteBitmaps voteBitmaps;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PostService postService;
 
@@ -55,8 +92,8 @@ class PostServiceTest {
     private Community testCommunity;
     private Post testPost;
     private PostRequestDTO testPostRequest;
-    private Vote testVote;
     private PostSave testPostSave;
+    private PostSummary testSummary;
 
     @BeforeEach
     void setUp() {
@@ -79,17 +116,13 @@ class PostServiceTest {
         testPost.setCommunity(testCommunity);
         testPost.setScore(0);
 
+        testSummary = summary(1L, 0);
+
         testPostRequest = new PostRequestDTO();
         testPostRequest.setTitle("Test Post");
         testPostRequest.setContent("Test Content");
         testPostRequest.setCommunityId(1L);
 
-        testVote = new Vote();
-        testVote.setId(1L);
-        testVote.setPost(testPost);
-        testVote.setUser(testUser);
-        testVote.setType(VoteType.UPVOTE);
-
         testPostSave = new PostSave();
         testPostSave.setId(1L);
         testPostSave.setPost(testPost);
@@ -115,6 +148,7 @@ class PostServiceTest {
         assertThat(result.getScore()).isEqualTo(0);
 
         verify(postRepository).save(any(Post.class));
+        verify(eventPublisher).publishEvent(any(PostCreatedEvent.class));
     }
 
     @Test
@@ -143,30 +177,156 @@ class PostServiceTest {
     @Test
     void feed_ShouldReturnPostsWithHotSort_WhenSortIsNull() {
         // Arrange // Příprava
-        Page<Post> expectedPage = new PageImpl<>(Arrays.asList(testPost));
-        when(postRepository.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        Slice<PostSummary> expectedPage = new SliceImpl<>(Arrays.asList(testSummary));
+        when(postRepository.findSummarySlice(any(Pageable.class))).thenReturn(expectedPage);
 
         // Act // Akce
-        Page<Post> result = postService.feed(0, 10, null);
+        Page<PostSummary> result = postService.feed(0, 10, null);
 
         // Assert // Ověření
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0)).isEqualTo(testPost);
+        assertThat(result.getContent().get(0)).isEqualTo(testSummary);
     }
 
     @Test
     void feed_ShouldReturnPostsWithNewSort_WhenSortIsNew() {
         // Arrange // Příprava
-        Page<Post> expectedPage = new PageImpl<>(Arrays.asList(testPost));
-        when(postRepository.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        Slice<PostSummary> expectedPage = new SliceImpl<>(Arrays.asList(testSummary));
+        when(postRepository.findSummarySlice(any(Pageable.class))).thenReturn(expectedPage);
 
         // Act // Akce
-        Page<Post> result = postService.feed(0, 10, "new");
+        Page<PostSummary> result = postService.feed(0, 10, "new");
 
         // Assert // Ověření
         assertThat(result).isNotNull();
-        verify(postRepository).findAll(any(Pageable.class));
+        verify(postRepository).findSummarySlice(any(Pageable.class));
+    }
+
+    @Test
+    void feed_ShouldSortByPersistedHotScore_WhenSortIsHot() {
+        // Arrange // Příprava
+        when(postRepository.findSummarySlice(any(Pageable.class))).thenReturn(new SliceImpl<>(Arrays.asList(testSummary)));
+
+        // Act // Akce
+        postService.feed(0, 10, "hot");
+
+        // Assert // Ověření
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(postRepository).findSummarySlice(pageable.capture());
+        assertThat(pageable.getValue().getSort().getOrderFor("hotScore"))
+                .isEqualTo(Sort.Order.desc("hotScore"));
+    }
+
+    @Test
+    void feed_ShouldHydrateIdsFromIndex_WhenPageIsIndexed() {
+        // Arrange // Příprava
+        PostSummary second = summary(2L, 0);
+        when(feedIndex.page(null, FeedSort.TOP, 0, 10))
+                .thenReturn(Optional.of(new FeedIndex.IndexedPage(List.of(2L, 1L), 2)));
+        when(postRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(Arrays.asList(testSummary, second));
+
+        // Act // Akce
+        Page<PostSummary> result = postService.feed(0, 10, "top");
+
+        // Assert // Ověření
+        assertThat(result.getContent()).containsExactly(second, testSummary);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        verify(postRepository, never()).findSummarySlice(any(Pageable.class));
+    }
+
+    @Test
+    void feed_ShouldRankByRollups_WhenSortIsWindowedTop() {
+        // Arrange // Příprava
+        when(voteRollupService.topPostIds(isNull(), eq(TopWindow.WEEK), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(1L), PageRequest.of(0, 10), 1));
+        when(postRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(testSummary));
+
+        // Act // Akce
+        Page<PostSummary> result = postService.feed(0, 10, "top:week");
+
+        // Assert // Ověření
+        assertThat(result.getContent()).containsExactly(testSummary);
+        assertThat(postService.nextCursor(result, "top:week")).isNull();
+        verify(postRepository, never()).findSummarySlice(any(Pageable.class));
+        verifyNoInteractions(feedIndex);
+    }
+
+    @Test
+    void feed_ShouldReadRisingSnapshot_WhenSortIsRising() {
+        // Arrange // Příprava
+        when(risingTracker.page(isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(1L), PageRequest.of(0, 10), 1));
+        when(postRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(testSummary));
+
+        // Act // Akce
+        Page<PostSummary> result = postService.feed(0, 10, "rising");
+
+        // Assert // Ověření
+        assertThat(result.getContent()).containsExactly(testSummary);
+        verify(postRepository, never()).findSummarySlice(any(Pageable.class));
+    }
+
+    @Test
+    void feed_ShouldFallBackToNewPosts_WhenNothingIsRising() {
+        // Arrange // Příprava
+        when(risingTracker.page(isNull(), any(Pageable.class))).thenReturn(Page.empty());
+        when(postRepository.findSummarySlice(any(Pageable.class))).thenReturn(new SliceImpl<>(List.of(testSummary)));
+
+        // Act // Akce
+        Page<PostSummary> result = postService.feed(0, 10, "rising");
+
+        // Assert // Ověření
+        assertThat(result.getContent()).containsExactly(testSummary);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(postRepository).findSummarySlice(pageable.capture());
+        assertThat(pageable.getValue().getSort().getOrderFor("createdAt")).isNotNull();
+    }
+
+    @Test
+    void feed_ShouldSortByControversy_WhenSortIsControversial() {
+        // Arrange // Příprava
+        when(postRepository.findSummarySlice(any(Pageable.class))).thenReturn(new SliceImpl<>(Arrays.asList(testSummary)));
+
+        // Act // Akce
+        postService.feed(0, 10, "controversial");
+
+        // Assert // Ověření
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(postRepository).findSummarySlice(pageable.capture());
+        assertThat(pageable.getValue().getSort().getOrderFor("controversy"))
+                .isEqualTo(Sort.Order.desc("controversy"));
+    }
+
+    @Test
+    void feedAfter_ShouldSeekPastCursor_AndReturnNextCursor() {
+        // Arrange // Příprava
+        PostSummary first = summary(1L, 7);
+        PostSummary second = summary(2L, 3);
+        String cursor = new FeedCursor(FeedSort.TOP, 9, 5L).encode();
+        when(postRepository.findFeedPage(isNull(), eq(FeedSort.TOP), any(FeedCursor.class), eq(2)))
+                .thenReturn(Arrays.asList(first, second));
+
+        // Act // Akce
+        CursorPage<PostSummary> result = postService.feedAfter(cursor, 1, "top");
+
+        // Assert // Ověření
+        ArgumentCaptor<FeedCursor> after = ArgumentCaptor.forClass(FeedCursor.class);
+        verify(postRepository).findFeedPage(isNull(), eq(FeedSort.TOP), after.capture(), eq(2));
+        assertThat(after.getValue().getKey()).isEqualTo(9);
+        assertThat(after.getValue().getId()).isEqualTo(5L);
+        assertThat(result.getContent()).containsExactly(first);
+        FeedCursor next = FeedCursor.decode(result.getNextCursor(), FeedSort.TOP);
+        assertThat(next.getKey()).isEqualTo(7);
+        assertThat(next.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void feedAfter_ShouldRejectCursorOfAnotherSort() {
+        String cursor = new FeedCursor(FeedSort.TOP, 9, 5L).encode();
+
+        assertThatThrownBy(() -> postService.feedAfter(cursor, 10, "hot"))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -195,53 +355,137 @@ class PostServiceTest {
     @Test
     void vote_ShouldCreateUpvote_WhenNoExistingVote() {
         // Arrange // Příprava
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(voteRepository.findByPostAndUser(testPost, testUser)).thenReturn(Optional.empty());
-        when(voteRepository.save(any(Vote.class))).thenReturn(testVote);
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteRepository.findType(1L, 1L)).thenReturn(Optional.empty());
+        when(voteRepository.insertIfAbsent(1L, 1L, VoteType.UPVOTE)).thenReturn(1);
+        when(postRepository.applyVoteDelta(1L, 1, 1, 0)).thenReturn(1);
+        PostTallyRow tally = tally(1, 1, 0);
+        when(postRepository.findTally(1L)).thenReturn(Optional.of(tally));
+
+        // Act // Akce
+        VoteResult result = postService.vote(1L, "testuser", VoteType.UPVOTE);
+
+        // Assert // Ověření
+        assertThat(result).isEqualTo(new VoteResult(1, VoteType.UPVOTE)); // Score should increase by 1 // Skóre by se mělo zvýšit o 1
+        verify(postRepository).updateRanking(1L, HotScore.of(1, tally.getCreatedAt()), 0d);
+        verify(postRepository, never()).findById(any());
+        verify(postRepository, never()).save(any(Post.class));
+        ArgumentCaptor<PostVotedEvent> event = ArgumentCaptor.forClass(PostVotedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().previous()).isNull();
+        assertThat(event.getValue().current()).isEqualTo(VoteType.UPVOTE);
+        assertThat(event.getValue().score()).isEqualTo(1);
+        assertThat(event.getValue().communityId()).isEqualTo(1L);
+        verify(voteJournal).postVoted(event.getValue());
+    }
+
+    @Test
+    void vote_ShouldUpdateControversy_WhenVotesAreSplit() {
+        // Arrange // Příprava
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteRepository.findType(1L, 1L)).thenReturn(Optional.empty());
+        when(voteRepository.insertIfAbsent(1L, 1L, VoteType.DOWNVOTE)).thenReturn(1);
+        when(postRepository.applyVoteDelta(1L, -1, 0, 1)).thenReturn(1);
+        PostTallyRow tally = tally(0, 3, 3);
+        when(postRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
-        int result = postService.vote(1L, "testuser", VoteType.UPVOTE);
+        VoteResult result = postService.vote(1L, "testuser", VoteType.DOWNVOTE);
 
         // Assert // Ověření
-        assertThat(result).isEqualTo(1); // Score should increase by 1 // Skóre by se mělo zvýšit o 1
-        verify(voteRepository).save(any(Vote.class));
-        verify(postRepository).save(testPost);
+        assertThat(result.score()).isZero();
+        verify(postRepository).updateRanking(eq(1L), anyDouble(), eq(6d)); // 6 votes split evenly // 6 hlasů rozdělených rovnoměrně
     }
 
     @Test
     void vote_ShouldToggleVote_WhenSameVoteExists() {
         // Arrange // Příprava
-        testPost.setScore(1);
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(voteRepository.findByPostAndUser(testPost, testUser)).thenReturn(Optional.of(testVote));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteRepository.findType(1L, 1L)).thenReturn(Optional.of(VoteType.UPVOTE));
+        when(voteRepository.deleteIfType(1L, 1L, VoteType.UPVOTE)).thenReturn(1);
+        when(postRepository.applyVoteDelta(1L, -1, -1, 0)).thenReturn(1);
+        PostTallyRow tally = tally(0, 0, 0);
+        when(postRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
-        int result = postService.vote(1L, "testuser", VoteType.UPVOTE);
+        VoteResult result = postService.vote(1L, "testuser", VoteType.UPVOTE);
 
         // Assert // Ověření
-        assertThat(result).isEqualTo(0); // Score should decrease by 1 // Skóre by se mělo snížit o 1
-        verify(voteRepository).delete(testVote);
+        assertThat(result).isEqualTo(new VoteResult(0, null)); // Score should decrease by 1 // Skóre by se mělo snížit o 1
+        ArgumentCaptor<PostVotedEvent> event = ArgumentCaptor.forClass(PostVotedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().current()).isNull();
+        assertThat(event.getValue().delta()).isEqualTo(-1);
     }
 
     @Test
     void vote_ShouldSwitchVote_WhenDifferentVoteExists() {
         // Arrange // Příprava
-        testVote.setType(VoteType.DOWNVOTE);
-        testPost.setScore(-1);
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(voteRepository.findByPostAndUser(testPost, testUser)).thenReturn(Optional.of(testVote));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteRepository.findType(1L, 1L)).thenReturn(Optional.of(VoteType.DOWNVOTE));
+        when(voteRepository.switchType(1L, 1L, VoteType.DOWNVOTE, VoteType.UPVOTE)).thenReturn(1);
+        when(postRepository.applyVoteDelta(1L, 2, 1, -1)).thenReturn(1);
+        PostTallyRow tally = tally(1, 1, 0);
+        when(postRepository.findTally(1L)).thenReturn(Optional.of(tally));
+
+        // Act // Akce
+        VoteResult result = postService.vote(1L, "testuser", VoteType.UPVOTE);
+
+        // Assert // Ověření
+        assertThat(result).isEqualTo(new VoteResult(1, VoteType.UPVOTE)); // Score should increase by 2 // Skóre by se mělo zvýšit o 2
+        verify(voteRepository, never()).insertIfAbsent(any(), any(), any());
+        verify(voteRepository, never()).deleteIfType(any(), any(), any());
+    }
+
+    @Test
+    void vote_ShouldRereadUnderLock_WhenSameVoterRacedAhead() {
+        // Arrange: a double click already stored the upvote // Příprava: dvojklik už upvote uložil
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteRepository.findType(1L, 1L)).thenReturn(Optional.empty());
+        when(voteRepository.insertIfAbsent(1L, 1L, VoteType.UPVOTE)).thenReturn(0);
+        when(postRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findTypeForUpdate(1L, 1L)).thenReturn(Optional.of(VoteType.UPVOTE));
+        when(voteRepository.deleteIfType(1L, 1L, VoteType.UPVOTE)).thenReturn(1);
+        when(postRepository.applyVoteDelta(1L, -1, -1, 0)).thenReturn(1);
+        PostTallyRow tally = tally(0, 0, 0);
+        when(postRepository.findTally(1L)).thenReturn(Optional.of(tally));
 
         // Act // Akce
-        int result = postService.vote(1L, "testuser", VoteType.UPVOTE);
+        VoteResult result = postService.vote(1L, "testuser", VoteType.UPVOTE);
 
         // Assert // Ověření
-        assertThat(result).isEqualTo(1); // Score should increase by 2 // Skóre by se mělo zvýšit o 2
-        verify(voteRepository).save(testVote);
-        assertThat(testVote.getType()).isEqualTo(VoteType.UPVOTE);
+        assertThat(result).isEqualTo(new VoteResult(0, null));
+        verify(postRepository, times(1)).applyVoteDelta(anyLong(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void vote_ShouldOnlyRecordIntent_WhenBufferEnabled() {
+        // Arrange // Příprava
+        when(voteBuffer.isEnabled()).thenReturn(true);
+        when(voteBuffer.record(1L, "testuser", VoteType.UPVOTE)).thenReturn(new VoteResult(4, VoteType.UPVOTE));
+
+        // Act // Akce
+        VoteResult result = postService.vote(1L, "testuser", VoteType.UPVOTE);
+
+        // Assert // Ověření
+        assertThat(result.score()).isEqualTo(4);
+        verifyNoInteractions(voteRepository, postRepository, eventPublisher);
+    }
+
+    @Test
+    void vote_ShouldThrowException_WhenPostNotFound() {
+        // Arrange // Příprava
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteRepository.findType(9L, 1L)).thenReturn(Optional.empty());
+        when(voteRepository.insertIfAbsent(9L, 1L, VoteType.UPVOTE)).thenReturn(0);
+        when(postRepository.existsById(9L)).thenReturn(false);
+
+        // Act & Assert // Akce a ověření
+        assertThatThrownBy(() -> postService.vote(9L, "testuser", VoteType.UPVOTE))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Post not found");
+        verify(postRepository, never()).applyVoteDelta(anyLong(), anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -321,6 +565,66 @@ class PostServiceTest {
         assertThat(result).isTrue();
     }
 
+    @Test
+    void viewerState_ShouldLoadVotesAndSavesOfWholePage_InOneQueryEach() {
+        // Arrange // Příprava
+        List<Long> postIds = List.of(1L, 2L, 3L);
+        ViewerVoteRow upvote = mock(ViewerVoteRow.class);
+        when(upvote.getPostId()).thenReturn(1L);
+        when(upvote.getType()).thenReturn(VoteType.UPVOTE);
+        ViewerVoteRow downvote = mock(ViewerVoteRow.class);
+        when(downvote.getPostId()).thenReturn(2L);
+        when(downvote.getType()).thenReturn(VoteType.DOWNVOTE);
+        when(voteRepository.findViewerVotes("testuser", postIds)).thenReturn(List.of(upvote, downvote));
+        when(postSaveRepository.findSavedPostIds("testuser", postIds)).thenReturn(List.of(3L));
+
+        // Act // Akce
+        ViewerState state = postService.viewerState("testuser", postIds);
+
+        // Assert // Ověření
+        assertThat(state.isUpvoted(1L)).isTrue();
+        assertThat(state.isDownvoted(2L)).isTrue();
+        assertThat(state.voteOf(3L)).isNull();
+        assertThat(state.isSaved(3L)).isTrue();
+        assertThat(state.isSaved(1L)).isFalse();
+        verify(voteRepository, times(1)).findViewerVotes(anyString(), anyCollection());
+        verify(postSaveRepository, times(1)).findSavedPostIds(anyString(), anyCollection());
+        verify(voteRepository, never()).findType(any(), any());
+    }
+
+    @Test
+    void viewerState_ShouldReadVotesFromBitmaps_WhenEnabled() {
+        // Arrange // Příprava
+        List<Long> postIds = List.of(1L, 2L, 3L);
+        VoteBitmaps.UserVotes userVotes = mock(VoteBitmaps.UserVotes.class);
+        when(userVotes.postVote(anyLong())).thenReturn(null);
+        when(userVotes.postVote(2L)).thenReturn(VoteType.DOWNVOTE);
+        when(voteBitmaps.isEnabled()).thenReturn(true);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(voteBitmaps.of(1L)).thenReturn(userVotes);
+        when(postSaveRepository.findSavedPostIds("testuser", postIds)).thenReturn(List.of());
+
+        // Act // Akce
+        ViewerState state = postService.viewerState("testuser", postIds);
+
+        // Assert // Ověření
+        assertThat(state.isDownvoted(2L)).isTrue();
+        assertThat(state.voteOf(1L)).isNull();
+        verify(voteRepository, never()).findViewerVotes(anyString(), anyCollection());
+    }
+
+    @Test
+    void viewerState_ShouldSkipQueries_ForAnonymousViewerOrEmptyPage() {
+        // Act // Akce
+        ViewerState anonymous = postService.viewerState(null, List.of(1L));
+        ViewerState empty = postService.viewerState("testuser", List.of());
+
+        // Assert // Ověření
+        assertThat(anonymous).isSameAs(ViewerState.EMPTY);
+        assertThat(empty).isSameAs(ViewerState.EMPTY);
+        verifyNoInteractions(voteRepository, postSaveRepository);
+    }
+
     @Test
     void isPostSaved_ShouldReturnFalse_WhenUserNotFound() {
         // Arrange // Příprava
@@ -337,35 +641,35 @@ class PostServiceTest {
     @Test
     void getSavedPosts_ShouldReturnSavedPosts_WhenUserHasSavedPosts() {
         // Arrange // Příprava
-        Page<Post> expectedPage = new PageImpl<>(Arrays.asList(testPost));
+        Page<PostSummary> expectedPage = new PageImpl<>(Arrays.asList(testSummary));
         when(postSaveRepository.findSavedPostsByUsername(eq("testuser"), any(Pageable.class)))
                 .thenReturn(expectedPage);
 
         // Act // Akce
-        Page<Post> result = postService.getSavedPosts("testuser", 0, 10);
+        Page<PostSummary> result = postService.getSavedPosts("testuser", 0, 10);
 
         // Assert // Ověření
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0)).isEqualTo(testPost);
+        assertThat(result.getContent().get(0)).isEqualTo(testSummary);
     }
 
     @Test
     void byCommunity_ShouldReturnCommunityPosts_WhenCommunityExists() {
         // Arrange // Příprava
-        Page<Post> expectedPage = new PageImpl<>(Arrays.asList(testPost));
+        Slice<PostSummary> expectedPage = new SliceImpl<>(Arrays.asList(testSummary));
         when(communityRepository.findByName("testcommunity"))
                 .thenReturn(Optional.of(testCommunity));
-        when(postRepository.findAllByCommunity(eq(testCommunity), any(Pageable.class)))
+        when(postRepository.findSummarySliceByCommunityId(eq(1L), any(Pageable.class)))
                 .thenReturn(expectedPage);
 
         // Act // Akce
-        Page<Post> result = postService.byCommunity("testcommunity", 0, 10, "hot");
+        Page<PostSummary> result = postService.byCommunity("testcommunity", 0, 10, "hot");
 
         // Assert // Ověření
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0)).isEqualTo(testPost);
+        assertThat(result.getContent().get(0)).isEqualTo(testSummary);
     }
 
     @Test
@@ -378,4 +682,18 @@ class PostServiceTest {
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("Community not found");
     }
-}
\ No newline at end of file
+
+    private PostTallyRow tally(int score, int upvotes, int downvotes) {
+        PostTallyRow tally = mock(PostTallyRow.class);
+        lenient().when(tally.getCommunityId()).thenReturn(1L);
+        lenient().when(tally.getScore()).thenReturn(score);
+        lenient().when(tally.getUpvotes()).thenReturn(upvotes);
+        lenient().when(tally.getDownvotes()).thenReturn(downvotes);
+        lenient().when(tally.getCreatedAt()).thenReturn(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return tally;
+    }
+
+    private PostSummary summary(Long id, int score) {
+        return new PostSummary(id, "Post " + id, "Content", null, score, 0d, 0d, 0, "testcommunity", "testuser", null);
+    }
+}
@@ -0,0 +1,151 @@
+package discussionforum.service;
+
+import discussionforum.model.PostStats;
+import discussionforum.repository.PostStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostViewCounter // Unit testy pro PostViewCounter
+ * Tests buffering of post views and the batched write-behind flush
+ * Testuje sčítání zobrazení příspěvků a dávkový zápis se zpožděním
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class PostViewCounterTest {
+
+    @Mock
+    private PostStatsRepository postStatsRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PostViewCounter postViewCounter;
+
+    @BeforeEach
+    void setUp() {
+        postViewCounter = new PostViewCounter(postStatsRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldWriteOneSummedRowPerPost() {
+        // Arrange // Příprava
+        postViewCounter.record(1L);
+        postViewCounter.record(1L);
+        postViewCounter.record(1L);
+        postViewCounter.record(2L);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1, 0});
+
+        // Act // Akce
+        postViewCounter.flush();
+
+        // Assert // Ověření
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), updates.capture());
+        assertThat(updates.getValue()).extracting(row -> row[1] + "=" + row[0])
+                .containsExactlyInAnyOrder("1=3", "2=1");
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertThat(inserts.getValue()).containsExactly(updates.getValue().get(1));
+    }
+
+    @Test
+    void flush_ShouldKeepViews_WhenWriteFails() {
+        // Arrange // Příprava
+        postViewCounter.record(1L);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(new int[]{1});
+
+        // Act // Akce
+        postViewCounter.flush();
+        long buffered = postViewCounter.views(1L);
+        postViewCounter.flush();
+        postViewCounter.flush();
+
+        // Assert // Ověření
+        assertThat(buffered).isEqualTo(1);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), anyList());
+    }
+
+    @Test
+    void views_ShouldAddBufferedViewsToStoredCount() {
+        // Arrange // Příprava
+        PostStats stats = new PostStats();
+        stats.setPostId(1L);
+        stats.setViewCount(40);
+        when(postStatsRepository.findById(1L)).thenReturn(Optional.of(stats));
+        postViewCounter.record(1L);
+        postViewCounter.record(1L);
+
+        // Act & Assert // Akce a ověření
+        assertThat(postViewCounter.views(1L)).isEqualTo(42);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldLoseNoView_WhenIdleAdderIsDroppedDuringRecord() throws Exception {
+        // Arrange: every flushed delta is summed // Příprava: každá zapsaná změna se sečte
+        AtomicLong written = new AtomicLong();
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1, List.class);
+            rows.forEach(row -> written.addAndGet((Long) row[0]));
+            return new int[rows.size()];
+        });
+        lenient().when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[0]);
+        ExecutorService viewers = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+
+        // Act: sparse views keep the adder idle between flushes // Akce: řídká zobrazení nechávají sčítač mezi běhy nečinný
+        for (int t = 0; t < 4; t++) {
+            viewers.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    postViewCounter.record(1L);
+                    Thread.yield();
+                }
+                done.countDown();
+            });
+        }
+        while (done.getCount() > 0) {
+            postViewCounter.flush();
+        }
+        viewers.shutdown();
+        postViewCounter.flush();
+
+        // Assert // Ověření
+        assertThat(written.get()).isEqualTo(8000);
+    }
+
+    @Test
+    void flush_ShouldSkipDatabase_WhenNothingWasViewed() {
+        // Act // Akce
+        postViewCounter.flush();
+
+        // Assert // Ověření
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
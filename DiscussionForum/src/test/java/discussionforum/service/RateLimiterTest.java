@@ -0,0 +1,161 @@
+package discussionforum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimiter // Unit testy pro RateLimiter
+ * Tests bursts, refill over time, separate keys and budgets, and concurrent callers
+ * Testuje dávky, doplňování v čase, oddělené klíče a rozpočty a souběžné volající
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "clock", (LongSupplier) now::get);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "votesPerMinute", 60);
+        ReflectionTestUtils.setField(rateLimiter, "votesBurst", 3);
+        ReflectionTestUtils.setField(rateLimiter, "commentsPerMinute", 6);
+        ReflectionTestUtils.setField(rateLimiter, "commentsBurst", 1);
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurst_ThenRefuse() {
+        // Act // Akce
+        List<Boolean> allowed = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            allowed.add(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 1));
+        }
+
+        // Assert // Ověření
+        assertThat(allowed).containsExactly(true, true, true, false);
+        assertThat(rateLimiter.retryAfterSeconds(RateLimiter.Action.VOTE, "u:anna", 1)).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillOneTokenPerInterval() {
+        // Arrange // Příprava
+        drain("u:anna", 3);
+
+        // Act & Assert: one vote per second at 60 per minute // Akce a ověření: jeden hlas za sekundu při 60 za minutu
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 1)).isFalse();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 1)).isTrue();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 1)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_ShouldNotSaveUpBeyondBurst_AfterLongIdle() {
+        // Arrange // Příprava
+        drain("u:anna", 3);
+        now.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        // Act & Assert // Akce a ověření
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 3)).isTrue();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 1)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_ShouldRefuseWholeBatch_WithoutTakingTokens() {
+        // Act & Assert // Akce a ověření
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 4)).isFalse();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 3)).isTrue();
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepKeysAndBudgetsApart() {
+        // Arrange // Příprava
+        drain("u:anna", 3);
+
+        // Act & Assert // Akce a ověření
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:bob", 1)).isTrue();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "ip:10.0.0.1", 1)).isTrue();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.COMMENT, "u:anna", 1)).isTrue();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.COMMENT, "u:anna", 1)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowEverything_WhenDisabled() {
+        // Arrange // Příprava
+        ReflectionTestUtils.setField(rateLimiter, "enabled", false);
+
+        // Act & Assert // Akce a ověření
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryAcquire(RateLimiter.Action.COMMENT, "u:anna", 1)).isTrue();
+        }
+    }
+
+    @Test
+    void sweep_ShouldDropOnlyRefilledBuckets() {
+        // Arrange // Příprava
+        drain("u:anna", 3);
+        drain("u:bob", 1);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        // Act // Akce
+        rateLimiter.sweep();
+
+        // Assert: bob refilled after 1 s, anna needs 3 s // Ověření: bob se doplnil po 1 s, anna potřebuje 3 s
+        assertThat(rateLimiter.size(RateLimiter.Action.VOTE)).isEqualTo(1);
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 3)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_ShouldGrantExactlyBurst_UnderConcurrentCallers() throws Exception {
+        // Arrange // Příprava
+        ReflectionTestUtils.setField(rateLimiter, "votesBurst", 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> callers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            callers.add(() -> {
+                int granted = 0;
+                for (int i = 0; i < 50; i++) {
+                    if (rateLimiter.tryAcquire(RateLimiter.Action.VOTE, "u:anna", 1)) {
+                        granted++;
+                    }
+                }
+                return granted;
+            });
+        }
+
+        // Act // Akce
+        int granted = 0;
+        try {
+            for (Future<Integer> result : executor.invokeAll(callers)) {
+                granted += result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert: the clock stands still, so no token refills // Ověření: hodiny stojí, takže se nedoplní žádný token
+        assertThat(granted).isEqualTo(100);
+    }
+
+    private void drain(String key, int tokens) {
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Action.VOTE, key, tokens)).isTrue();
+    }
+}
@@ -0,0 +1,92 @@
+package discussionforum.service;
+
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.VoteType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for RisingTracker // Unit testy pro RisingTracker
+ * Tests sliding-window counting and the published rising snapshot
+ * Testuje počítání v klouzavém okně a zveřejněný snímek rising
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+class RisingTrackerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private RisingTracker risingTracker;
+    private long now;
+    private LocalDateTime created;
+
+    @BeforeEach
+    void setUp() {
+        risingTracker = new RisingTracker();
+        ReflectionTestUtils.setField(risingTracker, "windowMinutes", 10);
+        ReflectionTestUtils.setField(risingTracker, "slotSeconds", 60);
+        ReflectionTestUtils.setField(risingTracker, "stripes", 4);
+        ReflectionTestUtils.setField(risingTracker, "maxAgeHours", 24);
+        ReflectionTestUtils.setField(risingTracker, "size", 100);
+        created = LocalDateTime.of(2025, 3, 1, 12, 0);
+        now = created.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 30 * MINUTE;
+    }
+
+    @Test
+    void publish_ShouldRankPostsByVotesInsideWindow() {
+        // Arrange // Příprava
+        upvote(1L, now);
+        upvote(2L, now);
+        upvote(2L, now - MINUTE);
+
+        // Act // Akce
+        risingTracker.publish(now);
+
+        // Assert // Ověření
+        Page<Long> global = risingTracker.page(null, PageRequest.of(0, 10));
+        assertThat(global.getContent()).containsExactly(2L, 1L);
+        assertThat(risingTracker.page(5L, PageRequest.of(0, 10)).getContent()).containsExactly(2L, 1L);
+        assertThat(risingTracker.page(6L, PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    void publish_ShouldForgetVotesOlderThanWindow() {
+        // Arrange // Příprava
+        upvote(1L, now - 20 * MINUTE);
+        upvote(1L, now - 15 * MINUTE);
+        upvote(2L, now);
+
+        // Act // Akce
+        risingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(risingTracker.page(null, PageRequest.of(0, 10)).getContent()).containsExactly(2L);
+    }
+
+    @Test
+    void record_ShouldIgnoreRemovedVotesAndOldPosts() {
+        // Arrange // Příprava
+        risingTracker.record(new PostVotedEvent(1L, 5L, 9L, VoteType.UPVOTE, null, 0, 0d, 0d, created), now);
+        risingTracker.record(new PostVotedEvent(2L, 5L, 9L, null, VoteType.UPVOTE, 1, 0d, 0d, created.minusDays(3)), now);
+
+        // Act // Akce
+        risingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(risingTracker.page(null, PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    private void upvote(Long postId, long at) {
+        risingTracker.record(new PostVotedEvent(postId, 5L, 9L, null, VoteType.UPVOTE, 1, 0d, 0d, created), at);
+    }
+}
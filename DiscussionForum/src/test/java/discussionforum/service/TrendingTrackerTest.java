@@ -0,0 +1,156 @@
+package discussionforum.service;
+
+import discussionforum.model.PostSummary;
+import discussionforum.repository.PostRepository;
+import discussionforum.sketch.CountMinSketch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TrendingTracker // Unit testy pro TrendingTracker
+ * Tests weighted activity counting, the bounded heap and the sliding window
+ * Testuje vážené počítání aktivity, omezenou haldu a klouzavé okno
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class TrendingTrackerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Mock
+    private PostRepository postRepository;
+
+    private TrendingTracker trendingTracker;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        trendingTracker = new TrendingTracker(postRepository);
+        ReflectionTestUtils.setField(trendingTracker, "windowMinutes", 60);
+        ReflectionTestUtils.setField(trendingTracker, "slotMinutes", 5);
+        ReflectionTestUtils.setField(trendingTracker, "depth", 4);
+        ReflectionTestUtils.setField(trendingTracker, "width", 256);
+        ReflectionTestUtils.setField(trendingTracker, "heapSize", 3);
+        ReflectionTestUtils.setField(trendingTracker, "size", 2);
+        ReflectionTestUtils.setField(trendingTracker, "commentWeight", 10);
+        trendingTracker.init();
+        now = 1_000 * 60 * MINUTE;
+        lenient().when(postRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(TrendingTrackerTest::summary).toList();
+        });
+    }
+
+    @Test
+    void publish_ShouldListMostActivePostsFirst() {
+        // Arrange // Příprava
+        views(1L, 3, now);
+        views(2L, 12, now - 10 * MINUTE);
+        views(3L, 1, now);
+        trendingTracker.record(3L, 10, now); // A comment // Komentář
+
+        // Act // Akce
+        trendingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(trendingTracker.trending()).extracting(PostSummary::getId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void publish_ShouldForgetActivityOlderThanWindow() {
+        // Arrange // Příprava
+        views(1L, 50, now - 70 * MINUTE);
+        views(2L, 1, now);
+
+        // Act // Akce
+        trendingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(trendingTracker.trending()).extracting(PostSummary::getId).containsExactly(2L);
+    }
+
+    @Test
+    void record_ShouldKeepHeapBounded_AndLetHeavierPostsIn() {
+        // Arrange // Příprava
+        for (long postId = 1; postId <= 500; postId++) {
+            views(postId, 1, now);
+        }
+        views(900L, 20, now);
+        views(901L, 15, now);
+
+        // Act // Akce
+        trendingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(trendingTracker.trending()).extracting(PostSummary::getId).containsExactly(900L, 901L);
+        verify(postRepository).findSummariesByIdIn(List.of(900L, 901L));
+    }
+
+    @Test
+    void record_ShouldRescoreLightestBeforeEvicting_WhenItsStoredScoreLags() {
+        // Arrange: post 1 enters the heap with one view, later views skip the heap // Příprava: příspěvek 1 vstoupí
+        // do haldy s jedním zobrazením, další zobrazení haldu přeskočí
+        views(1L, 1, now);
+        views(2L, 1, now);
+        views(3L, 1, now);
+        views(1L, 20, now);
+
+        // Act // Akce
+        views(4L, 2, now);
+        trendingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(trendingTracker.trending()).extracting(PostSummary::getId).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void publish_ShouldSkipDatabase_WhenNothingHappened() {
+        // Act // Akce
+        trendingTracker.publish(now);
+
+        // Assert // Ověření
+        assertThat(trendingTracker.trending()).isEmpty();
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void countMinSketch_ShouldNeverUndercount() {
+        // Arrange // Příprava
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+
+        // Act // Akce
+        for (long item = 0; item < 1_000; item++) {
+            sketch.add(item, item % 7 + 1);
+        }
+
+        // Assert // Ověření
+        for (long item = 0; item < 1_000; item++) {
+            assertThat(sketch.estimate(item)).isGreaterThanOrEqualTo(item % 7 + 1);
+        }
+    }
+
+    private void views(Long postId, int count, long at) {
+        for (int i = 0; i < count; i++) {
+            trendingTracker.record(postId, 1, at);
+        }
+    }
+
+    private static PostSummary summary(Long id) {
+        return new PostSummary(id, "Post " + id, "", LocalDateTime.now(), 0, 0d, 0d, 0, "community", "author", null);
+    }
+}
@@ -0,0 +1,157 @@
+package discussionforum.service;
+
+import discussionforum.model.PostStats;
+import discussionforum.repository.PostStatsRepository;
+import discussionforum.repository.PostViewerDailyRepository;
+import discussionforum.sketch.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UniqueViewerCounter and its HyperLogLog sketches // Unit testy pro UniqueViewerCounter a jeho náčrty HyperLogLog
+ * Tests estimate accuracy, merging of stored and buffered sketches and the write-behind flush
+ * Testuje přesnost odhadu, slučování uložených a nashromážděných náčrtů a zápis se zpožděním
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class UniqueViewerCounterTest {
+
+    @Mock
+    private PostStatsRepository postStatsRepository;
+
+    @Mock
+    private PostViewerDailyRepository dailyRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UniqueViewerCounter uniqueViewerCounter;
+
+    @BeforeEach
+    void setUp() {
+        uniqueViewerCounter = new UniqueViewerCounter(postStatsRepository, dailyRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void hyperLogLog_ShouldEstimateDistinctItemsWithinFewPercent() {
+        // Arrange // Příprava
+        HyperLogLog sketch = new HyperLogLog();
+
+        // Act // Akce
+        for (int i = 0; i < 50_000; i++) {
+            sketch.offer("user" + i);
+            sketch.offer("user" + (i % 100)); // Repeated viewers count once // Opakovaní uživatelé se počítají jednou
+        }
+
+        // Assert // Ověření
+        assertThat(sketch.estimate()).isBetween(47_500L, 52_500L);
+        assertThat(sketch.toBytes()).hasSize(HyperLogLog.SERIALIZED_LENGTH);
+    }
+
+    @Test
+    void hyperLogLog_ShouldMergeIntoUnion_AndSurviveSerialization() {
+        // Arrange // Příprava
+        HyperLogLog nodeA = new HyperLogLog();
+        HyperLogLog nodeB = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            nodeA.offer("user" + i);
+            nodeB.offer("user" + (i + 500));
+        }
+
+        // Act // Akce
+        HyperLogLog union = HyperLogLog.fromBytes(nodeA.toBytes());
+        union.merge(nodeB);
+        union.merge(nodeB);
+
+        // Assert // Ověření
+        assertThat(union.estimate()).isBetween(1_425L, 1_575L);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[3])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void estimate_ShouldMergeStoredSketchWithBufferedViewers() {
+        // Arrange // Příprava
+        HyperLogLog stored = new HyperLogLog();
+        stored.offer("u:alice");
+        stored.offer("u:bob");
+        PostStats stats = new PostStats();
+        stats.setViewerSketch(stored.toBytes());
+        when(postStatsRepository.findById(1L)).thenReturn(Optional.of(stats));
+        uniqueViewerCounter.record(1L, "u:bob");
+        uniqueViewerCounter.record(1L, "u:carol");
+        uniqueViewerCounter.record(1L, "u:carol");
+
+        // Act & Assert // Akce a ověření
+        assertThat(uniqueViewerCounter.estimate(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void estimateWindow_ShouldMergeDailySketches() {
+        // Arrange // Příprava
+        HyperLogLog yesterday = new HyperLogLog();
+        yesterday.offer("u:alice");
+        HyperLogLog earlier = new HyperLogLog();
+        earlier.offer("u:alice");
+        earlier.offer("u:bob");
+        when(dailyRepository.findSketches(eq(1L), any())).thenReturn(List.of(yesterday.toBytes(), earlier.toBytes()));
+        uniqueViewerCounter.record(1L, "u:carol");
+
+        // Act & Assert // Akce a ověření
+        assertThat(uniqueViewerCounter.estimate(1L, 7)).isEqualTo(3);
+    }
+
+    @Test
+    void flush_ShouldInsertSketches_AndEmptyTheBuffer() {
+        // Arrange // Příprava
+        uniqueViewerCounter.record(1L, "u:alice");
+
+        // Act // Akce
+        uniqueViewerCounter.flush();
+        uniqueViewerCounter.flush();
+
+        // Assert // Ověření
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO post_viewer_daily"), any(), any(), any());
+        verify(jdbcTemplate).update(startsWith("INSERT INTO post_stats"), args.capture(), eq(1L));
+        assertThat(HyperLogLog.fromBytes((byte[]) args.getValue()).estimate()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_ShouldMergeIntoStoredSketch_WhenRowExists() {
+        // Arrange // Příprava
+        HyperLogLog stored = new HyperLogLog();
+        stored.offer("u:bob");
+        when(jdbcTemplate.queryForList(startsWith("SELECT sketch"), eq(byte[].class), any(), any()))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT viewer_sketch"), eq(byte[].class), any()))
+                .thenReturn(List.of(stored.toBytes()));
+        uniqueViewerCounter.record(1L, "u:alice");
+
+        // Act // Akce
+        uniqueViewerCounter.flush();
+
+        // Assert // Ověření
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(startsWith("UPDATE post_stats"), args.capture(), eq(1L));
+        assertThat(HyperLogLog.fromBytes((byte[]) args.getValue()).estimate()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,118 @@
+package discussionforum.service;
+
+import discussionforum.event.CommentVotedEvent;
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.VoteType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VoteBitmaps // Unit testy pro VoteBitmaps
+ * Tests lazy loading, updates from vote events and the bound of the cache
+ * Testuje líné načítání, aktualizace z událostí hlasování a omezení mezipaměti
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class VoteBitmapsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private VoteBitmaps voteBitmaps;
+
+    @BeforeEach
+    void setUp() {
+        voteBitmaps = new VoteBitmaps(jdbcTemplate);
+        ReflectionTestUtils.setField(voteBitmaps, "enabled", true);
+        ReflectionTestUtils.setField(voteBitmaps, "maxUsers", 2);
+    }
+
+    @Test
+    void of_ShouldLoadUserOnce_AndAnswerFromBitmaps() throws SQLException {
+        // Arrange: an upvoted post and a downvoted comment // Příprava: kladně hodnocený příspěvek a záporně hodnocený komentář
+        storedVotes("votes", 5L, "UPVOTE");
+        storedVotes("comment_votes", 70000L, "DOWNVOTE");
+
+        // Act // Akce
+        VoteBitmaps.UserVotes first = voteBitmaps.of(1L);
+        VoteBitmaps.UserVotes second = voteBitmaps.of(1L);
+
+        // Assert // Ověření
+        assertThat(second).isSameAs(first);
+        assertThat(first.postVote(5L)).isEqualTo(VoteType.UPVOTE);
+        assertThat(first.postVote(6L)).isNull();
+        assertThat(first.isCommentDownvoted(70000L)).isTrue();
+        assertThat(first.isCommentUpvoted(70000L)).isFalse();
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), eq(1L));
+    }
+
+    @Test
+    void onVoted_ShouldSwitchAndWithdraw_CachedVotes() {
+        // Arrange // Příprava
+        VoteBitmaps.UserVotes votes = voteBitmaps.of(1L);
+
+        // Act // Akce
+        voteBitmaps.onPostVoted(postVoted(1L, 5L, null, VoteType.UPVOTE));
+        voteBitmaps.onPostVoted(postVoted(1L, 5L, VoteType.UPVOTE, VoteType.DOWNVOTE));
+        voteBitmaps.onCommentVoted(new CommentVotedEvent(9L, 5L, 1L, null, VoteType.UPVOTE));
+        voteBitmaps.onCommentVoted(new CommentVotedEvent(9L, 5L, 1L, VoteType.UPVOTE, null));
+
+        // Assert // Ověření
+        assertThat(votes.postVote(5L)).isEqualTo(VoteType.DOWNVOTE);
+        assertThat(votes.commentVote(9L)).isNull();
+    }
+
+    @Test
+    void of_ShouldDropLeastRecentlyUsedUser_WhenFull() {
+        // Arrange // Příprava
+        VoteBitmaps.UserVotes first = voteBitmaps.of(1L);
+        voteBitmaps.of(2L);
+        voteBitmaps.of(1L);
+
+        // Act // Akce
+        voteBitmaps.of(3L);
+
+        // Assert: user 2 was loaded again, user 1 was not // Ověření: uživatel 2 se načetl znovu, uživatel 1 ne
+        assertThat(voteBitmaps.of(1L)).isSameAs(first);
+        voteBitmaps.of(2L);
+        verify(jdbcTemplate, times(4)).query(anyString(), any(RowCallbackHandler.class), eq(2L));
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), eq(1L));
+    }
+
+    @Test
+    void of_ShouldReturnNone_ForAnonymousViewer() {
+        // Act & Assert // Akce a ověření
+        assertThat(voteBitmaps.of(null)).isSameAs(VoteBitmaps.UserVotes.NONE);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void storedVotes(String table, long id, String type) throws SQLException {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(id);
+        when(row.getString(2)).thenReturn(type);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM " + table + " "), any(RowCallbackHandler.class), eq(1L));
+    }
+
+    private static PostVotedEvent postVoted(Long userId, Long postId, VoteType previous, VoteType current) {
+        return new PostVotedEvent(postId, 1L, userId, previous, current, 0, 0d, 0d, null);
+    }
+}
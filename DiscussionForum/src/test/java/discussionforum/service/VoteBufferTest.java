@@ -0,0 +1,311 @@
+package discussionforum.service;
+
+import discussionforum.event.PostVotedEvent;
+import discussionforum.exception.VoteBufferFullException;
+import discussionforum.model.PostTallyRow;
+import discussionforum.model.VoteResult;
+import discussionforum.model.VoteType;
+import discussionforum.repository.PostRepository;
+import discussionforum.repository.UserRepository;
+import discussionforum.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VoteBuffer // Unit testy pro VoteBuffer
+ * Tests coalescing of vote toggles, batched flushing, backpressure and replay of the local log
+ * Testuje slučování přepnutí hlasů, dávkový zápis, protitlak a přehrání lokálního logu
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class VoteBufferTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private VoteJournal voteJournal;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VoteBitmaps voteBitmaps;
+
+    @TempDir
+    Path logDir;
+
+    private VoteBuffer voteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userRepository.findIdByUsername(anyString()))
+                .thenAnswer(invocation -> Optional.of((long) invocation.getArgument(0, String.class).length()));
+        lenient().when(postRepository.findScore(1L)).thenReturn(Optional.of(10));
+        lenient().when(voteRepository.findType(anyLong(), anyLong())).thenReturn(Optional.empty());
+        voteBuffer = buffer(100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldCoalesceToggles_IntoOneInsert() {
+        // Arrange // Příprava
+        allWritesSucceed();
+        PostTallyRow tally = tally(11, 1, 0);
+        when(postRepository.findTallies(anyCollection())).thenReturn(List.of(tally));
+
+        // Act: up, none, up // Akce: nahoru, nic, nahoru
+        VoteResult first = voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        VoteResult second = voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        VoteResult third = voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        voteBuffer.flush();
+
+        // Assert // Ověření
+        assertThat(List.of(first, second, third)).containsExactly(
+                new VoteResult(11, VoteType.UPVOTE), new VoteResult(10, null), new VoteResult(11, VoteType.UPVOTE));
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO votes"), inserts.capture());
+        assertThat(inserts.getValue()).hasSize(1);
+        assertThat(inserts.getValue().get(0)[1]).isEqualTo("UPVOTE");
+        ArgumentCaptor<List<Object[]>> counters = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE posts SET score"), counters.capture());
+        assertThat(counters.getValue().get(0)[0]).isEqualTo(1);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), anyList());
+        verify(eventPublisher).publishEvent(any(PostVotedEvent.class));
+        verify(voteJournal).postsVoted(argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void flush_ShouldWriteNothing_WhenVoteToggledBackToStored() {
+        // Arrange // Příprava
+        when(voteRepository.findType(1L, 4L)).thenReturn(Optional.of(VoteType.UPVOTE));
+
+        // Act // Akce
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        voteBuffer.flush();
+
+        // Assert // Ověření
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldKeepIntentsAndLog_WhenWriteFails() throws IOException {
+        // Arrange // Příprava
+        voteBuffer.record(1L, "anna", VoteType.DOWNVOTE);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenAnswer(invocation -> applied(invocation.getArgument(1, List.class)));
+
+        // Act // Akce
+        voteBuffer.flush();
+
+        // Assert // Ověření
+        assertThat(segments()).isNotEmpty();
+        assertThat(voteBuffer.record(1L, "bob", VoteType.UPVOTE).score()).isEqualTo(10); // -1 still pending // -1 stále čeká
+
+        voteBuffer.flush();
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO votes"), inserts.capture());
+        assertThat(inserts.getValue()).hasSize(2);
+        assertThat(segments()).hasSize(1); // Only the fresh open segment // Pouze nový otevřený segment
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void init_ShouldReplayLoggedIntents_AfterCrash() {
+        // Arrange: acknowledged but never flushed // Příprava: potvrzeno, ale nikdy nezapsáno
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        voteBuffer.record(1L, "bob", VoteType.DOWNVOTE);
+        allWritesSucceed();
+
+        // Act // Akce
+        VoteBuffer restarted = buffer(100);
+        restarted.flush();
+
+        // Assert // Ověření
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO votes"), inserts.capture());
+        assertThat(inserts.getValue()).extracting(row -> row[0] + ":" + row[1])
+                .containsExactlyInAnyOrder("4:UPVOTE", "3:DOWNVOTE");
+    }
+
+    @Test
+    void record_ShouldFlushOnVotersThread_WhenBufferFull() {
+        // Arrange // Příprava
+        voteBuffer = buffer(1);
+        allWritesSucceed();
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+
+        // Act // Akce
+        voteBuffer.record(1L, "bob", VoteType.UPVOTE);
+
+        // Assert // Ověření
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO votes"), anyList());
+    }
+
+    @Test
+    void record_ShouldRefuseVote_WhenFullAndDatabaseDown() {
+        // Arrange // Příprava
+        voteBuffer = buffer(1);
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+        // Act & Assert // Akce a ověření
+        assertThatThrownBy(() -> voteBuffer.record(1L, "bob", VoteType.UPVOTE))
+                .isInstanceOf(VoteBufferFullException.class);
+    }
+
+    @Test
+    void record_ShouldNotCountFlushedVotesTwice_WhenScoreIsReadRightAfterCommit() {
+        // Arrange: a real synchronization lifecycle, bob votes from an after-commit listener of anna's flush //
+        // Příprava: skutečný průběh synchronizace, bob hlasuje z posluchače po potvrzení annina zápisu
+        voteBuffer = buffer(100, new SynchronizingTransactionManager());
+        VoteResult[] bob = new VoteResult[1];
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0, String.class).startsWith("UPDATE posts SET score")) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        bob[0] = voteBuffer.record(1L, "bob", VoteType.UPVOTE);
+                    }
+                });
+            }
+            return applied(invocation.getArgument(1, List.class));
+        });
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        when(postRepository.findScore(1L)).thenReturn(Optional.of(11)); // Anna's vote committed // Annin hlas potvrzen
+
+        // Act // Akce
+        voteBuffer.flush();
+
+        // Assert: stored 11 plus bob's pending vote, anna's only once // Ověření: uložených 11 plus bobův čekající
+        // hlas, annin jen jednou
+        assertThat(bob[0]).isEqualTo(new VoteResult(12, VoteType.UPVOTE));
+    }
+
+    @Test
+    void record_ShouldShowVoteInViewersBitmaps_BeforeFlush() {
+        // Act // Akce
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+        voteBuffer.record(1L, "anna", VoteType.UPVOTE);
+
+        // Assert // Ověření
+        verify(voteBitmaps).acknowledge(4L, 1L, VoteType.UPVOTE);
+        verify(voteBitmaps).acknowledge(4L, 1L, null);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private VoteBuffer buffer(int maxEntries) {
+        return buffer(maxEntries, transactionManager);
+    }
+
+    private VoteBuffer buffer(int maxEntries, PlatformTransactionManager transactionManager) {
+        VoteBuffer buffer = new VoteBuffer(userRepository, postRepository, voteRepository, jdbcTemplate,
+                transactionManager, voteJournal, eventPublisher, voteBitmaps);
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "stripeCount", 4);
+        ReflectionTestUtils.setField(buffer, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(buffer, "logDir", logDir.toString());
+        ReflectionTestUtils.setField(buffer, "logFsync", false);
+        buffer.init();
+        return buffer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allWritesSucceed() {
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenAnswer(invocation -> applied(invocation.getArgument(1, List.class)));
+    }
+
+    private static int[] applied(List<Object[]> rows) {
+        int[] counts = new int[rows.size()];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(logDir)) {
+            return files.filter(file -> Files.isRegularFile(file)).toList();
+        }
+    }
+
+    /**
+     * Transaction manager without a resource that still runs the synchronization callbacks. // Správce transakcí
+     * bez prostředku, který přesto spouští zpětná volání synchronizace.
+     */
+    private static final class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    private PostTallyRow tally(int score, int upvotes, int downvotes) {
+        PostTallyRow tally = mock(PostTallyRow.class);
+        when(tally.getId()).thenReturn(1L);
+        when(tally.getCommunityId()).thenReturn(1L);
+        when(tally.getScore()).thenReturn(score);
+        when(tally.getUpvotes()).thenReturn(upvotes);
+        when(tally.getDownvotes()).thenReturn(downvotes);
+        when(tally.getCreatedAt()).thenReturn(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return tally;
+    }
+}
@@ -0,0 +1,103 @@
+package discussionforum.service;
+
+import discussionforum.event.PostVotedEvent;
+import discussionforum.model.VoteType;
+import discussionforum.repository.PostVoteDailyRepository;
+import discussionforum.repository.PostVoteHourlyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VoteRollupService // Unit testy pro VoteRollupService
+ * Tests buffering of vote deltas and the batched update-or-insert flush
+ * Testuje sčítání změn hlasů a dávkový zápis typu update-or-insert
+ *
+ * @author Petr Reitinger
+ * @version 1.0
+ * @since 2025
+ */
+@ExtendWith(MockitoExtension.class)
+class VoteRollupServiceTest {
+
+    @Mock
+    private PostVoteHourlyRepository hourlyRepository;
+
+    @Mock
+    private PostVoteDailyRepository dailyRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VoteRollupService voteRollupService;
+
+    @BeforeEach
+    void setUp() {
+        voteRollupService = new VoteRollupService(hourlyRepository, dailyRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldWriteOneSummedRowPerBucket() {
+        // Arrange // Příprava
+        LocalDateTime now = LocalDateTime.now();
+        voteRollupService.onPostVoted(new PostVotedEvent(1L, 2L, 3L, null, VoteType.UPVOTE, 1, 0d, 0d, now));
+        voteRollupService.onPostVoted(new PostVotedEvent(1L, 2L, 4L, VoteType.DOWNVOTE, VoteType.UPVOTE, 3, 0d, 0d, now));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{0});
+
+        // Act // Akce
+        voteRollupService.flush();
+
+        // Assert // Ověření
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertThat(inserts.getAllValues()).allSatisfy(rows -> {
+            assertThat(rows).hasSize(1);
+            assertThat(rows.get(0)[0]).isEqualTo(1L);
+            assertThat(rows.get(0)[3]).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void flush_ShouldKeepDeltas_WhenWriteFails() {
+        // Arrange // Příprava
+        voteRollupService.onPostVoted(new PostVotedEvent(1L, 2L, 3L, null, VoteType.DOWNVOTE, -1, 0d, 0d, LocalDateTime.now()));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(new int[]{1});
+
+        // Act // Akce
+        voteRollupService.flush();
+        voteRollupService.flush();
+
+        // Assert // Ověření
+        verify(jdbcTemplate, times(4)).batchUpdate(startsWith("UPDATE"), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT"), anyList());
+    }
+
+    @Test
+    void onPostVoted_ShouldIgnoreVotesThatCancelOut() {
+        // Act // Akce
+        voteRollupService.onPostVoted(new PostVotedEvent(1L, 2L, 3L, VoteType.UPVOTE, VoteType.UPVOTE, 1, 0d, 0d, LocalDateTime.now()));
+        voteRollupService.flush();
+
+        // Assert // Ověření
+        verifyNoInteractions(jdbcTemplate);
+    }
+}